@@ -0,0 +1,148 @@
+package benchmark;
+
+import combat.actions.AttackAction;
+import combat.actions.CombatAction;
+import combat.engine.ActionJournal;
+import combat.engine.BattleReplayer;
+import combat.engine.TurnEngine;
+import combat.model.CombatUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 战斗记录基准：有无记录文件时单个回合的结算耗时，以及重放整场战斗记录的耗时
+ * （结束时输出重放速度）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ActionJournalBenchmark {
+    private static final int UNITS_PER_SIDE = 64;
+    private static final int REPLAY_TURNS = 1000;
+
+    @Param({"false", "true"})
+    public boolean journaling;
+
+    private List<CombatUnit> imperium;
+    private List<CombatUnit> tyranids;
+    private TurnEngine engine;
+    private ActionJournal journal;
+    private Path journalFile;
+    private SplittableRandom random;
+
+    private Path replayFile;
+    private BattleReplayer.ReplayResult lastReplay;
+
+    @Setup(Level.Trial)
+    public void recordReplayFile() throws IOException {
+        replayFile = Files.createTempFile("replay", ".bjnl");
+        try (ActionJournal recording = ActionJournal.create(replayFile)) {
+            TurnEngine recorded = newBattle(recording);
+            for (int turn = 0; turn < REPLAY_TURNS; turn++) {
+                playTurn(recorded);
+            }
+        }
+    }
+
+    /**
+     * 每次迭代使用新的战斗和记录文件，避免文件无限增长
+     */
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        if (journaling) {
+            journalFile = Files.createTempFile("battle", ".bjnl");
+            journal = ActionJournal.create(journalFile);
+        }
+        engine = newBattle(journal);
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeJournal() throws IOException {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+            Files.deleteIfExists(journalFile);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(replayFile);
+        System.out.println();
+        System.out.println(lastReplay);
+    }
+
+    @Benchmark
+    public TurnEngine.TurnReport executeTurn() {
+        return playTurn(engine);
+    }
+
+    @Benchmark
+    public BattleReplayer.ReplayResult replay() throws IOException {
+        lastReplay = BattleReplayer.replay(replayFile);
+        return lastReplay;
+    }
+
+    private TurnEngine newBattle(ActionJournal battleJournal) {
+        random = new SplittableRandom(BenchmarkFixtures.SEED);
+        imperium = new ArrayList<>(UNITS_PER_SIDE);
+        tyranids = new ArrayList<>(UNITS_PER_SIDE);
+        for (int i = 0; i < UNITS_PER_SIDE; i++) {
+            imperium.add(durable(BenchmarkFixtures.spaceMarine("imperium")));
+            tyranids.add(durable(BenchmarkFixtures.hormagaunt("tyranid")));
+        }
+        TurnEngine turnEngine = new TurnEngine();
+        turnEngine.setJournal(battleJournal);
+        turnEngine.registerUnits(imperium);
+        turnEngine.registerUnits(tyranids);
+        return turnEngine;
+    }
+
+    /**
+     * 双方所有单位各随机攻击一个敌方单位
+     */
+    private TurnEngine.TurnReport playTurn(TurnEngine turnEngine) {
+        List<CombatAction> actions = new ArrayList<>(2 * UNITS_PER_SIDE);
+        for (CombatUnit unit : imperium) {
+            actions.add(new AttackAction(unit, tyranids.get(random.nextInt(UNITS_PER_SIDE))));
+        }
+        for (CombatUnit unit : tyranids) {
+            actions.add(new AttackAction(unit, imperium.get(random.nextInt(UNITS_PER_SIDE))));
+        }
+        turnEngine.submitAll(actions);
+        return turnEngine.executeTurn();
+    }
+
+    /**
+     * 生命足够多，基准过程中不会有单位阵亡
+     */
+    private static CombatUnit durable(CombatUnit unit) {
+        unit.setMaxHealth(BigDecimal.valueOf(100_000_000));
+        unit.setCurrentHealth(BigDecimal.valueOf(100_000_000));
+        unit.setDeployed(true);
+        return unit;
+    }
+}
@@ -0,0 +1,94 @@
+package benchmark;
+
+import combat.actions.CombatAction;
+import combat.actions.UseResourceAction;
+import combat.model.BattlefieldGrid;
+import combat.model.CombatResource;
+import combat.model.CombatUnit;
+import combat.model.Position;
+import combat.model.ResourceType;
+import combat.model.TargetingType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 区域物资基准：大范围炮击落在密集虫群中，
+ * 虫群总数增加而命中数量不变时耗时应基本不变（只查询爆炸范围内的网格桶）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AreaOfEffectBenchmark {
+    private static final int HORDE_WIDTH = 40;
+
+    @Param({"1000", "10000"})
+    public int hordeSize;
+
+    @Param({"2", "6"})
+    public int blastRadius;
+
+    private CombatUnit artillery;
+    private List<CombatUnit> horde;
+    private BigDecimal fullHealth;
+    private BattlefieldGrid battlefield;
+    private CombatResource barrage;
+    private Random random;
+
+    @Setup
+    public void setUp() {
+        battlefield = new BattlefieldGrid();
+        horde = new ArrayList<>(hordeSize);
+        // 虫群排成 40 列的密集方阵
+        for (int i = 0; i < hordeSize; i++) {
+            CombatUnit unit = BenchmarkFixtures.hormagaunt("tyranid");
+            unit.setPosition(new Position(i % HORDE_WIDTH, i / HORDE_WIDTH));
+            unit.setDeployed(true);
+            battlefield.add(unit);
+            horde.add(unit);
+        }
+        artillery = BenchmarkFixtures.spaceMarine("imperium");
+        artillery.setPosition(new Position(HORDE_WIDTH + 20, 0));
+        artillery.setDeployed(true);
+        battlefield.add(artillery);
+        fullHealth = horde.get(0).getMaxHealth();
+
+        barrage = new CombatResource("地狱火炮击", ResourceType.AOE_DAMAGE, TargetingType.AREA,
+                Integer.MAX_VALUE, BigDecimal.valueOf(150));
+        barrage.setAreaOfEffect(blastRadius);
+        random = new Random(BenchmarkFixtures.SEED);
+    }
+
+    @Benchmark
+    public CombatAction.ActionResult areaResourceAction() {
+        // 落点限制在前 1000 个单位的范围内，不同虫群规模下命中数量相同
+        Position impact = new Position(blastRadius + random.nextInt(HORDE_WIDTH - 2 * blastRadius),
+                blastRadius + random.nextInt(1000 / HORDE_WIDTH - 2 * blastRadius));
+        UseResourceAction action = new UseResourceAction(artillery, barrage, impact, battlefield);
+        CombatAction.ActionResult result = action.execute();
+        artillery.resetTurnState();
+        for (CombatUnit unit : action.getAffectedUnits()) {
+            if (unit != artillery) {
+                unit.setCurrentHealth(fullHealth);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,107 @@
+package benchmark;
+
+import combat.actions.AttackAction;
+import combat.actions.CombatAction;
+import combat.engine.BattleActor;
+import combat.engine.BattleHost;
+import combat.model.CombatUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多场战斗并发执行基准，每次调用同时进行 battles 场战斗，按线程数观察吞吐量，
+ * 结束时输出宿主统计的每核每秒战斗数
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BattleHostBenchmark {
+    private static final int UNITS_PER_SIDE = 8;
+    private static final int TURNS = 10;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"256"})
+    public int battles;
+
+    private BattleHost host;
+
+    @Setup
+    public void setUp() {
+        host = new BattleHost(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.println();
+        System.out.println(host.getStats());
+        host.close();
+    }
+
+    @Benchmark
+    public int runBattles() {
+        List<CompletableFuture<BattleActor.BattleSummary>> results = new ArrayList<>(battles);
+        for (int i = 0; i < battles; i++) {
+            results.add(runBattle(host.openBattle(null), BenchmarkFixtures.SEED + i));
+        }
+        int turns = 0;
+        for (CompletableFuture<BattleActor.BattleSummary> result : results) {
+            turns += result.join().getTurns();
+        }
+        return turns;
+    }
+
+    /**
+     * 投递一整场战斗的消息，每回合双方所有单位随机攻击一个敌方单位
+     */
+    private static CompletableFuture<BattleActor.BattleSummary> runBattle(BattleActor battle, long seed) {
+        List<CombatUnit> imperium = new ArrayList<>(UNITS_PER_SIDE);
+        List<CombatUnit> tyranids = new ArrayList<>(UNITS_PER_SIDE);
+        for (int i = 0; i < UNITS_PER_SIDE; i++) {
+            imperium.add(deployed(BenchmarkFixtures.spaceMarine("imperium")));
+            tyranids.add(deployed(BenchmarkFixtures.hormagaunt("tyranid")));
+        }
+        List<CombatUnit> all = new ArrayList<>(imperium);
+        all.addAll(tyranids);
+        battle.registerUnits(all);
+
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int turn = 0; turn < TURNS; turn++) {
+            List<CombatAction> actions = new ArrayList<>(all.size());
+            for (CombatUnit unit : imperium) {
+                actions.add(new AttackAction(unit, tyranids.get(random.nextInt(UNITS_PER_SIDE))));
+            }
+            for (CombatUnit unit : tyranids) {
+                actions.add(new AttackAction(unit, imperium.get(random.nextInt(UNITS_PER_SIDE))));
+            }
+            battle.submitAll(actions);
+            battle.executeTurn();
+        }
+        return battle.close();
+    }
+
+    private static CombatUnit deployed(CombatUnit unit) {
+        unit.setDeployed(true);
+        return unit;
+    }
+}
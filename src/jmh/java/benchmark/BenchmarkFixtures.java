@@ -0,0 +1,46 @@
+package benchmark;
+
+import combat.model.CombatRange;
+import combat.model.CombatUnit;
+import combat.model.Position;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准测试共用的单位构造工具，使用固定种子保证每次运行的输入一致
+ */
+final class BenchmarkFixtures {
+    static final long SEED = 40_000L;
+
+    private BenchmarkFixtures() {
+    }
+
+    static CombatUnit spaceMarine(String ownerId) {
+        CombatUnit unit = new CombatUnit("星际战士", "步兵", 420.0, 300.0, 500.0, 0.35, 0.20, 6, 1.0, ownerId);
+        unit.setCombatRange(new CombatRange(1, 12));
+        return unit;
+    }
+
+    static CombatUnit hormagaunt(String ownerId) {
+        CombatUnit unit = new CombatUnit("刀虫", "虫族", 180.0, 90.0, 160.0, 0.10, 0.05, 8, 0.5, ownerId);
+        unit.setCombatRange(new CombatRange(1, 1));
+        return unit;
+    }
+
+    /**
+     * 在 size x size 的战场上随机部署两方单位，各占一半
+     */
+    static List<CombatUnit> deployArmies(int unitCount, int size) {
+        Random random = new Random(SEED);
+        List<CombatUnit> units = new ArrayList<>(unitCount);
+        for (int i = 0; i < unitCount; i++) {
+            CombatUnit unit = (i % 2 == 0) ? spaceMarine("imperium") : hormagaunt("tyranid");
+            unit.setPosition(new Position(random.nextInt(size), random.nextInt(size)));
+            unit.setDeployed(true);
+            units.add(unit);
+        }
+        return units;
+    }
+}
@@ -0,0 +1,82 @@
+package benchmark;
+
+import combat.actions.AttackAction;
+import combat.actions.CombatAction;
+import combat.actions.UseResourceAction;
+import combat.model.CombatResource;
+import combat.model.CombatUnit;
+import combat.model.ResourceType;
+import combat.model.TargetingType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AttackAction / UseResourceAction 执行基准，目标数量可参数化
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CombatActionBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int targetCount;
+
+    private CombatUnit attacker;
+    private List<CombatUnit> targets;
+    private BigDecimal fullHealth;
+    private CombatResource grenade;
+
+    @Setup
+    public void setUp() {
+        attacker = BenchmarkFixtures.spaceMarine("imperium");
+        attacker.setDeployed(true);
+        targets = new ArrayList<>(targetCount);
+        for (int i = 0; i < targetCount; i++) {
+            CombatUnit target = BenchmarkFixtures.hormagaunt("tyranid");
+            target.setDeployed(true);
+            targets.add(target);
+        }
+        fullHealth = targets.get(0).getMaxHealth();
+        grenade = new CombatResource("破片手雷", ResourceType.DAMAGE, TargetingType.MULTIPLE,
+                Integer.MAX_VALUE, BigDecimal.valueOf(150));
+        grenade.setMaxTargets(targetCount);
+    }
+
+    @Benchmark
+    public CombatAction.ActionResult attackAction() {
+        CombatAction.ActionResult result = new AttackAction(attacker, targets).execute();
+        resetTurn();
+        return result;
+    }
+
+    @Benchmark
+    public CombatAction.ActionResult useResourceAction() {
+        CombatAction.ActionResult result = new UseResourceAction(attacker, grenade, targets).execute();
+        resetTurn();
+        return result;
+    }
+
+    private void resetTurn() {
+        attacker.resetTurnState();
+        for (CombatUnit target : targets) {
+            target.setCurrentHealth(fullHealth);
+        }
+    }
+}
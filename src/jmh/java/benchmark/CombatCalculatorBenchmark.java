@@ -0,0 +1,79 @@
+package benchmark;
+
+import combat.model.CachingCombatCalculator;
+import combat.model.CombatCalculator;
+import combat.model.CombatResult;
+import combat.model.CombatUnit;
+import combat.model.DefenseFirstCombatCalculator;
+import combat.model.FixedPointCombatCalculator;
+import combat.model.Position;
+import combat.model.RetaliationCombatCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 攻防计算器基准：BigDecimal 实现、定点数实现、缓存命中，以及带反击的完整结算
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CombatCalculatorBenchmark {
+    private CombatUnit attacker;
+    private CombatUnit defender;
+    private CachingCombatCalculator cachingCalculator;
+
+    @Setup
+    public void setUp() {
+        attacker = BenchmarkFixtures.spaceMarine("imperium");
+        defender = BenchmarkFixtures.hormagaunt("tyranid");
+        attacker.setPosition(new Position(0, 0));
+        defender.setPosition(new Position(0, 1));
+        cachingCalculator = new CachingCombatCalculator();
+        cachingCalculator.prewarm(List.of(attacker), List.of(defender));
+    }
+
+    @Benchmark
+    public CombatResult defenseFirst() {
+        return DefenseFirstCombatCalculator.calculateCombat(attacker.getAttack(), defender.getCurrentDefense(),
+                attacker.getArmorPenetration(), defender.getResistance(), attacker.getDamageMultiplier(),
+                attacker.getExtraPenetration(), defender.getExtraDefense());
+    }
+
+    @Benchmark
+    public CombatResult fixedPoint() {
+        return FixedPointCombatCalculator.calculateCombat(attacker.getAttack(), defender.getCurrentDefense(),
+                attacker.getArmorPenetration(), defender.getResistance(), attacker.getDamageMultiplier(),
+                attacker.getExtraPenetration(), defender.getExtraDefense());
+    }
+
+    @Benchmark
+    public CombatResult cachedHit() {
+        return cachingCalculator.calculateCombat(attacker.getAttack(), defender.getCurrentDefense(),
+                attacker.getArmorPenetration(), defender.getResistance(), attacker.getDamageMultiplier(),
+                attacker.getExtraPenetration(), defender.getExtraDefense());
+    }
+
+    @Benchmark
+    public RetaliationCombatCalculator.RetaliationResult retaliationDefenseFirst() {
+        return RetaliationCombatCalculator.calculateCombat(attacker, defender, CombatCalculator.DEFENSE_FIRST);
+    }
+
+    @Benchmark
+    public RetaliationCombatCalculator.RetaliationResult retaliationFixedPoint() {
+        return RetaliationCombatCalculator.calculateCombat(attacker, defender, CombatCalculator.FIXED_POINT);
+    }
+}
@@ -0,0 +1,60 @@
+package benchmark;
+
+import combat.model.CombatUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CombatUnit.takeDamage 两个重载的基准
+ * 每次调用后恢复目标的生命与防御，保证每次测量走相同的代码路径
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CombatUnitBenchmark {
+    private CombatUnit attacker;
+    private CombatUnit target;
+    private BigDecimal fullHealth;
+    private BigDecimal fullDefense;
+    private BigDecimal rawDamage;
+    private BigDecimal penetration;
+
+    @Setup
+    public void setUp() {
+        attacker = BenchmarkFixtures.spaceMarine("imperium");
+        target = BenchmarkFixtures.spaceMarine("chaos");
+        fullHealth = target.getMaxHealth();
+        fullDefense = target.getMaxDefense();
+        rawDamage = attacker.getAttack();
+        penetration = attacker.getArmorPenetration();
+    }
+
+    @Benchmark
+    public CombatUnit.DamageResult takeDamageFromAttacker() {
+        CombatUnit.DamageResult result = target.takeDamage(attacker);
+        target.setCurrentDefense(fullDefense);
+        target.setCurrentHealth(fullHealth);
+        return result;
+    }
+
+    @Benchmark
+    public BigDecimal takeDamageRaw() {
+        BigDecimal result = target.takeDamage(rawDamage, penetration);
+        target.setCurrentHealth(fullHealth);
+        return result;
+    }
+}
@@ -0,0 +1,97 @@
+package benchmark;
+
+import combat.engine.EnemyPlanner;
+import combat.engine.PathfindingService;
+import combat.model.BattlefieldGrid;
+import combat.model.CombatUnit;
+import combat.model.Position;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 敌军规划基准：500 个敌军单位对阵 200 个玩家单位，观察整次规划耗时是否在预算内，
+ * 结束时输出最后一次规划的推演次数和相对贪心方案的评估
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EnemyPlannerBenchmark {
+    private static final int SIZE = 80;
+
+    @Param({"500"})
+    public int enemies;
+
+    @Param({"200"})
+    public int players;
+
+    @Param({"20", "80"})
+    public long budgetMillis;
+
+    @Param({"false", "true"})
+    public boolean pathfinding;
+
+    private List<CombatUnit> enemyUnits;
+    private List<CombatUnit> playerUnits;
+    private EnemyPlanner planner;
+    private EnemyPlanner.Plan lastPlan;
+    private long seed;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(BenchmarkFixtures.SEED);
+        BattlefieldGrid battlefield = new BattlefieldGrid();
+        Set<Position> occupied = new HashSet<>();
+        enemyUnits = new ArrayList<>(enemies);
+        playerUnits = new ArrayList<>(players);
+        // 敌军在战场下半部分，玩家在上半部分
+        for (int i = 0; i < enemies + players; i++) {
+            boolean enemy = i < enemies;
+            CombatUnit unit = enemy
+                    ? (i % 2 == 0 ? BenchmarkFixtures.hormagaunt("tyranid") : BenchmarkFixtures.spaceMarine("tyranid"))
+                    : BenchmarkFixtures.spaceMarine("imperium");
+            Position position;
+            do {
+                position = new Position(random.nextInt(SIZE), random.nextInt(SIZE / 2) + (enemy ? 0 : SIZE / 2));
+            } while (!occupied.add(position));
+            unit.setPosition(position);
+            unit.setDeployed(true);
+            battlefield.add(unit);
+            (enemy ? enemyUnits : playerUnits).add(unit);
+        }
+        PathfindingService pathfinder = pathfinding ? new PathfindingService(SIZE, SIZE, battlefield) : null;
+        planner = new EnemyPlanner(budgetMillis, pathfinder, ForkJoinPool.commonPool());
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.println();
+        System.out.println(lastPlan);
+    }
+
+    @Benchmark
+    public EnemyPlanner.Plan plan() {
+        lastPlan = planner.plan(enemyUnits, playerUnits, seed++);
+        return lastPlan;
+    }
+}
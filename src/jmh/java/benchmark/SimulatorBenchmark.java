@@ -0,0 +1,65 @@
+package benchmark;
+
+import combat.engine.BattleSimulator;
+import combat.model.CombatUnit;
+import model.EnemyBatch;
+import model.Unit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 蒙特卡洛模拟基准，按线程数观察加速比
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SimulatorBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private ForkJoinPool pool;
+    private BattleSimulator simulator;
+    private List<CombatUnit> party;
+    private EnemyBatch batch;
+
+    @Setup
+    public void setUp() {
+        pool = new ForkJoinPool(threads);
+        simulator = new BattleSimulator(unit -> BenchmarkFixtures.hormagaunt("tyranid"), 50, pool);
+        party = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            party.add(BenchmarkFixtures.spaceMarine("imperium"));
+        }
+        batch = new EnemyBatch("虫群", "基准测试敌军", 1);
+        batch.addEnemy(new Unit("刀虫", "虫族", 24));
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public BattleSimulator.SimulationReport simulate() {
+        return simulator.simulate(party, batch, 2_000, BenchmarkFixtures.SEED);
+    }
+}
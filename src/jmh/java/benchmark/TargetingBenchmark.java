@@ -0,0 +1,74 @@
+package benchmark;
+
+import combat.model.BattlefieldGrid;
+import combat.model.CombatUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 目标选择基准：逐个 Position.distanceTo 全量扫描与 BattlefieldGrid 范围查询对比
+ * 每次调用为一个单位查找射程内的所有敌人
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TargetingBenchmark {
+    private static final int BATTLEFIELD_SIZE = 200;
+
+    @Param({"100", "1000", "10000"})
+    public int unitCount;
+
+    private List<CombatUnit> units;
+    private BattlefieldGrid grid;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        units = BenchmarkFixtures.deployArmies(unitCount, BATTLEFIELD_SIZE);
+        grid = new BattlefieldGrid();
+        for (CombatUnit unit : units) {
+            grid.add(unit);
+        }
+    }
+
+    @Benchmark
+    public void linearScan(Blackhole blackhole) {
+        CombatUnit source = nextSource();
+        List<CombatUnit> enemies = new ArrayList<>();
+        for (CombatUnit candidate : units) {
+            if (candidate.isAlive() && !candidate.getOwnerId().equals(source.getOwnerId())
+                    && source.getCombatRange().isInRange(source.getPosition().distanceTo(candidate.getPosition()))) {
+                enemies.add(candidate);
+            }
+        }
+        blackhole.consume(enemies);
+    }
+
+    @Benchmark
+    public void gridQuery(Blackhole blackhole) {
+        blackhole.consume(grid.findEnemiesInRange(nextSource()));
+    }
+
+    private CombatUnit nextSource() {
+        CombatUnit source = units.get(cursor);
+        cursor = (cursor + 1) % units.size();
+        return source;
+    }
+}
@@ -0,0 +1,62 @@
+package benchmark;
+
+import combat.engine.AttackVolley;
+import combat.engine.BatchAttackResolver;
+import combat.model.CombatUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 整军齐射结算基准，比较串行与并行结算
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class VolleyBenchmark {
+
+    @Param({"1000", "10000"})
+    public int unitCount;
+
+    private List<CombatUnit> units;
+    private AttackVolley volley;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        // 每次调用重新生成满血的军队，避免前一次齐射的伤害影响结算路径
+        units = BenchmarkFixtures.deployArmies(unitCount, 200);
+        Random random = new Random(BenchmarkFixtures.SEED);
+        volley = new AttackVolley(unitCount);
+        for (int i = 0; i < unitCount; i += 2) {
+            int target = random.nextInt(unitCount / 2) * 2 + 1;
+            volley.add(units.get(i), units.get(target));
+            volley.add(units.get(target), units.get(i));
+        }
+    }
+
+    @Benchmark
+    public BatchAttackResolver.VolleyResult sequential() {
+        return new BatchAttackResolver(false).resolve(volley);
+    }
+
+    @Benchmark
+    public BatchAttackResolver.VolleyResult parallel() {
+        return new BatchAttackResolver(true).resolve(volley);
+    }
+}
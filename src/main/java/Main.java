@@ -1,15 +1,19 @@
 import java.util.*;
 import java.util.stream.Collectors;
 
-import config.DatabaseConfig;
+import config.DatabaseMetrics;
 import model.*;
 import model.Character;
 import service.*;
+import storage.CharacterPage;
+import storage.StorageBackend;
 
 public class Main {
-    private static final CharacterService characterService = CharacterService.getInstance();
-    private static final CampaignService campaignService = CampaignService.getInstance();
-    private static final DatabaseUserService userService = DatabaseUserService.getInstance();
+    // 服务由启动流程在后台初始化，分别在登录前和登录后等待就绪
+    private static StartupPipeline startup;
+    private static DatabaseUserService userService;
+    private static CharacterService characterService;
+    private static CampaignService campaignService;
     private static final Scanner scanner = new Scanner(System.in);
 
     private static final String SEPARATOR = "=========================================";
@@ -20,36 +24,62 @@ public class Main {
     private static final String EXIT_KEYWORD = "done";
 
     public static void main(String[] args) {
-        if (!initializeSystem()) {
+        startup = StartupPipeline.start();
+        printSystemHeader();
+
+        if (!handleUserAuthentication()) {
+            shutdownSystem();
             return;
         }
 
-        if (!handleUserAuthentication()) {
-            DatabaseConfig.closeDataSource();
+        if (!awaitServices()) {
+            shutdownSystem();
             return;
         }
 
         if (!handleCharacterSetup()) {
-            DatabaseConfig.closeDataSource();
+            shutdownSystem();
             return;
         }
 
         runMainSystem();
     }
 
-    private static boolean initializeSystem() {
-        System.out.println("正在测试数据库连接...");
-
-        if (DatabaseConfig.testConnection()) {
-            System.out.println("✅ 数据库连接成功！");
-        } else {
-            System.out.println("❌ 数据库连接失败！");
+    /**
+     * 等待存储后端和用户表就绪，第一次登录或注册前调用
+     */
+    private static boolean awaitUserService() {
+        if (userService != null) {
+            return true;
+        }
+        try {
+            userService = startup.awaitUsers();
+            return true;
+        } catch (StartupPipeline.StartupException e) {
+            System.out.println("❌ 数据库连接失败！" + e.getMessage());
             printConnectionTroubleshooting();
             return false;
         }
+    }
 
-        printSystemHeader();
-        return true;
+    /**
+     * 等待角色和战役服务就绪，并输出各启动阶段的耗时
+     */
+    private static boolean awaitServices() {
+        if (!startup.isServicesReady()) {
+            System.out.println("正在加载角色数据...");
+        }
+        try {
+            startup.awaitServices();
+            characterService = startup.getCharacterService();
+            campaignService = CampaignService.getInstance();
+            System.out.print(startup.getReport());
+            return true;
+        } catch (StartupPipeline.StartupException e) {
+            System.out.println("❌ 加载数据失败: " + e.getMessage());
+            System.out.print(startup.getReport());
+            return false;
+        }
     }
 
     private static void printConnectionTroubleshooting() {
@@ -72,8 +102,12 @@ public class Main {
 
         while (shouldContinue && !loginSuccess) {
             printLoginMenu();
+            startup.markFirstPrompt();
             String choice = getInput("请选择操作: ");
 
+            if ((choice.equals("1") || choice.equals("2")) && !awaitUserService()) {
+                return false;
+            }
             switch (choice) {
                 case "1":
                     loginSuccess = handleLogin();
@@ -381,10 +415,28 @@ public class Main {
             }
         }
 
-        DatabaseConfig.closeDataSource();
+        shutdownSystem();
         System.out.println("系统已安全退出");
     }
 
+    /**
+     * 等待后台启动阶段结束，写出排队中的角色修改后关闭存储后端
+     */
+    private static void shutdownSystem() {
+        startup.awaitQuietly();
+        CharacterService characters = startup.getCharacterService();
+        try {
+            if (characters != null) {
+                characters.shutdown();
+            }
+        } finally {
+            StorageBackend backend = startup.getBackend();
+            if (backend != null) {
+                backend.close();
+            }
+        }
+    }
+
     private static boolean processMainMenuChoice(String choice) {
         switch (choice) {
             case "1":
@@ -493,24 +545,42 @@ public class Main {
 
     private static void listCharacters() {
         System.out.println("\n--- 所有角色 ---");
-        List<Character> characters = characterService.getAllCharacters();
+        long cursor = 0;
+        int pageNumber = 1;
 
-        if (characters.isEmpty()) {
-            System.out.println("暂无角色数据。");
-            return;
-        }
+        while (true) {
+            CharacterPage page =
+                    characterService.listCharacters(cursor, characterService.getPageSize());
+            List<Character> characters = page.getCharacters();
 
-        System.out.printf("%-10s %-20s %-15s %-10s %-10s\n",
-                "ID", "名称", "称号", "阵营", "单位数量");
-        System.out.println("----------------------------------------------------------------");
+            if (characters.isEmpty()) {
+                System.out.println(pageNumber == 1 ? "暂无角色数据。" : "没有更多角色了。");
+                return;
+            }
+
+            System.out.printf("第 %d 页\n", pageNumber);
+            System.out.printf("%-10s %-20s %-15s %-10s %-10s\n",
+                    "ID", "名称", "称号", "阵营", "单位数量");
+            System.out.println("----------------------------------------------------------------");
+
+            for (Character character : characters) {
+                System.out.printf("%-10d %-20s %-15s %-10s %-10d\n",
+                        character.getId(),
+                        character.getName(),
+                        character.getTitle().isEmpty() ? "无" : character.getTitle(),
+                        character.getFaction().getDisplayName(),
+                        character.getUnits().size());
+            }
 
-        for (Character character : characters) {
-            System.out.printf("%-10d %-20s %-15s %-10s %-10d\n",
-                    character.getId(),
-                    character.getName(),
-                    character.getTitle().isEmpty() ? "无" : character.getTitle(),
-                    character.getFaction().getDisplayName(),
-                    character.getUnits().size());
+            if (!page.hasMore()) {
+                return;
+            }
+            String choice = getInput("输入 n 查看下一页，直接回车结束: ");
+            if (!"n".equalsIgnoreCase(choice)) {
+                return;
+            }
+            cursor = page.getNextCursor();
+            pageNumber++;
         }
     }
 
@@ -805,7 +875,20 @@ public class Main {
 
     private static void listCampaigns() {
         System.out.println("\n--- 所有战役 ---");
-        List<Campaign> campaigns = campaignService.getAllCampaigns();
+        CampaignStatus[] statuses = CampaignStatus.values();
+        for (int i = 0; i < statuses.length; i++) {
+            System.out.println((i + 1) + ". " + statuses[i].getDisplayName());
+        }
+        String filter = getInput("按状态筛选（输入序号，直接回车显示全部）: ").trim();
+        List<Campaign> campaigns;
+        try {
+            campaigns = filter.isEmpty()
+                    ? campaignService.getAllCampaigns()
+                    : campaignService.getCampaignsByStatus(statuses[Integer.parseInt(filter) - 1]);
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            System.out.println("无效的状态序号，显示全部战役");
+            campaigns = campaignService.getAllCampaigns();
+        }
 
         if (campaigns.isEmpty()) {
             System.out.println("暂无战役数据。");
@@ -1015,7 +1098,8 @@ public class Main {
             System.out.println("1. 列出所有用户");
             System.out.println("2. 修改用户权限");
             System.out.println("3. 指定用户为管理员");
-            System.out.println("4. 返回主菜单");
+            System.out.println("4. 查看数据库连接池状态");
+            System.out.println("5. 返回主菜单");
 
             String choice = getInput("请选择操作: ");
             switch (choice) {
@@ -1032,6 +1116,11 @@ public class Main {
                     waitForEnter(PROMPT_RETURN_MENU);
                     break;
                 case "4":
+                    System.out.println("\n--- 数据库连接池状态 ---");
+                    System.out.print(DatabaseMetrics.getInstance().snapshot());
+                    waitForEnter(PROMPT_RETURN_MENU);
+                    break;
+                case "5":
                     inUserManagement = false;
                     break;
                 default:
@@ -4,6 +4,7 @@ public enum ActionType {
     DEPLOY("部署单位"),
     MOVE("移动单位"),
     ATTACK("攻击"),
+    RETALIATION_ATTACK("带反击的攻击"),
     HEAL("治疗"),
     USE_RESOURCE("使用物资"),
     SPECIAL("特殊行动"),
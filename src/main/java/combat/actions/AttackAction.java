@@ -1,7 +1,8 @@
 package combat.actions;
 
+import combat.engine.AttackVolley;
+import combat.model.CombatLog;
 import combat.model.CombatUnit;
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.ArrayList;
 
@@ -61,26 +62,26 @@ public class AttackAction extends combat.actions.CombatAction {
         }
 
         try {
-            List<String> attackResults = new ArrayList<>();
+            CombatLog log = resolveCombatLog();
+            int firstEvent = log.size();
 
             for (CombatUnit target : targets) {
-                BigDecimal rawDamage = sourceUnit.getAttack();
-                BigDecimal penetration = sourceUnit.getArmorPenetration();
-                BigDecimal actualDamage = target.takeDamage(rawDamage, penetration);
-
-                attackResults.add(String.format("%s 对 %s 造成 %s 点伤害",
-                        sourceUnit.getName(), target.getName(), actualDamage));
+                CombatUnit.DamageResult damage = target.takeAttack(sourceUnit);
 
+                log.recordHealthDamage(sourceUnit, target, damage.getHealthDamage());
                 if (!target.isAlive()) {
-                    attackResults.add(String.format("%s 被消灭!", target.getName()));
+                    log.recordKill(sourceUnit, target);
                 }
             }
 
             sourceUnit.setHasActedThisTurn(true);
             this.executed = true;
 
+            // 只记录结构化事件，文字在读取消息时才生成；复制本次事件，日志之后被撤销截断也不影响结果
+            CombatLog events = log.slice(firstEvent, log.size());
+            List<String> attackResults = events.lines(0, events.size());
             return ActionResult.success(
-                    String.join("; ", attackResults),
+                    () -> String.join("; ", attackResults),
                     attackResults
             );
 
@@ -89,6 +90,23 @@ public class AttackAction extends combat.actions.CombatAction {
         }
     }
 
+    /**
+     * 将本次攻击加入齐射，由 BatchAttackResolver 统一结算
+     * 齐射与 execute 使用同一伤害规则（CombatUnit.takeAttack），结算结果与逐个执行相同
+     */
+    public ValidationResult addToVolley(AttackVolley volley) {
+        ValidationResult validation = validate();
+        if (!validation.isValid()) {
+            return validation;
+        }
+        for (CombatUnit target : targets) {
+            volley.add(sourceUnit, target);
+        }
+        sourceUnit.setHasActedThisTurn(true);
+        this.executed = true;
+        return validation;
+    }
+
     @Override
     public String getDescription() {
         if (isMultiTarget) {
@@ -104,6 +122,14 @@ public class AttackAction extends combat.actions.CombatAction {
         return new ArrayList<>(targets);
     }
 
+    @Override
+    public List<CombatUnit> getAffectedUnits() {
+        List<CombatUnit> affected = new ArrayList<>(targets.size() + 1);
+        affected.add(sourceUnit);
+        affected.addAll(targets);
+        return affected;
+    }
+
     public boolean isMultiTarget() {
         return isMultiTarget;
     }
@@ -1,7 +1,12 @@
 package combat.actions;
 
+import combat.model.CombatLog;
 import combat.model.CombatUnit;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
 /**
  * 战斗动作抽象基类
  */
@@ -11,6 +16,7 @@ public abstract class CombatAction {
     protected final CombatUnit sourceUnit;
     protected ActionType actionType;
     protected boolean executed;
+    protected CombatLog combatLog;
 
     public CombatAction(String name, CombatUnit sourceUnit, ActionType actionType) {
         this.actionId = java.util.UUID.randomUUID().toString();
@@ -30,6 +36,24 @@ public abstract class CombatAction {
     public ActionType getActionType() { return actionType; }
     public boolean isExecuted() { return executed; }
 
+    /**
+     * 执行后状态可能改变的单位，第一个总是发起单位；用于记录战斗记录文件
+     */
+    public List<CombatUnit> getAffectedUnits() {
+        return Collections.singletonList(sourceUnit);
+    }
+
+    /**
+     * 设置战斗事件日志，动作执行时的伤害、消灭等事件追加到该日志
+     * 未设置时每次执行使用独立的临时日志
+     */
+    public void setCombatLog(CombatLog combatLog) { this.combatLog = combatLog; }
+    public CombatLog getCombatLog() { return combatLog; }
+
+    protected CombatLog resolveCombatLog() {
+        return combatLog != null ? combatLog : new CombatLog();
+    }
+
     public static class ValidationResult {
         private final boolean valid;
         private final String message;
@@ -51,9 +75,14 @@ public abstract class CombatAction {
         }
     }
 
+    /**
+     * 动作执行结果
+     * 消息可以延迟生成：只有调用 getMessage 时才格式化，之后缓存
+     */
     public static class ActionResult {
         private final boolean success;
-        private final String message;
+        private Supplier<String> messageSupplier;
+        private String message;
         private final Object data;
 
         public ActionResult(boolean success, String message, Object data) {
@@ -62,10 +91,23 @@ public abstract class CombatAction {
             this.data = data;
         }
 
+        public ActionResult(boolean success, Supplier<String> messageSupplier, Object data) {
+            this.success = success;
+            this.messageSupplier = messageSupplier;
+            this.data = data;
+        }
+
         public boolean isSuccess() { return success; }
-        public String getMessage() { return message; }
         public Object getData() { return data; }
 
+        public String getMessage() {
+            if (messageSupplier != null) {
+                message = messageSupplier.get();
+                messageSupplier = null;
+            }
+            return message;
+        }
+
         public static ActionResult success(String message) {
             return new ActionResult(true, message, null);
         }
@@ -74,6 +116,10 @@ public abstract class CombatAction {
             return new ActionResult(true, message, data);
         }
 
+        public static ActionResult success(Supplier<String> messageSupplier, Object data) {
+            return new ActionResult(true, messageSupplier, data);
+        }
+
         public static ActionResult failure(String message) {
             return new ActionResult(false, message, null);
         }
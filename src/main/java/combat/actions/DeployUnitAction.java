@@ -1,5 +1,6 @@
 package combat.actions;
 
+import combat.model.BattlefieldGrid;
 import combat.model.CombatUnit;
 import combat.model.Position;
 
@@ -8,10 +9,19 @@ import combat.model.Position;
  */
 public class DeployUnitAction extends CombatAction {
     private final Position targetPosition;
+    private final BattlefieldGrid battlefield;
 
     public DeployUnitAction(CombatUnit sourceUnit, Position targetPosition) {
+        this(sourceUnit, targetPosition, null);
+    }
+
+    /**
+     * 带战场索引的部署动作，会检查目标格子是否已被占据，并在部署后将单位加入索引
+     */
+    public DeployUnitAction(CombatUnit sourceUnit, Position targetPosition, BattlefieldGrid battlefield) {
         super("部署单位", sourceUnit, ActionType.DEPLOY);
         this.targetPosition = targetPosition;
+        this.battlefield = battlefield;
     }
 
     @Override
@@ -25,6 +35,9 @@ public class DeployUnitAction extends CombatAction {
         if (!sourceUnit.isAlive()) {
             return ValidationResult.failure("单位无法部署");
         }
+        if (battlefield != null && battlefield.isOccupied(targetPosition)) {
+            return ValidationResult.failure("目标位置已被占据");
+        }
         return ValidationResult.success();
     }
 
@@ -37,6 +50,9 @@ public class DeployUnitAction extends CombatAction {
 
         try {
             sourceUnit.setPosition(targetPosition);
+            if (battlefield != null) {
+                battlefield.add(sourceUnit);
+            }
             sourceUnit.setDeployed(true);
             sourceUnit.setHasMovedThisTurn(true);
             sourceUnit.setHasActedThisTurn(true);
@@ -1,5 +1,7 @@
 package combat.actions;
 
+import combat.engine.PathfindingService;
+import combat.model.BattlefieldGrid;
 import combat.model.CombatUnit;
 import combat.model.Position;
 
@@ -8,10 +10,31 @@ import combat.model.Position;
  */
 public class MoveUnitAction extends CombatAction {
     private final Position targetPosition;
+    private final BattlefieldGrid battlefield;
+    private final PathfindingService pathfinder;
 
     public MoveUnitAction(CombatUnit sourceUnit, Position targetPosition) {
+        this(sourceUnit, targetPosition, (BattlefieldGrid) null);
+    }
+
+    /**
+     * 带战场索引的移动动作，会检查目标格子是否已被其他单位占据
+     */
+    public MoveUnitAction(CombatUnit sourceUnit, Position targetPosition, BattlefieldGrid battlefield) {
+        super("移动单位", sourceUnit, ActionType.MOVE);
+        this.targetPosition = targetPosition;
+        this.battlefield = battlefield;
+        this.pathfinder = null;
+    }
+
+    /**
+     * 带寻路的移动动作，要求存在一条绕开障碍和其他单位、长度不超过移动力的路径
+     */
+    public MoveUnitAction(CombatUnit sourceUnit, Position targetPosition, PathfindingService pathfinder) {
         super("移动单位", sourceUnit, ActionType.MOVE);
         this.targetPosition = targetPosition;
+        this.battlefield = pathfinder.getBattlefield();
+        this.pathfinder = pathfinder;
     }
 
     @Override
@@ -32,6 +55,16 @@ public class MoveUnitAction extends CombatAction {
         if (targetPosition.getX() < 0 || targetPosition.getY() < 0) {
             return ValidationResult.failure("无效的目标位置");
         }
+        if (battlefield != null) {
+            CombatUnit occupant = battlefield.getOccupant(targetPosition);
+            if (occupant != null && occupant != sourceUnit) {
+                return ValidationResult.failure("目标位置已被占据");
+            }
+        }
+        if (pathfinder != null && !targetPosition.equals(sourceUnit.getPosition())
+                && !pathfinder.canReach(sourceUnit, targetPosition)) {
+            return ValidationResult.failure("没有可到达目标位置的路径");
+        }
         return ValidationResult.success();
     }
 
@@ -0,0 +1,105 @@
+package combat.actions;
+
+import combat.model.CombatCalculator;
+import combat.model.CombatLog;
+import combat.model.CombatUnit;
+import combat.model.RetaliationCombatCalculator;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 带反击的攻击动作
+ * 按 {@link RetaliationCombatCalculator} 的规则结算：目标在射程内时可立即反击
+ */
+public class RetaliationAttackAction extends CombatAction {
+    private final CombatUnit target;
+    private final CombatCalculator calculator;
+
+    public RetaliationAttackAction(CombatUnit sourceUnit, CombatUnit target) {
+        this(sourceUnit, target, CombatCalculator.DEFENSE_FIRST);
+    }
+
+    public RetaliationAttackAction(CombatUnit sourceUnit, CombatUnit target, CombatCalculator calculator) {
+        super("带反击的攻击", sourceUnit, ActionType.RETALIATION_ATTACK);
+        this.target = target;
+        this.calculator = calculator;
+    }
+
+    @Override
+    public ValidationResult validate() {
+        if (!sourceUnit.isDeployed()) {
+            return ValidationResult.failure("单位未部署，无法攻击");
+        }
+        if (!sourceUnit.isAlive()) {
+            return ValidationResult.failure("单位已阵亡，无法攻击");
+        }
+        if (sourceUnit.hasActedThisTurn()) {
+            return ValidationResult.failure("单位本回合已行动");
+        }
+        if (!target.isDeployed()) {
+            return ValidationResult.failure("目标单位未部署");
+        }
+        if (!target.isAlive()) {
+            return ValidationResult.failure("目标单位已阵亡");
+        }
+        if (target.getOwnerId().equals(sourceUnit.getOwnerId())) {
+            return ValidationResult.failure("不能攻击友军单位");
+        }
+        int distance = sourceUnit.getPosition().distanceTo(target.getPosition());
+        if (!sourceUnit.getCombatRange().isInRange(distance)) {
+            return ValidationResult.failure("目标不在射程范围内");
+        }
+        return ValidationResult.success();
+    }
+
+    @Override
+    public ActionResult execute() {
+        ValidationResult validation = validate();
+        if (!validation.isValid()) {
+            return ActionResult.failure(validation.getMessage());
+        }
+
+        try {
+            CombatLog log = resolveCombatLog();
+            int firstEvent = log.size();
+
+            RetaliationCombatCalculator.RetaliationResult result =
+                    sourceUnit.attackWithRetaliation(target, calculator);
+            log.recordRetaliationResult(sourceUnit, target, result);
+            if (!target.isAlive()) {
+                log.recordKill(sourceUnit, target);
+            }
+            if (!sourceUnit.isAlive()) {
+                log.recordKill(target, sourceUnit);
+            }
+
+            sourceUnit.setHasActedThisTurn(true);
+            this.executed = true;
+
+            CombatLog events = log.slice(firstEvent, log.size());
+            List<String> attackResults = events.lines(0, events.size());
+            return ActionResult.success(
+                    () -> String.join("; ", attackResults),
+                    result
+            );
+
+        } catch (Exception e) {
+            return ActionResult.failure("攻击执行失败: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return String.format("%s 攻击 %s（可被反击）", sourceUnit.getName(), target.getName());
+    }
+
+    public CombatUnit getTarget() {
+        return target;
+    }
+
+    @Override
+    public List<CombatUnit> getAffectedUnits() {
+        return Arrays.asList(sourceUnit, target);
+    }
+}
@@ -1,8 +1,11 @@
 package combat.actions;
 
+import combat.model.BattlefieldGrid;
+import combat.model.CombatLog;
 import combat.model.CombatUnit;
 import combat.model.CombatResource;
 import combat.model.Position;
+import combat.model.TargetingType;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -15,12 +18,16 @@ public class UseResourceAction extends CombatAction {
     private final CombatResource resource;
     private final List<CombatUnit> targetUnits;
     private final Position targetPosition;
+    private final BattlefieldGrid battlefield;
+    private List<CombatUnit> areaTargets;     // 区域目标查询结果
+    private long areaTargetsVersion;          // 查询时的战场索引版本
 
     public UseResourceAction(CombatUnit sourceUnit, CombatResource resource, List<CombatUnit> targetUnits) {
         super("使用物资", sourceUnit, ActionType.USE_RESOURCE);
         this.resource = resource;
         this.targetUnits = new ArrayList<>(targetUnits);
         this.targetPosition = null;
+        this.battlefield = null;
     }
 
     public UseResourceAction(CombatUnit sourceUnit, CombatResource resource) {
@@ -28,13 +35,19 @@ public class UseResourceAction extends CombatAction {
         this.resource = resource;
         this.targetUnits = new ArrayList<>();
         this.targetPosition = null;
+        this.battlefield = null;
     }
 
-    public UseResourceAction(CombatUnit sourceUnit, CombatResource resource, Position targetPosition) {
+    /**
+     * 区域目标动作，通过战场索引查找目标位置 areaOfEffect 范围（曼哈顿距离）内的单位
+     */
+    public UseResourceAction(CombatUnit sourceUnit, CombatResource resource, Position targetPosition,
+                             BattlefieldGrid battlefield) {
         super("使用物资", sourceUnit, ActionType.USE_RESOURCE);
         this.resource = resource;
         this.targetUnits = new ArrayList<>();
         this.targetPosition = targetPosition;
+        this.battlefield = battlefield;
     }
 
     @Override
@@ -75,6 +88,9 @@ public class UseResourceAction extends CombatAction {
                 if (targetPosition == null) {
                     return ValidationResult.failure("区域目标物资需要指定目标位置");
                 }
+                if (battlefield == null) {
+                    return ValidationResult.failure("区域目标物资需要战场索引");
+                }
                 break;
             case SELF:
                 if (targetUnits.size() != 1 || !targetUnits.get(0).equals(sourceUnit)) {
@@ -104,18 +120,23 @@ public class UseResourceAction extends CombatAction {
                 return ActionResult.failure("物资使用失败");
             }
 
-            List<String> effectResults = new ArrayList<>();
-            for (CombatUnit target : targetUnits) {
-                String result = applyResourceEffect(target);
-                effectResults.add(result);
+            CombatLog log = resolveCombatLog();
+            int firstEvent = log.size();
+            if (resource.getTargetingType() == TargetingType.AREA) {
+                applyAreaEffect(resolveAreaTargets(), log);
+            } else {
+                for (CombatUnit target : targetUnits) {
+                    applyResourceEffect(target, log);
+                }
             }
 
             sourceUnit.setHasActedThisTurn(true);
             this.executed = true;
 
+            CombatLog events = log.slice(firstEvent, log.size());
             return ActionResult.success(
-                    String.format("%s 使用了 %s", sourceUnit.getName(), resource.getName()),
-                    effectResults
+                    () -> String.format("%s 使用了 %s", sourceUnit.getName(), resource.getName()),
+                    events.lines(0, events.size())
             );
 
         } catch (Exception e) {
@@ -123,25 +144,78 @@ public class UseResourceAction extends CombatAction {
         }
     }
 
-    private String applyResourceEffect(CombatUnit target) {
+    private void applyResourceEffect(CombatUnit target, CombatLog log) {
         switch (resource.getType()) {
             case DAMAGE:
+            case AOE_DAMAGE:
                 BigDecimal damage = target.takeDamage(
                         resource.getEffectValue(),
                         resource.getPenetrationBonus()
                 );
-                return String.format("%s 受到 %s 点伤害", target.getName(), damage);
+                log.recordHealthDamage(null, target, damage);
+                break;
             case HEAL:
+            case AOE_HEAL:
                 BigDecimal heal = target.receiveHeal(resource.getEffectValue());
-                return String.format("%s 恢复 %s 点生命值", target.getName(), heal);
+                log.recordHeal(sourceUnit, target, heal);
+                break;
             case CONTROL:
                 target.setStatus(combat.model.CombatStatus.STUNNED);
-                return String.format("%s 被眩晕", target.getName());
+                log.recordStatus(sourceUnit, target, combat.model.CombatStatus.STUNNED);
+                break;
+            default:
+                log.recordEffect(sourceUnit, target, resource.getType());
+                break;
+        }
+    }
+
+    /**
+     * 对区域内命中的所有单位一次性结算：效果类型只判断一次，效果值在循环外取出
+     */
+    private void applyAreaEffect(List<CombatUnit> hits, CombatLog log) {
+        BigDecimal value = resource.getEffectValue();
+        switch (resource.getType()) {
+            case DAMAGE:
+            case AOE_DAMAGE:
+                BigDecimal penetration = resource.getPenetrationBonus();
+                for (CombatUnit target : hits) {
+                    if (target.isAlive()) {
+                        log.recordHealthDamage(null, target, target.takeDamage(value, penetration));
+                    }
+                }
+                break;
+            case HEAL:
+            case AOE_HEAL:
+                for (CombatUnit target : hits) {
+                    if (target.isAlive()) {
+                        log.recordHeal(sourceUnit, target, target.receiveHeal(value));
+                    }
+                }
+                break;
             default:
-                return String.format("%s 受到 %s 效果", target.getName(), resource.getType().getDescription());
+                for (CombatUnit target : hits) {
+                    if (target.isAlive()) {
+                        applyResourceEffect(target, log);
+                    }
+                }
+                break;
         }
     }
 
+    /**
+     * 通过战场索引查询区域内存活的有效目标
+     * 战场索引版本不变时复用上次结果，记录文件在执行前调用 getAffectedUnits 不会重复查询
+     */
+    private List<CombatUnit> resolveAreaTargets() {
+        long version = battlefield.getVersion();
+        if (areaTargets == null || areaTargetsVersion != version) {
+            areaTargets = battlefield.findUnitsInRange(targetPosition, 0, resource.getAreaOfEffect(),
+                    unit -> unit.isAlive() && resource.isValidTarget(unit, sourceUnit));
+            areaTargetsVersion = version;
+        }
+        return areaTargets;
+    }
+
     @Override
     public String getDescription() {
         return String.format("%s 使用 %s", sourceUnit.getName(), resource.getName());
@@ -155,7 +229,30 @@ public class UseResourceAction extends CombatAction {
         return new ArrayList<>(targetUnits);
     }
 
+    @Override
+    public List<CombatUnit> getAffectedUnits() {
+        if (resource.getTargetingType() == TargetingType.AREA && targetPosition != null && battlefield != null) {
+            List<CombatUnit> hits = resolveAreaTargets();
+            List<CombatUnit> affected = new ArrayList<>(hits.size() + 1);
+            affected.add(sourceUnit);
+            for (CombatUnit unit : hits) {
+                if (unit != sourceUnit) {
+                    affected.add(unit);
+                }
+            }
+            return affected;
+        }
+        List<CombatUnit> affected = new ArrayList<>(targetUnits.size() + 1);
+        affected.add(sourceUnit);
+        affected.addAll(targetUnits);
+        return affected;
+    }
+
     public Position getTargetPosition() {
         return targetPosition;
     }
+
+    public BattlefieldGrid getBattlefield() {
+        return battlefield;
+    }
 }
\ No newline at end of file
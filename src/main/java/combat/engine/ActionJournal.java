@@ -0,0 +1,266 @@
+package combat.engine;
+
+import combat.actions.CombatAction;
+import combat.model.CombatUnit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 战斗记录文件（只追加）
+ * 记录参战单位的初始状态、每个已执行的动作及其结果（受影响单位执行后的生命、防御、位置、
+ * 回合标记和状态），以及回合结束。{@link BattleReplayer} 按顺序应用这些记录即可重建战斗状态，
+ * 不需要重新计算伤害，因此重放结果与计算公式和随机数无关。
+ *
+ * 文件按固定大小的分段依次映射到内存，写入一条记录只是对映射缓冲区的几次 put，
+ * 不经过系统调用；当前分段写满后映射下一段，记录不跨分段。文件头保存已提交数据的末尾位置，
+ * 每条记录写完后才更新，进程中途崩溃时重放只读取到最后一条完整记录。
+ * 数据在 {@link #flush()} 或 {@link #close()} 时才保证落盘。
+ *
+ * 与 TurnEngine 一样不是线程安全的，应由拥有该战斗的线程使用。
+ */
+public class ActionJournal implements AutoCloseable {
+    static final int MAGIC = 0x424A4E4C; // "BJNL"
+    static final byte FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int COMMITTED_OFFSET = 16;
+    static final int DEFAULT_SEGMENT_SIZE = 1 << 20;
+
+    // 记录类型
+    static final byte RECORD_UNIT = 1;
+    static final byte RECORD_ACTION = 2;
+    static final byte RECORD_TURN_END = 3;
+
+    // 记录头：长度（不含自身）+ 类型
+    static final int RECORD_HEADER_BYTES = 4 + 1;
+    static final int ACTION_HEADER_BYTES = 4 + 1 + 1 + 2;
+    static final int AFFECTED_BYTES = 4 + BattleState.UNIT_STATE_BYTES;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final int segmentSize;
+    private final Map<CombatUnit, Integer> slots = new IdentityHashMap<>();
+    // prepare 时解析的受影响单位及其槽位，recordAction 记录同一动作时直接复用
+    private CombatAction preparedAction;
+    private List<CombatUnit> preparedUnits;
+    private int[] affectedSlots = new int[8];
+
+    private MappedByteBuffer segment;
+    private long segmentStart;
+    private long committed;
+    private long actionCount;
+    private boolean closed;
+
+    private ActionJournal(Path file, int segmentSize) throws IOException {
+        this.file = file;
+        this.segmentSize = segmentSize;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            header.putInt(MAGIC);
+            header.put(FORMAT_VERSION);
+            header.put((byte) 0);
+            header.putShort((short) 0);
+            header.putInt(segmentSize);
+            committed = HEADER_SIZE;
+            header.putLong(COMMITTED_OFFSET, committed);
+            mapSegment(HEADER_SIZE);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 创建新的记录文件，已存在时覆盖
+     */
+    public static ActionJournal create(Path file) throws IOException {
+        return create(file, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * @param segmentSize 每次映射的分段大小（字节），单条记录不能超过该大小
+     */
+    public static ActionJournal create(Path file, int segmentSize) throws IOException {
+        if (segmentSize < 1024) {
+            throw new IllegalArgumentException("分段大小不能小于1024字节");
+        }
+        return new ActionJournal(file, segmentSize);
+    }
+
+    // ==================== 记录 ====================
+
+    /**
+     * 登记单位并记录其当前状态作为初始状态，已登记的单位直接返回槽位
+     */
+    public int track(CombatUnit unit) {
+        Integer slot = slots.get(unit);
+        if (slot != null) {
+            return slot;
+        }
+        BattleState single = new BattleState(1);
+        single.addUnit(unit);
+        ByteBuffer body = ByteBuffer.allocate(256 + 4 * (lengthOf(unit.getName())
+                + lengthOf(unit.getType()) + lengthOf(unit.getOwnerId())));
+        single.writeSlot(0, body);
+        body.flip();
+
+        slot = slots.size();
+        ByteBuffer out = reserve(RECORD_UNIT, 4 + body.remaining());
+        out.putInt(slot);
+        out.put(body);
+        commit(out);
+        slots.put(unit, slot);
+        return slot;
+    }
+
+    /**
+     * 执行动作之前调用：登记尚未出现过的受影响单位，记录它们执行前的状态
+     */
+    public void prepare(CombatAction action) {
+        List<CombatUnit> affected = action.getAffectedUnits();
+        trackAll(affected);
+        preparedAction = action;
+        preparedUnits = affected;
+    }
+
+    /**
+     * 记录已执行的动作及受影响单位执行后的状态
+     */
+    public void recordAction(int turn, CombatAction action, boolean success) {
+        List<CombatUnit> affected;
+        if (action == preparedAction) {
+            affected = preparedUnits;
+        } else {
+            // 未经 prepare 的动作；单位记录必须写在动作记录之前
+            affected = action.getAffectedUnits();
+            trackAll(affected);
+        }
+        preparedAction = null;
+        preparedUnits = null;
+        int count = affected.size();
+        ByteBuffer out = reserve(RECORD_ACTION, ACTION_HEADER_BYTES + count * AFFECTED_BYTES);
+        out.putInt(turn);
+        out.put((byte) action.getActionType().ordinal());
+        out.put((byte) (success ? 1 : 0));
+        out.putShort((short) count);
+        for (int i = 0; i < count; i++) {
+            out.putInt(affectedSlots[i]);
+            BattleState.writeUnitState(affected.get(i), out);
+        }
+        commit(out);
+        actionCount++;
+    }
+
+    private void trackAll(List<CombatUnit> affected) {
+        int count = affected.size();
+        if (affectedSlots.length < count) {
+            affectedSlots = new int[Math.max(count, affectedSlots.length * 2)];
+        }
+        for (int i = 0; i < count; i++) {
+            affectedSlots[i] = track(affected.get(i));
+        }
+    }
+
+    /**
+     * 记录回合结束，重放时统一重置回合标记
+     */
+    public void recordTurnEnd(int turn) {
+        ByteBuffer out = reserve(RECORD_TURN_END, 4);
+        out.putInt(turn);
+        commit(out);
+    }
+
+    /**
+     * 把已写入的记录刷到磁盘
+     */
+    public void flush() {
+        checkOpen();
+        segment.force();
+        header.force();
+        try {
+            // 之前分段中尚未写回的页
+            channel.force(false);
+        } catch (IOException e) {
+            throw new IllegalStateException("战斗记录文件刷新失败: " + file, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            closed = true;
+            channel.close();
+        }
+    }
+
+    public Path getFile() { return file; }
+    public long getActionCount() { return actionCount; }
+    public int getUnitCount() { return slots.size(); }
+
+    /**
+     * 已提交数据的字节数（含文件头）
+     */
+    public long getCommittedBytes() { return committed; }
+
+    // ==================== 分段 ====================
+
+    /**
+     * 在当前分段中为一条记录预留空间并写入记录头，返回定位到记录体的缓冲区
+     */
+    private ByteBuffer reserve(byte kind, int bodyBytes) {
+        checkOpen();
+        int recordBytes = RECORD_HEADER_BYTES + bodyBytes;
+        if (recordBytes > segmentSize) {
+            throw new IllegalStateException("记录大小 " + recordBytes + " 超过分段大小 " + segmentSize);
+        }
+        if (segment.remaining() < recordBytes) {
+            // 分段剩余空间用长度 0 标记，读取时跳到下一段
+            if (segment.remaining() >= 4) {
+                segment.putInt(0);
+            }
+            try {
+                mapSegment(segmentStart + segmentSize);
+            } catch (IOException e) {
+                throw new IllegalStateException("战斗记录文件扩展失败: " + file, e);
+            }
+        }
+        segment.putInt(1 + bodyBytes);
+        segment.put(kind);
+        return segment;
+    }
+
+    private void commit(ByteBuffer out) {
+        committed = segmentStart + out.position();
+        header.putLong(COMMITTED_OFFSET, committed);
+    }
+
+    private void mapSegment(long start) throws IOException {
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, start, segmentSize);
+        segmentStart = start;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("战斗记录文件已关闭: " + file);
+        }
+    }
+
+    private static int lengthOf(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
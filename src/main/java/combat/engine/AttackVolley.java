@@ -0,0 +1,47 @@
+package combat.engine;
+
+import combat.model.CombatUnit;
+
+import java.util.Arrays;
+
+/**
+ * 齐射攻击列表
+ * 按顺序保存攻击者/目标配对，同一目标被多次命中时按加入顺序依次结算
+ */
+public class AttackVolley {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private CombatUnit[] attackers;
+    private CombatUnit[] targets;
+    private int size;
+
+    public AttackVolley() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public AttackVolley(int expectedShots) {
+        int capacity = Math.max(1, expectedShots);
+        this.attackers = new CombatUnit[capacity];
+        this.targets = new CombatUnit[capacity];
+    }
+
+    /**
+     * 添加一次射击
+     */
+    public AttackVolley add(CombatUnit attacker, CombatUnit target) {
+        if (size == attackers.length) {
+            int newCapacity = size + (size >> 1) + 1;
+            attackers = Arrays.copyOf(attackers, newCapacity);
+            targets = Arrays.copyOf(targets, newCapacity);
+        }
+        attackers[size] = attacker;
+        targets[size] = target;
+        size++;
+        return this;
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public CombatUnit getAttacker(int index) { return attackers[index]; }
+    public CombatUnit getTarget(int index) { return targets[index]; }
+}
@@ -0,0 +1,188 @@
+package combat.engine;
+
+import combat.model.CombatLog;
+import combat.model.CombatUnit;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 批量攻击结算器
+ * 一次性结算整场齐射，每次射击使用与 AttackAction.execute 相同的伤害规则（{@link CombatUnit#takeAttack}），
+ * 把攻击动作放进齐射不会改变结算结果。
+ * 并行模式下只有纯计算的伤害值通过 fork-join 并行求出，扣血、监听器通知（空间索引）和撤销日志记录
+ * 都在调用线程上按射击顺序执行，因此结果与串行完全一致，也不会从工作线程修改战斗状态。
+ * 结算过程只产生结构化结果，文字描述在调用 {@link VolleyResult#renderMessages()} 时才生成。
+ */
+public class BatchAttackResolver {
+    private static final int PARALLEL_SHOT_THRESHOLD = 256; // 射击数达到该值才并行计算伤害
+    private static final int SHOTS_PER_TASK = 64;           // 每个并行子任务计算的射击数
+
+    private final boolean parallel;
+    private final ForkJoinPool pool;
+
+    /**
+     * 串行结算
+     */
+    public BatchAttackResolver() {
+        this(false);
+    }
+
+    public BatchAttackResolver(boolean parallel) {
+        this(parallel, ForkJoinPool.commonPool());
+    }
+
+    public BatchAttackResolver(boolean parallel, ForkJoinPool pool) {
+        this.parallel = parallel;
+        this.pool = pool;
+    }
+
+    /**
+     * 结算齐射并将伤害应用到目标
+     */
+    public VolleyResult resolve(AttackVolley volley) {
+        int shots = volley.size();
+        CombatUnit.DamageResult[] results = new CombatUnit.DamageResult[shots];
+        if (parallel && shots >= PARALLEL_SHOT_THRESHOLD) {
+            BigDecimal[] damages = new BigDecimal[shots];
+            pool.invoke(new DamageTask(volley, 0, shots, damages));
+            for (int shot = 0; shot < shots; shot++) {
+                CombatUnit target = volley.getTarget(shot);
+                if (target.isAlive()) {
+                    results[shot] = target.takeAttackDamage(damages[shot]);
+                }
+            }
+        } else {
+            for (int shot = 0; shot < shots; shot++) {
+                CombatUnit target = volley.getTarget(shot);
+                if (target.isAlive()) {
+                    results[shot] = target.takeAttack(volley.getAttacker(shot));
+                }
+            }
+        }
+        // 目标已被本轮齐射消灭时多余的射击不结算，结果为 null
+        return new VolleyResult(volley, results);
+    }
+
+    /**
+     * 按射击区间拆分的并行伤害计算任务，只读取单位属性
+     */
+    private static class DamageTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final AttackVolley volley;
+        private final int from;
+        private final int to;
+        private final BigDecimal[] damages;
+
+        DamageTask(AttackVolley volley, int from, int to, BigDecimal[] damages) {
+            this.volley = volley;
+            this.from = from;
+            this.to = to;
+            this.damages = damages;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SHOTS_PER_TASK) {
+                for (int shot = from; shot < to; shot++) {
+                    damages[shot] = volley.getTarget(shot).calculateAttackDamage(volley.getAttacker(shot));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new DamageTask(volley, from, middle, damages),
+                    new DamageTask(volley, middle, to, damages));
+        }
+    }
+
+    /**
+     * 齐射结算结果
+     * 每次射击对应一个 DamageResult；目标已在本轮被消灭而未结算的射击为 null
+     */
+    public static class VolleyResult {
+        private final AttackVolley volley;
+        private final CombatUnit.DamageResult[] results;
+        private List<String> messages;
+
+        private VolleyResult(AttackVolley volley, CombatUnit.DamageResult[] results) {
+            this.volley = volley;
+            this.results = results;
+        }
+
+        public int size() { return results.length; }
+        public CombatUnit getAttacker(int index) { return volley.getAttacker(index); }
+        public CombatUnit getTarget(int index) { return volley.getTarget(index); }
+        public CombatUnit.DamageResult getDamageResult(int index) { return results[index]; }
+        public boolean isResolved(int index) { return results[index] != null; }
+
+        public int getResolvedCount() {
+            int count = 0;
+            for (CombatUnit.DamageResult result : results) {
+                if (result != null) count++;
+            }
+            return count;
+        }
+
+        public int getKilledCount() {
+            int count = 0;
+            for (CombatUnit.DamageResult result : results) {
+                if (result != null && result.isTargetKilled()) count++;
+            }
+            return count;
+        }
+
+        /**
+         * 本轮齐射实际造成的总伤害（防御损伤 + 生命损伤）
+         */
+        public BigDecimal getTotalDamage() {
+            BigDecimal total = BigDecimal.ZERO;
+            for (CombatUnit.DamageResult result : results) {
+                if (result != null) {
+                    total = total.add(result.getDefenseDamage()).add(result.getHealthDamage());
+                }
+            }
+            return total;
+        }
+
+        /**
+         * 将本轮齐射的结构化事件追加到战斗日志（不做字符串格式化）
+         */
+        public void recordTo(CombatLog log) {
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] != null) {
+                    log.recordDamage(volley.getAttacker(i), volley.getTarget(i), results[i]);
+                }
+            }
+        }
+
+        /**
+         * 生成每次射击的文字描述（首次调用时生成并缓存）
+         */
+        public List<String> renderMessages() {
+            if (messages == null) {
+                List<String> rendered = new ArrayList<>(results.length);
+                for (int i = 0; i < results.length; i++) {
+                    CombatUnit.DamageResult result = results[i];
+                    CombatUnit attacker = volley.getAttacker(i);
+                    CombatUnit target = volley.getTarget(i);
+                    if (result == null) {
+                        rendered.add(String.format("%s 的攻击落空（%s 已被消灭）", attacker.getName(), target.getName()));
+                        continue;
+                    }
+                    rendered.add(String.format("%s 对 %s 造成 %s 点伤害", attacker.getName(), target.getName(),
+                            result.getDefenseDamage().add(result.getHealthDamage())));
+                    if (result.isTargetKilled()) {
+                        rendered.add(String.format("%s 被消灭!", target.getName()));
+                    }
+                }
+                messages = Collections.unmodifiableList(rendered);
+            }
+            return messages;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package combat.engine;
+
+import combat.actions.CombatAction;
+import combat.model.CombatLog;
+import combat.model.CombatResource;
+import combat.model.CombatUnit;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 战斗执行者
+ * 一场战斗的 TurnEngine、单位、物资和战斗日志只由该执行者访问。外部线程通过邮箱投递消息
+ * （注册单位、提交动作、结束回合、查询），执行者在共享线程池上被调度，同一时刻最多只有一个线程
+ * 处理它的邮箱，因此战斗代码本身不需要任何同步。
+ *
+ * 交给执行者的单位、物资和动作不能再被其他线程直接读写，只能通过 {@link #ask} 在执行者线程内访问；
+ * 返回的 CompletableFuture 在执行者线程上完成。
+ */
+public class BattleActor {
+    // 每次调度最多处理的消息数，处理完后让出线程，避免一场战斗长期占用工作线程
+    private static final int MAX_MESSAGES_PER_RUN = 64;
+
+    private static final int IDLE = 0;
+    private static final int SCHEDULED = 1;
+    private static final int CLOSED = 2;
+
+    private final String battleId;
+    private final TurnEngine engine;
+    private final Executor executor;
+    private final BattleHost host;
+    private final ConcurrentLinkedQueue<Message> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger state = new AtomicInteger(IDLE);
+
+    // 以下字段只在执行者线程中访问
+    private boolean closed;
+    private int turnsExecuted;
+    private long actionsExecuted;
+    private long failedMessages;
+    private final long openedNanos = System.nanoTime();
+
+    BattleActor(String battleId, CombatLog combatLog, Executor executor, BattleHost host) {
+        this.battleId = battleId;
+        this.engine = new TurnEngine(combatLog);
+        this.executor = executor;
+        this.host = host;
+    }
+
+    public String getBattleId() {
+        return battleId;
+    }
+
+    // ==================== 消息 ====================
+
+    public void registerUnits(Collection<CombatUnit> units) {
+        tell(() -> engine.registerUnits(units));
+    }
+
+    public void registerResources(Collection<CombatResource> resources) {
+        tell(() -> engine.registerResources(resources));
+    }
+
+    /**
+     * 提交本回合的动作
+     */
+    public void submit(CombatAction action) {
+        tell(() -> engine.submit(action));
+    }
+
+    public void submitAll(Collection<? extends CombatAction> actions) {
+        tell(() -> engine.submitAll(actions));
+    }
+
+    /**
+     * 执行本回合已提交的动作并结束回合
+     */
+    public CompletableFuture<TurnEngine.TurnReport> executeTurn() {
+        return ask(turnEngine -> {
+            actionsExecuted += turnEngine.getPendingCount();
+            TurnEngine.TurnReport report = turnEngine.executeTurn();
+            turnsExecuted++;
+            return report;
+        });
+    }
+
+    /**
+     * 在执行者线程内读取或修改战斗状态
+     */
+    public <T> CompletableFuture<T> ask(Function<TurnEngine, T> query) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        enqueue(new Message(() -> {
+            try {
+                future.complete(query.apply(engine));
+            } catch (RuntimeException e) {
+                failedMessages++;
+                future.completeExceptionally(e);
+            }
+        }, future));
+        return future;
+    }
+
+    /**
+     * 结束战斗：之前投递的消息全部处理完后关闭邮箱，并从 BattleHost 中移除
+     */
+    public CompletableFuture<BattleSummary> close() {
+        CompletableFuture<BattleSummary> future = new CompletableFuture<>();
+        enqueue(new Message(() -> {
+            closed = true;
+            BattleSummary summary = new BattleSummary(battleId, turnsExecuted, actionsExecuted, failedMessages,
+                    System.nanoTime() - openedNanos);
+            host.battleClosed(this, summary);
+            future.complete(summary);
+        }, future));
+        return future;
+    }
+
+    public boolean isClosed() {
+        return state.get() == CLOSED;
+    }
+
+    private void tell(Runnable action) {
+        enqueue(new Message(() -> {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                failedMessages++;
+                System.err.println("战斗 " + battleId + " 处理消息失败: " + e.getMessage());
+            }
+        }, null));
+    }
+
+    /**
+     * 投递消息；战斗已结束时，带结果的消息以异常完成，不带结果的消息直接抛出异常
+     */
+    private void enqueue(Message message) {
+        if (state.get() != CLOSED) {
+            mailbox.add(message);
+            // 投递期间战斗可能刚好关闭，此时由取出消息的一方拒绝它
+            if (state.get() != CLOSED || !mailbox.remove(message)) {
+                schedule();
+                return;
+            }
+        }
+        if (!message.reject(battleId)) {
+            throw new IllegalStateException("战斗已结束: " + battleId);
+        }
+    }
+
+    private void schedule() {
+        if (state.compareAndSet(IDLE, SCHEDULED)) {
+            executor.execute(this::run);
+        }
+    }
+
+    // ==================== 执行 ====================
+
+    /**
+     * 处理邮箱中的消息，只会在一个线程上运行
+     */
+    private void run() {
+        long start = System.nanoTime();
+        int processed = 0;
+        Message message;
+        while (processed < MAX_MESSAGES_PER_RUN && !closed && (message = mailbox.poll()) != null) {
+            message.run();
+            processed++;
+        }
+        host.recordBusy(System.nanoTime() - start, processed);
+
+        if (closed) {
+            state.set(CLOSED);
+            drainClosed();
+            return;
+        }
+        state.set(IDLE);
+        // 释放调度标记之后再检查一次，避免丢失在此期间投递的消息
+        if (!mailbox.isEmpty()) {
+            schedule();
+        }
+    }
+
+    /**
+     * 关闭后仍在邮箱中的消息不再处理
+     */
+    private void drainClosed() {
+        Message message;
+        while ((message = mailbox.poll()) != null) {
+            message.reject(battleId);
+        }
+    }
+
+    /**
+     * 邮箱中的消息，战斗结束后未处理的消息以异常完成其结果
+     */
+    private static class Message {
+        private final Runnable action;
+        private final CompletableFuture<?> future;
+
+        Message(Runnable action, CompletableFuture<?> future) {
+            this.action = action;
+            this.future = future;
+        }
+
+        void run() {
+            action.run();
+        }
+
+        /**
+         * @return 是否有等待结果的调用方收到了通知
+         */
+        boolean reject(String battleId) {
+            if (future == null) {
+                return false;
+            }
+            future.completeExceptionally(new IllegalStateException("战斗已结束: " + battleId));
+            return true;
+        }
+    }
+
+    /**
+     * 战斗结束时的统计
+     */
+    public static class BattleSummary {
+        private final String battleId;
+        private final int turns;
+        private final long actions;
+        private final long failedMessages;
+        private final long elapsedNanos;
+
+        private BattleSummary(String battleId, int turns, long actions, long failedMessages, long elapsedNanos) {
+            this.battleId = battleId;
+            this.turns = turns;
+            this.actions = actions;
+            this.failedMessages = failedMessages;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public String getBattleId() { return battleId; }
+        public int getTurns() { return turns; }
+        public long getActions() { return actions; }
+        public long getFailedMessages() { return failedMessages; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        @Override
+        public String toString() {
+            return String.format("战斗 %s: %d 回合, %d 个动作, 失败消息 %d, 持续 %.1f ms",
+                    battleId, turns, actions, failedMessages, elapsedNanos / 1_000_000.0);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package combat.engine;
+
+import combat.model.CombatLog;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 战斗宿主
+ * 同时进行的多场战斗各由一个 {@link BattleActor} 持有，所有执行者共享一个工作窃取线程池
+ * （异步模式的 ForkJoinPool，任务按先进先出调度）。不同战斗之间不共享任何可变状态，
+ * 战斗数远多于 CPU 核数时也只需要与核数相同的线程。
+ *
+ * 宿主统计已结束的战斗数和执行者处理消息的累计耗时，用于计算每核每秒完成的战斗数。
+ */
+public class BattleHost implements AutoCloseable {
+    private final ForkJoinPool pool;
+    private final ConcurrentHashMap<String, BattleActor> battles = new ConcurrentHashMap<>();
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong battleSequence = new AtomicLong();
+    private final LongAdder completedBattles = new LongAdder();
+    private final LongAdder completedTurns = new LongAdder();
+    private final LongAdder busyNanos = new LongAdder();
+    private final LongAdder messages = new LongAdder();
+
+    public BattleHost() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public BattleHost(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("线程数必须大于0");
+        }
+        this.pool = new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+    }
+
+    /**
+     * 开始一场新战斗
+     *
+     * @param combatLog 该战斗的事件日志，为 null 时各动作使用临时日志
+     */
+    public BattleActor openBattle(CombatLog combatLog) {
+        return openBattle("battle-" + battleSequence.incrementAndGet(), combatLog);
+    }
+
+    public BattleActor openBattle(String battleId, CombatLog combatLog) {
+        if (pool.isShutdown()) {
+            throw new IllegalStateException("战斗宿主已关闭");
+        }
+        BattleActor actor = new BattleActor(battleId, combatLog, pool, this);
+        if (battles.putIfAbsent(battleId, actor) != null) {
+            throw new IllegalArgumentException("战斗已存在: " + battleId);
+        }
+        return actor;
+    }
+
+    public BattleActor getBattle(String battleId) {
+        return battles.get(battleId);
+    }
+
+    public Collection<BattleActor> getActiveBattles() {
+        return Collections.unmodifiableCollection(battles.values());
+    }
+
+    public int getActiveCount() {
+        return battles.size();
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    void battleClosed(BattleActor actor, BattleActor.BattleSummary summary) {
+        battles.remove(actor.getBattleId(), actor);
+        completedBattles.increment();
+        completedTurns.add(summary.getTurns());
+    }
+
+    void recordBusy(long nanos, int processed) {
+        busyNanos.add(nanos);
+        messages.add(processed);
+    }
+
+    public HostStats getStats() {
+        return new HostStats(completedBattles.sum(), completedTurns.sum(), messages.sum(), busyNanos.sum(),
+                System.nanoTime() - startNanos, pool.getParallelism(), battles.size(), pool.getStealCount());
+    }
+
+    /**
+     * 停止接受新战斗，等待已投递的消息处理完毕
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(30, TimeUnit.SECONDS)) {
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 宿主吞吐量统计
+     */
+    public static class HostStats {
+        private final long completedBattles;
+        private final long completedTurns;
+        private final long messages;
+        private final long busyNanos;
+        private final long elapsedNanos;
+        private final int parallelism;
+        private final int activeBattles;
+        private final long stealCount;
+
+        private HostStats(long completedBattles, long completedTurns, long messages, long busyNanos,
+                          long elapsedNanos, int parallelism, int activeBattles, long stealCount) {
+            this.completedBattles = completedBattles;
+            this.completedTurns = completedTurns;
+            this.messages = messages;
+            this.busyNanos = busyNanos;
+            this.elapsedNanos = elapsedNanos;
+            this.parallelism = parallelism;
+            this.activeBattles = activeBattles;
+            this.stealCount = stealCount;
+        }
+
+        public long getCompletedBattles() { return completedBattles; }
+        public long getCompletedTurns() { return completedTurns; }
+        public long getMessages() { return messages; }
+        public long getBusyNanos() { return busyNanos; }
+        public long getElapsedNanos() { return elapsedNanos; }
+        public int getParallelism() { return parallelism; }
+        public int getActiveBattles() { return activeBattles; }
+        public long getStealCount() { return stealCount; }
+
+        /**
+         * 每个工作线程（核）每秒完成的战斗数，按执行者实际处理消息的时间计算
+         */
+        public double getBattlesPerSecondPerCore() {
+            return busyNanos == 0 ? 0.0 : completedBattles * 1_000_000_000.0 / busyNanos;
+        }
+
+        /**
+         * 宿主启动以来按墙钟时间计算的每秒完成战斗数
+         */
+        public double getBattlesPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : completedBattles * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        /**
+         * 工作线程的平均利用率
+         */
+        public double getUtilization() {
+            return elapsedNanos == 0 ? 0.0 : (double) busyNanos / ((double) elapsedNanos * parallelism);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("已完成 %d 场战斗（%d 回合，%d 条消息），进行中 %d 场；%d 线程，利用率 %.1f%%，窃取 %d 次；"
+                            + "%.1f 场/秒，每核 %.1f 场/秒",
+                    completedBattles, completedTurns, messages, activeBattles, parallelism, getUtilization() * 100,
+                    stealCount, getBattlesPerSecond(), getBattlesPerSecondPerCore());
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package combat.engine;
+
+import combat.actions.ActionType;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 战斗记录重放器
+ * 按顺序读取 {@link ActionJournal} 写入的记录，在 {@link BattleState} 上重建战斗状态：
+ * 单位记录添加槽位，动作记录覆盖受影响单位的状态，回合结束记录重置回合标记。
+ * 重放只应用记录下来的结果，同一文件总是得到相同的状态。
+ */
+public class BattleReplayer {
+    private static final ActionType[] ACTION_TYPES = ActionType.values();
+
+    private BattleReplayer() {
+    }
+
+    /**
+     * 重放整个记录文件
+     */
+    public static ReplayResult replay(Path file) throws IOException {
+        return replay(file, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 重放到指定回合结束为止
+     */
+    public static ReplayResult replay(Path file, int lastTurn) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, ActionJournal.HEADER_SIZE);
+            if (header.getInt(0) != ActionJournal.MAGIC) {
+                throw new IllegalArgumentException("不是有效的战斗记录文件: " + file);
+            }
+            byte version = header.get(4);
+            if (version != ActionJournal.FORMAT_VERSION) {
+                throw new IllegalArgumentException("不支持的战斗记录版本: " + version);
+            }
+            int segmentSize = header.getInt(8);
+            long committed = Math.min(header.getLong(ActionJournal.COMMITTED_OFFSET), channel.size());
+
+            Replay replay = new Replay(lastTurn);
+            long segmentStart = ActionJournal.HEADER_SIZE;
+            while (segmentStart < committed && !replay.finished) {
+                int length = (int) Math.min(segmentSize, committed - segmentStart);
+                replay.readSegment(channel.map(FileChannel.MapMode.READ_ONLY, segmentStart, length));
+                segmentStart += segmentSize;
+            }
+            return replay.toResult(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 一次重放的状态
+     */
+    private static final class Replay {
+        private final int lastTurn;
+        private final BattleState state = new BattleState();
+        private final long[] actionCounts = new long[ACTION_TYPES.length];
+        private long actions;
+        private long failedActions;
+        private int turns;
+        private long healthDamage;     // 百分位
+        private long healing;          // 百分位
+        private int kills;
+        private boolean finished;
+
+        Replay(int lastTurn) {
+            this.lastTurn = lastTurn;
+        }
+
+        void readSegment(ByteBuffer segment) {
+            while (!finished && segment.remaining() >= ActionJournal.RECORD_HEADER_BYTES) {
+                int length = segment.getInt();
+                if (length == 0) {
+                    return; // 分段剩余部分未使用
+                }
+                int end = segment.position() + length;
+                byte kind = segment.get();
+                switch (kind) {
+                    case ActionJournal.RECORD_UNIT:
+                        readUnit(segment);
+                        break;
+                    case ActionJournal.RECORD_ACTION:
+                        readAction(segment);
+                        break;
+                    case ActionJournal.RECORD_TURN_END:
+                        readTurnEnd(segment);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("未知的战斗记录类型: " + kind);
+                }
+                segment.position(end);
+            }
+        }
+
+        private void readUnit(ByteBuffer in) {
+            int slot = in.getInt();
+            if (slot != state.size()) {
+                throw new IllegalArgumentException("战斗记录已损坏: 单位槽位 " + slot + " 不连续");
+            }
+            state.readSlot(in);
+        }
+
+        private void readAction(ByteBuffer in) {
+            int turn = in.getInt();
+            if (turn > lastTurn) {
+                finished = true;
+                return;
+            }
+            ActionType type = ACTION_TYPES[in.get()];
+            boolean success = in.get() != 0;
+            int count = in.getShort();
+            for (int i = 0; i < count; i++) {
+                int slot = in.getInt();
+                boolean wasAlive = state.isAlive(slot);
+                long oldHealth = state.getCurrentHealth(slot);
+                state.readUnitState(slot, in);
+                long change = state.getCurrentHealth(slot) - oldHealth;
+                if (change < 0) {
+                    healthDamage -= change;
+                } else {
+                    healing += change;
+                }
+                if (wasAlive && !state.isAlive(slot)) {
+                    kills++;
+                }
+            }
+            actions++;
+            actionCounts[type.ordinal()]++;
+            if (!success) {
+                failedActions++;
+            }
+        }
+
+        private void readTurnEnd(ByteBuffer in) {
+            int turn = in.getInt();
+            state.resetTurnState();
+            turns = turn;
+            if (turn >= lastTurn) {
+                finished = true;
+            }
+        }
+
+        ReplayResult toResult(long elapsedNanos) {
+            return new ReplayResult(state, actions, failedActions, actionCounts, turns, healthDamage, healing,
+                    kills, elapsedNanos);
+        }
+    }
+
+    /**
+     * 重放结果
+     */
+    public static class ReplayResult {
+        private final BattleState state;
+        private final long actions;
+        private final long failedActions;
+        private final long[] actionCounts;
+        private final int turns;
+        private final long healthDamage;
+        private final long healing;
+        private final int kills;
+        private final long elapsedNanos;
+
+        private ReplayResult(BattleState state, long actions, long failedActions, long[] actionCounts, int turns,
+                             long healthDamage, long healing, int kills, long elapsedNanos) {
+            this.state = state;
+            this.actions = actions;
+            this.failedActions = failedActions;
+            this.actionCounts = actionCounts;
+            this.turns = turns;
+            this.healthDamage = healthDamage;
+            this.healing = healing;
+            this.kills = kills;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * 重建的战斗状态，槽位顺序为单位第一次出现在记录中的顺序
+         */
+        public BattleState getState() { return state; }
+        public long getActions() { return actions; }
+        public long getFailedActions() { return failedActions; }
+        public long getActionCount(ActionType type) { return actionCounts[type.ordinal()]; }
+        /** 已结束的回合数 */
+        public int getTurns() { return turns; }
+        public BigDecimal getTotalHealthDamage() { return BattleState.toDecimal(healthDamage); }
+        public BigDecimal getTotalHealing() { return BattleState.toDecimal(healing); }
+        public int getKills() { return kills; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        public double getActionsPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : actions * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("重放 %d 个单位、%d 个动作（失败 %d）、%d 回合：生命伤害 %s，治疗 %s，消灭 %d；"
+                            + "耗时 %.1f ms（%.0f 动作/秒）",
+                    state.size(), actions, failedActions, turns, getTotalHealthDamage(), getTotalHealing(), kills,
+                    elapsedNanos / 1_000_000.0, getActionsPerSecond());
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package combat.engine;
+
+import combat.model.CombatUnit;
+import model.EnemyBatch;
+import model.Unit;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+/**
+ * 蒙特卡洛战斗模拟器
+ * 在战役发起敌军批次之前估算胜率：把队伍单位和敌军批次装入一个 {@link BattleState} 模板，
+ * 每次试验复制一份独立的状态并使用由总种子和试验序号派生的随机数，
+ * 因此结果只取决于种子，与线程数和调度顺序无关。
+ *
+ * 试验规则为不考虑站位的混战：每回合所有存活单位按随机顺序行动，
+ * 各自随机攻击一个存活的敌方单位，伤害按 AttackAction 的规则（攻击力与穿透的简单伤害公式）结算，
+ * 一方全灭或达到回合上限时试验结束（达到上限记为平局）。
+ */
+public class BattleSimulator {
+    private static final int DEFAULT_MAX_TURNS = 50;
+    private static final int TRIALS_PER_TASK = 16;          // 每个并行子任务处理的试验数
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final Function<Unit, CombatUnit> enemyFactory;
+    private final int maxTurns;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param enemyFactory 将敌军批次中的 Unit 转换为单个战斗单位模板，Unit 的数量决定复制份数
+     */
+    public BattleSimulator(Function<Unit, CombatUnit> enemyFactory) {
+        this(enemyFactory, DEFAULT_MAX_TURNS, ForkJoinPool.commonPool());
+    }
+
+    public BattleSimulator(Function<Unit, CombatUnit> enemyFactory, int maxTurns, ForkJoinPool pool) {
+        if (maxTurns <= 0) {
+            throw new IllegalArgumentException("回合上限必须大于0");
+        }
+        this.enemyFactory = enemyFactory;
+        this.maxTurns = maxTurns;
+        this.pool = pool;
+    }
+
+    /**
+     * 模拟队伍对阵敌军批次
+     *
+     * @param party 队伍单位（使用其当前生命和防御）
+     * @param batch 敌军批次
+     * @param trials 试验次数
+     * @param seed 随机种子，相同种子得到相同结果
+     */
+    public SimulationReport simulate(List<CombatUnit> party, EnemyBatch batch, int trials, long seed) {
+        if (trials <= 0) {
+            throw new IllegalArgumentException("试验次数必须大于0");
+        }
+        if (party.isEmpty()) {
+            throw new IllegalArgumentException("队伍中没有单位");
+        }
+
+        BattleState template = new BattleState(party.size() + 16);
+        for (CombatUnit unit : party) {
+            template.addUnit(unit);
+        }
+        int partySize = template.size();
+        for (Unit enemy : batch.getEnemies()) {
+            if (enemy.getCount() > 0) {
+                template.addUnits(enemyFactory.apply(enemy), enemy.getCount());
+            }
+        }
+        if (template.size() == partySize) {
+            throw new IllegalArgumentException("敌军批次中没有单位: " + batch.getName());
+        }
+
+        long start = System.nanoTime();
+        Tally tally = pool.invoke(new TrialTask(template, partySize, seed, 0, trials));
+        return new SimulationReport(tally, trials, partySize, template.size() - partySize,
+                System.nanoTime() - start);
+    }
+
+    // ==================== 单次试验 ====================
+
+    private void runTrial(BattleState template, int partySize, long seed, int trial, Tally tally) {
+        BattleState state = template.copy();
+        SplittableRandom random = new SplittableRandom(mix64(seed + trial * GOLDEN_GAMMA));
+        int total = state.size();
+
+        // 两方存活槽位列表，阵亡时交换删除，保证随机选目标为 O(1)
+        int[] partyAlive = new int[partySize];
+        int[] enemyAlive = new int[total - partySize];
+        int partyCount = 0;
+        int enemyCount = 0;
+        for (int slot = 0; slot < total; slot++) {
+            if (!state.isAlive(slot)) {
+                continue;
+            }
+            if (slot < partySize) {
+                partyAlive[partyCount++] = slot;
+            } else {
+                enemyAlive[enemyCount++] = slot;
+            }
+        }
+        int initialParty = partyCount;
+        int initialEnemy = enemyCount;
+
+        int[] order = new int[total];
+        int turn = 0;
+        while (partyCount > 0 && enemyCount > 0 && turn < maxTurns) {
+            turn++;
+            int acting = 0;
+            for (int i = 0; i < partyCount; i++) order[acting++] = partyAlive[i];
+            for (int i = 0; i < enemyCount; i++) order[acting++] = enemyAlive[i];
+            for (int i = acting - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = order[i];
+                order[i] = order[j];
+                order[j] = swap;
+            }
+
+            for (int i = 0; i < acting && partyCount > 0 && enemyCount > 0; i++) {
+                int attacker = order[i];
+                if (!state.isAlive(attacker)) {
+                    continue; // 本回合行动前已阵亡
+                }
+                if (attacker < partySize) {
+                    int pick = random.nextInt(enemyCount);
+                    if (attack(state, attacker, enemyAlive[pick])) {
+                        enemyAlive[pick] = enemyAlive[--enemyCount];
+                    }
+                } else {
+                    int pick = random.nextInt(partyCount);
+                    if (attack(state, attacker, partyAlive[pick])) {
+                        partyAlive[pick] = partyAlive[--partyCount];
+                    }
+                }
+            }
+        }
+
+        if (enemyCount == 0) {
+            tally.wins++;
+        } else if (partyCount == 0) {
+            tally.losses++;
+        } else {
+            tally.draws++;
+        }
+        tally.turns += turn;
+        tally.partyCasualties[initialParty - partyCount]++;
+        tally.enemyCasualties[initialEnemy - enemyCount]++;
+        for (int slot = 0; slot < partySize; slot++) {
+            if (state.isAlive(slot)) {
+                tally.unitSurvivals[slot]++;
+            }
+        }
+    }
+
+    /**
+     * 与 AttackAction.execute 相同的单次攻击，返回目标是否被消灭
+     */
+    private static boolean attack(BattleState state, int attacker, int target) {
+        state.takeDamage(target, state.getAttack(attacker), state.getArmorPenetration(attacker));
+        return !state.isAlive(target);
+    }
+
+    /**
+     * SplittableRandom 使用的 64 位混合函数，使相邻试验的种子互不相关
+     */
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * 按试验区间拆分的并行任务，各子任务独立计数后合并
+     */
+    private class TrialTask extends RecursiveTask<Tally> {
+        private static final long serialVersionUID = 1L;
+
+        private final BattleState template;
+        private final int partySize;
+        private final long seed;
+        private final int fromTrial;
+        private final int toTrial;
+
+        TrialTask(BattleState template, int partySize, long seed, int fromTrial, int toTrial) {
+            this.template = template;
+            this.partySize = partySize;
+            this.seed = seed;
+            this.fromTrial = fromTrial;
+            this.toTrial = toTrial;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (toTrial - fromTrial <= TRIALS_PER_TASK) {
+                Tally tally = new Tally(partySize, template.size() - partySize);
+                for (int trial = fromTrial; trial < toTrial; trial++) {
+                    runTrial(template, partySize, seed, trial, tally);
+                }
+                return tally;
+            }
+            int middle = (fromTrial + toTrial) >>> 1;
+            TrialTask left = new TrialTask(template, partySize, seed, fromTrial, middle);
+            left.fork();
+            Tally right = new TrialTask(template, partySize, seed, middle, toTrial).compute();
+            Tally result = left.join();
+            result.merge(right);
+            return result;
+        }
+    }
+
+    /**
+     * 试验计数（只做整数累加，合并顺序不影响结果）
+     */
+    private static class Tally {
+        private int wins;
+        private int losses;
+        private int draws;
+        private long turns;
+        private final int[] partyCasualties;
+        private final int[] enemyCasualties;
+        private final int[] unitSurvivals;
+
+        Tally(int partySize, int enemySize) {
+            partyCasualties = new int[partySize + 1];
+            enemyCasualties = new int[enemySize + 1];
+            unitSurvivals = new int[partySize];
+        }
+
+        void merge(Tally other) {
+            wins += other.wins;
+            losses += other.losses;
+            draws += other.draws;
+            turns += other.turns;
+            for (int i = 0; i < partyCasualties.length; i++) partyCasualties[i] += other.partyCasualties[i];
+            for (int i = 0; i < enemyCasualties.length; i++) enemyCasualties[i] += other.enemyCasualties[i];
+            for (int i = 0; i < unitSurvivals.length; i++) unitSurvivals[i] += other.unitSurvivals[i];
+        }
+    }
+
+    /**
+     * 模拟报告
+     */
+    public static class SimulationReport {
+        private final Tally tally;
+        private final int trials;
+        private final int partySize;
+        private final int enemySize;
+        private final long elapsedNanos;
+
+        private SimulationReport(Tally tally, int trials, int partySize, int enemySize, long elapsedNanos) {
+            this.tally = tally;
+            this.trials = trials;
+            this.partySize = partySize;
+            this.enemySize = enemySize;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getTrials() { return trials; }
+        public int getWins() { return tally.wins; }
+        public int getLosses() { return tally.losses; }
+        public int getDraws() { return tally.draws; }
+        public int getPartySize() { return partySize; }
+        public int getEnemySize() { return enemySize; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        public double getWinRate() {
+            return (double) tally.wins / trials;
+        }
+
+        public double getExpectedTurns() {
+            return (double) tally.turns / trials;
+        }
+
+        /**
+         * 队伍阵亡人数分布，下标为阵亡数，值为出现次数
+         */
+        public int[] getPartyCasualtyDistribution() {
+            return tally.partyCasualties.clone();
+        }
+
+        /**
+         * 敌军阵亡人数分布，下标为阵亡数，值为出现次数
+         */
+        public int[] getEnemyCasualtyDistribution() {
+            return tally.enemyCasualties.clone();
+        }
+
+        public double getExpectedPartyCasualties() {
+            return expectation(tally.partyCasualties);
+        }
+
+        public double getExpectedEnemyCasualties() {
+            return expectation(tally.enemyCasualties);
+        }
+
+        /**
+         * 队伍中第 index 个单位（按传入顺序）的存活率
+         */
+        public double getUnitSurvivalRate(int index) {
+            return (double) tally.unitSurvivals[index] / trials;
+        }
+
+        private double expectation(int[] distribution) {
+            long sum = 0;
+            for (int i = 0; i < distribution.length; i++) {
+                sum += (long) i * distribution[i];
+            }
+            return (double) sum / trials;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("模拟 %d 次: 胜率 %.1f%%, 败 %d, 平 %d, 平均 %.1f 回合, 平均阵亡 %.2f/%d, 平均歼敌 %.2f/%d, 耗时 %d ms",
+                    trials, getWinRate() * 100, getLosses(), getDraws(), getExpectedTurns(),
+                    getExpectedPartyCasualties(), partySize, getExpectedEnemyCasualties(), enemySize,
+                    elapsedNanos / 1_000_000);
+        }
+    }
+}
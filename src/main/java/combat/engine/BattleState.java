@@ -0,0 +1,659 @@
+package combat.engine;
+
+import combat.model.CombatRange;
+import combat.model.CombatStatus;
+import combat.model.CombatResult;
+import combat.model.CombatUnit;
+import combat.model.DefenseFirstCombatCalculator;
+import combat.model.FixedPointCombatCalculator;
+import combat.model.Position;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 战斗状态存储（数组结构）
+ * 以单位槽位为下标，把生命、防御、攻击、穿透、抗性、位置和回合标记保存在并行的基本类型数组中，
+ * 适合上万单位规模的大型战斗。数值使用 {@link FixedPointCombatCalculator} 的定点数约定：
+ * 防御力相关为百万分位，其余属性为百分位。
+ */
+public class BattleState {
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private static final byte FLAG_DEPLOYED = 1;
+    private static final byte FLAG_MOVED = 1 << 1;
+    private static final byte FLAG_ACTED = 1 << 2;
+
+    private static final CombatStatus[] STATUSES = CombatStatus.values();
+
+    // 单位可变状态的字节数：生命、当前防御、位置、回合标记和状态，见 writeUnitState
+    static final int UNIT_STATE_BYTES = 8 + 8 + 4 + 4 + 1 + 1;
+
+    private int size;
+
+    private String[] names;
+    private String[] types;
+    private int[] owners;                // 所属方下标，见 ownerIds
+    private long[] attack;               // 百分位
+    private long[] defense;              // 基础防御力（百分位）
+    private long[] maxHealth;            // 百分位
+    private long[] currentHealth;        // 百分位
+    private long[] maxDefense;           // 百万分位
+    private long[] currentDefense;       // 百万分位
+    private long[] armorPenetration;     // 百分位
+    private long[] resistance;           // 百分位
+    private long[] damageMultiplier;     // 百分位
+    private long[] extraPenetration;     // 百分位
+    private long[] extraDefense;         // 百分位
+    private long[] control;              // 百分位
+    private int[] movement;
+    private int[] x;
+    private int[] y;
+    private int[] minRange;
+    private int[] maxRange;
+    private byte[] flags;
+    private byte[] statuses;
+
+    private final List<String> ownerIds;
+    private final Map<String, Integer> ownerIndex;
+
+    // 复用的计算结果对象，避免每次命中分配
+    private final FixedPointCombatCalculator.ScaledResult scratch = new FixedPointCombatCalculator.ScaledResult();
+
+    public BattleState() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public BattleState(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        names = new String[capacity];
+        types = new String[capacity];
+        owners = new int[capacity];
+        attack = new long[capacity];
+        defense = new long[capacity];
+        maxHealth = new long[capacity];
+        currentHealth = new long[capacity];
+        maxDefense = new long[capacity];
+        currentDefense = new long[capacity];
+        armorPenetration = new long[capacity];
+        resistance = new long[capacity];
+        damageMultiplier = new long[capacity];
+        extraPenetration = new long[capacity];
+        extraDefense = new long[capacity];
+        control = new long[capacity];
+        movement = new int[capacity];
+        x = new int[capacity];
+        y = new int[capacity];
+        minRange = new int[capacity];
+        maxRange = new int[capacity];
+        flags = new byte[capacity];
+        statuses = new byte[capacity];
+        ownerIds = new ArrayList<>();
+        ownerIndex = new HashMap<>();
+    }
+
+    /**
+     * 复制构造，用于模拟时克隆整场战斗
+     */
+    private BattleState(BattleState other) {
+        size = other.size;
+        names = other.names.clone();
+        types = other.types.clone();
+        owners = other.owners.clone();
+        attack = other.attack.clone();
+        defense = other.defense.clone();
+        maxHealth = other.maxHealth.clone();
+        currentHealth = other.currentHealth.clone();
+        maxDefense = other.maxDefense.clone();
+        currentDefense = other.currentDefense.clone();
+        armorPenetration = other.armorPenetration.clone();
+        resistance = other.resistance.clone();
+        damageMultiplier = other.damageMultiplier.clone();
+        extraPenetration = other.extraPenetration.clone();
+        extraDefense = other.extraDefense.clone();
+        control = other.control.clone();
+        movement = other.movement.clone();
+        x = other.x.clone();
+        y = other.y.clone();
+        minRange = other.minRange.clone();
+        maxRange = other.maxRange.clone();
+        flags = other.flags.clone();
+        statuses = other.statuses.clone();
+        ownerIds = new ArrayList<>(other.ownerIds);
+        ownerIndex = new HashMap<>(other.ownerIndex);
+    }
+
+    public BattleState copy() {
+        return new BattleState(this);
+    }
+
+    // ==================== 单位管理 ====================
+
+    /**
+     * 添加单位，返回其槽位
+     */
+    public int addUnit(CombatUnit unit) {
+        ensureCapacity(size + 1);
+        int slot = size++;
+        syncFrom(slot, unit);
+        return slot;
+    }
+
+    /**
+     * 以模板批量添加相同属性的单位（如虫群），返回第一个槽位
+     */
+    public int addUnits(CombatUnit template, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("单位数量必须大于0");
+        }
+        ensureCapacity(size + count);
+        int first = size;
+        syncFrom(first, template);
+        size++;
+        for (int i = 1; i < count; i++) {
+            copySlot(first, size++);
+        }
+        return first;
+    }
+
+    /**
+     * 用 CombatUnit 的当前状态覆盖指定槽位
+     */
+    public void syncFrom(int slot, CombatUnit unit) {
+        names[slot] = unit.getName();
+        types[slot] = unit.getType();
+        owners[slot] = internOwner(unit.getOwnerId());
+        attack[slot] = FixedPointCombatCalculator.toScaled(unit.getAttack(), 2);
+        defense[slot] = FixedPointCombatCalculator.toScaled(unit.getDefense(), 2);
+        maxHealth[slot] = FixedPointCombatCalculator.toScaled(unit.getMaxHealth(), 2);
+        currentHealth[slot] = FixedPointCombatCalculator.toScaled(unit.getCurrentHealth(), 2);
+        maxDefense[slot] = FixedPointCombatCalculator.toScaled(unit.getMaxDefense(), 6);
+        currentDefense[slot] = FixedPointCombatCalculator.toScaled(unit.getCurrentDefense(), 6);
+        armorPenetration[slot] = FixedPointCombatCalculator.toScaled(unit.getArmorPenetration(), 2);
+        resistance[slot] = FixedPointCombatCalculator.toScaled(unit.getResistance(), 2);
+        damageMultiplier[slot] = FixedPointCombatCalculator.toScaled(unit.getDamageMultiplier(), 2);
+        extraPenetration[slot] = FixedPointCombatCalculator.toScaled(unit.getExtraPenetration(), 2);
+        extraDefense[slot] = FixedPointCombatCalculator.toScaled(unit.getExtraDefense(), 2);
+        control[slot] = FixedPointCombatCalculator.toScaled(unit.getControl(), 2);
+        movement[slot] = unit.getMovement();
+        x[slot] = unit.getPosition().getX();
+        y[slot] = unit.getPosition().getY();
+        minRange[slot] = unit.getCombatRange().getMinRange();
+        maxRange[slot] = unit.getCombatRange().getMaxRange();
+        byte flag = 0;
+        if (unit.isDeployed()) flag |= FLAG_DEPLOYED;
+        if (unit.hasMovedThisTurn()) flag |= FLAG_MOVED;
+        if (unit.hasActedThisTurn()) flag |= FLAG_ACTED;
+        flags[slot] = flag;
+        statuses[slot] = (byte) unit.getStatus().ordinal();
+    }
+
+    /**
+     * 将槽位还原为完整的 CombatUnit 对象（新对象，拥有新的ID）
+     */
+    public CombatUnit materialize(int slot) {
+        checkSlot(slot);
+        CombatUnit unit = new CombatUnit(names[slot], types[slot],
+                toDecimal(attack[slot]), toDefenseDecimal(maxDefense[slot]), toDecimal(maxHealth[slot]),
+                toDecimal(armorPenetration[slot]), toDecimal(resistance[slot]),
+                movement[slot], toDecimal(control[slot]), ownerIds.get(owners[slot]));
+        unit.setDefense(toDecimal(defense[slot]));
+        unit.setCurrentHealth(toDecimal(currentHealth[slot]));
+        unit.setCurrentDefense(toDefenseDecimal(currentDefense[slot]));
+        unit.setDamageMultiplier(toDecimal(damageMultiplier[slot]));
+        unit.setExtraPenetration(toDecimal(extraPenetration[slot]));
+        unit.setExtraDefense(toDecimal(extraDefense[slot]));
+        unit.setPosition(new Position(x[slot], y[slot]));
+        unit.setCombatRange(new CombatRange(minRange[slot], maxRange[slot]));
+        unit.setDeployed(isDeployed(slot));
+        unit.setHasMovedThisTurn(hasMovedThisTurn(slot));
+        unit.setHasActedThisTurn(hasActedThisTurn(slot));
+        unit.setStatus(getStatus(slot));
+        return unit;
+    }
+
+    /**
+     * 获取槽位的轻量视图，视图本身不复制任何数据
+     */
+    public UnitView view(int slot) {
+        checkSlot(slot);
+        return new UnitView(this, slot);
+    }
+
+    // ==================== 战斗结算 ====================
+
+    /**
+     * 攻击者对目标进行一次攻击，等价于 CombatUnit.takeDamage(attacker)
+     *
+     * @return 目标是否被消灭
+     */
+    public boolean resolveAttack(int attackerSlot, int targetSlot) {
+        return resolveAttack(attackerSlot, targetSlot, attack[attackerSlot]);
+    }
+
+    /**
+     * 使用指定攻击力进行一次攻击（百分位），用于反击等按比例折算攻击力的场景
+     * 中间结果超出 long 范围时回退到 BigDecimal 实现，与 FixedPointCombatCalculator.calculateCombat 一致
+     */
+    public boolean resolveAttack(int attackerSlot, int targetSlot, long attackPower) {
+        try {
+            FixedPointCombatCalculator.calculateScaled(
+                    attackPower,
+                    currentDefense[targetSlot],
+                    armorPenetration[attackerSlot],
+                    resistance[targetSlot],
+                    damageMultiplier[attackerSlot],
+                    extraPenetration[attackerSlot],
+                    extraDefense[targetSlot],
+                    scratch);
+        } catch (ArithmeticException e) {
+            CombatResult result = DefenseFirstCombatCalculator.calculateCombat(
+                    BigDecimal.valueOf(attackPower, 2),
+                    BigDecimal.valueOf(currentDefense[targetSlot], 6),
+                    BigDecimal.valueOf(armorPenetration[attackerSlot], 2),
+                    BigDecimal.valueOf(resistance[targetSlot], 2),
+                    BigDecimal.valueOf(damageMultiplier[attackerSlot], 2),
+                    BigDecimal.valueOf(extraPenetration[attackerSlot], 2),
+                    BigDecimal.valueOf(extraDefense[targetSlot], 2));
+            applyDamage(targetSlot, saturatedScaled(result.getDefenseDamage(), 6),
+                    saturatedScaled(result.getHealthDamage(), 2));
+            return currentHealth[targetSlot] == 0;
+        }
+        applyDamage(targetSlot, scratch.getDefenseDamage(), scratch.getHealthDamage());
+        return currentHealth[targetSlot] == 0;
+    }
+
+    /**
+     * 转为定点数，超出 long 范围的伤害按 Long.MAX_VALUE 计（扣减后同样归零）
+     */
+    private static long saturatedScaled(BigDecimal value, int scale) {
+        BigDecimal scaled = value.setScale(scale, RoundingMode.HALF_UP).movePointRight(scale);
+        if (scaled.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) > 0) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, scaled.longValueExact());
+    }
+
+    /**
+     * 应用防御伤害（百万分位）与生命伤害（百分位），结果不低于0
+     */
+    public void applyDamage(int slot, long defenseDamage, long healthDamage) {
+        currentDefense[slot] = Math.max(0, currentDefense[slot] - defenseDamage);
+        currentHealth[slot] = Math.max(0, currentHealth[slot] - healthDamage);
+    }
+
+    /**
+     * 简单伤害公式，等价于 CombatUnit.takeDamage(damage, penetration)
+     *
+     * @param damage 伤害（百分位）
+     * @param penetration 穿透（百分位）
+     * @return 实际造成的伤害（百分位）
+     */
+    public long takeDamage(int slot, long damage, long penetration) {
+        long finalDamage = damageFrom(slot, damage, penetration);
+        currentHealth[slot] = Math.max(0, currentHealth[slot] - finalDamage);
+        return finalDamage;
+    }
+
+    /**
+     * 按简单伤害公式计算对该单位造成的伤害（百分位），不修改状态
+     */
+    public long damageFrom(int slot, long damage, long penetration) {
+        long effectiveDefense = defense[slot] * (100 - Math.min(penetration, 100));              // 1e-4
+        long baseDamage = Math.max(0, damage * 100 - effectiveDefense);                           // 1e-4
+        long finalDamage = baseDamage * (100 - Math.min(resistance[slot], 100));                  // 1e-6
+        return FixedPointCombatCalculator.divideHalfUp(finalDamage, 10_000);                      // 1e-2
+    }
+
+    /**
+     * 治疗，返回实际恢复量（百分位）
+     */
+    public long receiveHeal(int slot, long healAmount) {
+        long oldHealth = currentHealth[slot];
+        currentHealth[slot] = Math.min(oldHealth + healAmount, maxHealth[slot]);
+        return currentHealth[slot] - oldHealth;
+    }
+
+    /**
+     * 重置所有单位的回合状态
+     */
+    public void resetTurnState() {
+        byte mask = (byte) ~(FLAG_MOVED | FLAG_ACTED);
+        for (int i = 0; i < size; i++) {
+            flags[i] &= mask;
+        }
+    }
+
+    /**
+     * 统计某一方存活单位数量
+     */
+    public int countAlive(String ownerId) {
+        Integer owner = ownerIndex.get(ownerId);
+        if (owner == null) {
+            return 0;
+        }
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (owners[i] == owner && currentHealth[i] > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int distance(int slotA, int slotB) {
+        return Math.abs(x[slotA] - x[slotB]) + Math.abs(y[slotA] - y[slotB]);
+    }
+
+    public boolean isInRange(int attackerSlot, int targetSlot) {
+        int distance = distance(attackerSlot, targetSlot);
+        return distance >= minRange[attackerSlot] && distance <= maxRange[attackerSlot];
+    }
+
+    // ==================== 序列化 ====================
+
+    /**
+     * 把槽位的全部字段写入缓冲区（战斗记录文件的单位记录）
+     */
+    void writeSlot(int slot, ByteBuffer out) {
+        checkSlot(slot);
+        writeString(out, names[slot]);
+        writeString(out, types[slot]);
+        writeString(out, ownerIds.get(owners[slot]));
+        out.putLong(attack[slot]);
+        out.putLong(defense[slot]);
+        out.putLong(maxHealth[slot]);
+        out.putLong(currentHealth[slot]);
+        out.putLong(maxDefense[slot]);
+        out.putLong(currentDefense[slot]);
+        out.putLong(armorPenetration[slot]);
+        out.putLong(resistance[slot]);
+        out.putLong(damageMultiplier[slot]);
+        out.putLong(extraPenetration[slot]);
+        out.putLong(extraDefense[slot]);
+        out.putLong(control[slot]);
+        out.putInt(movement[slot]);
+        out.putInt(x[slot]);
+        out.putInt(y[slot]);
+        out.putInt(minRange[slot]);
+        out.putInt(maxRange[slot]);
+        out.put(flags[slot]);
+        out.put(statuses[slot]);
+    }
+
+    /**
+     * 读取 {@link #writeSlot} 写入的槽位并追加到末尾，返回新槽位
+     */
+    int readSlot(ByteBuffer in) {
+        ensureCapacity(size + 1);
+        int slot = size;
+        names[slot] = readString(in);
+        types[slot] = readString(in);
+        owners[slot] = internOwner(readString(in));
+        attack[slot] = in.getLong();
+        defense[slot] = in.getLong();
+        maxHealth[slot] = in.getLong();
+        currentHealth[slot] = in.getLong();
+        maxDefense[slot] = in.getLong();
+        currentDefense[slot] = in.getLong();
+        armorPenetration[slot] = in.getLong();
+        resistance[slot] = in.getLong();
+        damageMultiplier[slot] = in.getLong();
+        extraPenetration[slot] = in.getLong();
+        extraDefense[slot] = in.getLong();
+        control[slot] = in.getLong();
+        movement[slot] = in.getInt();
+        x[slot] = in.getInt();
+        y[slot] = in.getInt();
+        minRange[slot] = in.getInt();
+        maxRange[slot] = in.getInt();
+        flags[slot] = in.get();
+        statuses[slot] = in.get();
+        size++;
+        return slot;
+    }
+
+    /**
+     * 写入单位当前的可变状态，与 syncFrom 使用相同的定点数换算
+     */
+    static void writeUnitState(CombatUnit unit, ByteBuffer out) {
+        byte flag = 0;
+        if (unit.isDeployed()) flag |= FLAG_DEPLOYED;
+        if (unit.hasMovedThisTurn()) flag |= FLAG_MOVED;
+        if (unit.hasActedThisTurn()) flag |= FLAG_ACTED;
+        out.putLong(FixedPointCombatCalculator.toScaled(unit.getCurrentHealth(), 2));
+        out.putLong(FixedPointCombatCalculator.toScaled(unit.getCurrentDefense(), 6));
+        out.putInt(unit.getPosition().getX());
+        out.putInt(unit.getPosition().getY());
+        out.put(flag);
+        out.put((byte) unit.getStatus().ordinal());
+    }
+
+    /**
+     * 读取 {@link #writeUnitState} 写入的状态并覆盖槽位
+     */
+    void readUnitState(int slot, ByteBuffer in) {
+        checkSlot(slot);
+        currentHealth[slot] = in.getLong();
+        currentDefense[slot] = in.getLong();
+        x[slot] = in.getInt();
+        y[slot] = in.getInt();
+        flags[slot] = in.get();
+        statuses[slot] = in.get();
+    }
+
+    private static void writeString(ByteBuffer out, String value) {
+        if (value == null) {
+            out.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // ==================== 槽位访问 ====================
+
+    public int size() { return size; }
+    public String getName(int slot) { return names[slot]; }
+    public String getType(int slot) { return types[slot]; }
+    public String getOwnerId(int slot) { return ownerIds.get(owners[slot]); }
+    public int getOwnerIndex(int slot) { return owners[slot]; }
+    public boolean isSameOwner(int slotA, int slotB) { return owners[slotA] == owners[slotB]; }
+    public long getAttack(int slot) { return attack[slot]; }
+    public long getDefense(int slot) { return defense[slot]; }
+    public long getMaxHealth(int slot) { return maxHealth[slot]; }
+    public long getCurrentHealth(int slot) { return currentHealth[slot]; }
+    public void setCurrentHealth(int slot, long value) { currentHealth[slot] = value; }
+    public long getMaxDefense(int slot) { return maxDefense[slot]; }
+    public long getCurrentDefense(int slot) { return currentDefense[slot]; }
+    public void setCurrentDefense(int slot, long value) { currentDefense[slot] = value; }
+    public long getArmorPenetration(int slot) { return armorPenetration[slot]; }
+    public long getResistance(int slot) { return resistance[slot]; }
+    public long getDamageMultiplier(int slot) { return damageMultiplier[slot]; }
+    public long getExtraPenetration(int slot) { return extraPenetration[slot]; }
+    public long getExtraDefense(int slot) { return extraDefense[slot]; }
+    public long getControl(int slot) { return control[slot]; }
+    public int getMovement(int slot) { return movement[slot]; }
+    public int getX(int slot) { return x[slot]; }
+    public int getY(int slot) { return y[slot]; }
+    public void setPosition(int slot, int newX, int newY) {
+        x[slot] = newX;
+        y[slot] = newY;
+    }
+    public int getMinRange(int slot) { return minRange[slot]; }
+    public int getMaxRange(int slot) { return maxRange[slot]; }
+    public CombatStatus getStatus(int slot) { return STATUSES[statuses[slot]]; }
+    public void setStatus(int slot, CombatStatus status) { statuses[slot] = (byte) status.ordinal(); }
+
+    public boolean isAlive(int slot) { return currentHealth[slot] > 0; }
+    public boolean isDeployed(int slot) { return (flags[slot] & FLAG_DEPLOYED) != 0; }
+    public void setDeployed(int slot, boolean deployed) { setFlag(slot, FLAG_DEPLOYED, deployed); }
+    public boolean hasMovedThisTurn(int slot) { return (flags[slot] & FLAG_MOVED) != 0; }
+    public void setHasMovedThisTurn(int slot, boolean moved) { setFlag(slot, FLAG_MOVED, moved); }
+    public boolean hasActedThisTurn(int slot) { return (flags[slot] & FLAG_ACTED) != 0; }
+    public void setHasActedThisTurn(int slot, boolean acted) { setFlag(slot, FLAG_ACTED, acted); }
+
+    public boolean canMove(int slot) {
+        return isAlive(slot) && isDeployed(slot) && !hasMovedThisTurn(slot) && movement[slot] > 0;
+    }
+
+    public boolean canAct(int slot) {
+        return isAlive(slot) && isDeployed(slot) && !hasActedThisTurn(slot);
+    }
+
+    // ==================== 辅助方法 ====================
+
+    private void setFlag(int slot, byte flag, boolean value) {
+        if (value) {
+            flags[slot] |= flag;
+        } else {
+            flags[slot] &= (byte) ~flag;
+        }
+    }
+
+    private int internOwner(String ownerId) {
+        Integer index = ownerIndex.get(ownerId);
+        if (index == null) {
+            index = ownerIds.size();
+            ownerIds.add(ownerId);
+            ownerIndex.put(ownerId, index);
+        }
+        return index;
+    }
+
+    private void copySlot(int from, int to) {
+        names[to] = names[from];
+        types[to] = types[from];
+        owners[to] = owners[from];
+        attack[to] = attack[from];
+        defense[to] = defense[from];
+        maxHealth[to] = maxHealth[from];
+        currentHealth[to] = currentHealth[from];
+        maxDefense[to] = maxDefense[from];
+        currentDefense[to] = currentDefense[from];
+        armorPenetration[to] = armorPenetration[from];
+        resistance[to] = resistance[from];
+        damageMultiplier[to] = damageMultiplier[from];
+        extraPenetration[to] = extraPenetration[from];
+        extraDefense[to] = extraDefense[from];
+        control[to] = control[from];
+        movement[to] = movement[from];
+        x[to] = x[from];
+        y[to] = y[from];
+        minRange[to] = minRange[from];
+        maxRange[to] = maxRange[from];
+        flags[to] = flags[from];
+        statuses[to] = statuses[from];
+    }
+
+    private void ensureCapacity(int required) {
+        int capacity = names.length;
+        if (required <= capacity) {
+            return;
+        }
+        int newCapacity = Math.max(required, capacity + (capacity >> 1));
+        names = Arrays.copyOf(names, newCapacity);
+        types = Arrays.copyOf(types, newCapacity);
+        owners = Arrays.copyOf(owners, newCapacity);
+        attack = Arrays.copyOf(attack, newCapacity);
+        defense = Arrays.copyOf(defense, newCapacity);
+        maxHealth = Arrays.copyOf(maxHealth, newCapacity);
+        currentHealth = Arrays.copyOf(currentHealth, newCapacity);
+        maxDefense = Arrays.copyOf(maxDefense, newCapacity);
+        currentDefense = Arrays.copyOf(currentDefense, newCapacity);
+        armorPenetration = Arrays.copyOf(armorPenetration, newCapacity);
+        resistance = Arrays.copyOf(resistance, newCapacity);
+        damageMultiplier = Arrays.copyOf(damageMultiplier, newCapacity);
+        extraPenetration = Arrays.copyOf(extraPenetration, newCapacity);
+        extraDefense = Arrays.copyOf(extraDefense, newCapacity);
+        control = Arrays.copyOf(control, newCapacity);
+        movement = Arrays.copyOf(movement, newCapacity);
+        x = Arrays.copyOf(x, newCapacity);
+        y = Arrays.copyOf(y, newCapacity);
+        minRange = Arrays.copyOf(minRange, newCapacity);
+        maxRange = Arrays.copyOf(maxRange, newCapacity);
+        flags = Arrays.copyOf(flags, newCapacity);
+        statuses = Arrays.copyOf(statuses, newCapacity);
+    }
+
+    private void checkSlot(int slot) {
+        if (slot < 0 || slot >= size) {
+            throw new IndexOutOfBoundsException("无效的单位槽位: " + slot);
+        }
+    }
+
+    static BigDecimal toDecimal(long hundredths) {
+        return BigDecimal.valueOf(hundredths, 2);
+    }
+
+    static BigDecimal toDefenseDecimal(long millionths) {
+        if (millionths % 10_000 == 0) {
+            return BigDecimal.valueOf(millionths / 10_000, 2);
+        }
+        return BigDecimal.valueOf(millionths, 6);
+    }
+
+    /**
+     * 单位槽位的轻量视图
+     * 提供与 CombatUnit 相同风格的只读访问，按需生成 BigDecimal
+     */
+    public static class UnitView {
+        private final BattleState state;
+        private final int slot;
+
+        private UnitView(BattleState state, int slot) {
+            this.state = state;
+            this.slot = slot;
+        }
+
+        public int getSlot() { return slot; }
+        public String getName() { return state.getName(slot); }
+        public String getType() { return state.getType(slot); }
+        public String getOwnerId() { return state.getOwnerId(slot); }
+        public BigDecimal getAttack() { return toDecimal(state.getAttack(slot)); }
+        public BigDecimal getDefense() { return toDecimal(state.getDefense(slot)); }
+        public BigDecimal getMaxHealth() { return toDecimal(state.getMaxHealth(slot)); }
+        public BigDecimal getCurrentHealth() { return toDecimal(state.getCurrentHealth(slot)); }
+        public BigDecimal getMaxDefense() { return toDefenseDecimal(state.getMaxDefense(slot)); }
+        public BigDecimal getCurrentDefense() { return toDefenseDecimal(state.getCurrentDefense(slot)); }
+        public BigDecimal getArmorPenetration() { return toDecimal(state.getArmorPenetration(slot)); }
+        public BigDecimal getResistance() { return toDecimal(state.getResistance(slot)); }
+        public int getMovement() { return state.getMovement(slot); }
+        public Position getPosition() { return new Position(state.getX(slot), state.getY(slot)); }
+        public CombatRange getCombatRange() { return new CombatRange(state.getMinRange(slot), state.getMaxRange(slot)); }
+        public CombatStatus getStatus() { return state.getStatus(slot); }
+        public boolean isAlive() { return state.isAlive(slot); }
+        public boolean isDeployed() { return state.isDeployed(slot); }
+        public boolean canMove() { return state.canMove(slot); }
+        public boolean canAct() { return state.canAct(slot); }
+
+        public CombatUnit toCombatUnit() {
+            return state.materialize(slot);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s [%s] 生命: %s/%s 防御: %s/%s 攻击: %s",
+                    getName(), getType(), getCurrentHealth(), getMaxHealth(),
+                    getCurrentDefense(), getMaxDefense(), getAttack());
+        }
+    }
+}
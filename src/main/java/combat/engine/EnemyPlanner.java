@@ -0,0 +1,739 @@
+package combat.engine;
+
+import combat.actions.AttackAction;
+import combat.actions.CombatAction;
+import combat.actions.MoveUnitAction;
+import combat.actions.UseResourceAction;
+import combat.model.BattlefieldGrid;
+import combat.model.CombatResource;
+import combat.model.CombatStatus;
+import combat.model.CombatUnit;
+import combat.model.FixedPointCombatCalculator;
+import combat.model.Position;
+import combat.model.ResourceType;
+import combat.model.TargetingType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 敌军行动规划器
+ * 为敌军批次生成的战斗单位规划一个回合的动作（移动、攻击、使用物资），不需要玩家逐个操作。
+ *
+ * 规划分两步：
+ * 1. 生成候选：每个单位按射程找出可攻击的目标，射程内没有目标时先向最近的敌人移动再找目标；
+ *    按与 AttackAction.execute 相同的简单伤害公式（{@link BattleState#damageFrom}）计算预期伤害，
+ *    按伤害相对剩余生命和威胁粗筛，再对保留的少数目标计算评分。
+ * 2. 搜索组合：以每个单位评分最高的候选为初始方案，在时间预算内并行进行多组随机推演
+ *    （爬山搜索）：每次推演调整少数单位的选择，在 {@link BattleState} 副本上按同一公式
+ *    （{@link BattleState#takeDamage}）结算整个方案并评估局面，保留更好的方案。推演会发现集火过度（目标已被消灭）和物资被重复使用
+ *    等单独评分看不出的问题。
+ *
+ * 局面评估按敌方单位的攻击力加权：造成的伤害、消灭和眩晕的单位越具威胁价值越高。
+ * 时间预算包含候选生成，推演次数随预算和机器变化，因此结果不保证可重复。
+ * 规划只读取单位状态，不修改它们；返回的动作可直接提交给 {@link TurnEngine}。
+ */
+public class EnemyPlanner {
+    private static final long DEFAULT_BUDGET_MILLIS = 80;
+    private static final int MAX_TARGETS_PER_UNIT = 3;      // 每个单位保留的攻击候选数
+    private static final int SCREENED_TARGETS = 8;           // 粗筛后参与精确评分的目标数
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    // 局面评估权重
+    private static final double KILL_BONUS = 0.5;
+    private static final double DEFENSE_WEIGHT = 0.25;
+    private static final double STUN_WEIGHT = 0.5;
+
+    private static final int NO_MOVE = Integer.MIN_VALUE;
+
+    private final long budgetNanos;
+    private final PathfindingService pathfinder;
+    private final BattlefieldGrid battlefield;
+    private final ForkJoinPool pool;
+
+    public EnemyPlanner() {
+        this(DEFAULT_BUDGET_MILLIS);
+    }
+
+    /**
+     * @param budgetMillis 每回合的规划时间预算（毫秒）
+     */
+    public EnemyPlanner(long budgetMillis) {
+        this(budgetMillis, null, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pathfinder 寻路服务，为 null 时按直线移动且不检查地形和占位
+     * @param pool 并行推演使用的线程池
+     */
+    public EnemyPlanner(long budgetMillis, PathfindingService pathfinder, ForkJoinPool pool) {
+        if (budgetMillis <= 0) {
+            throw new IllegalArgumentException("规划时间预算必须大于0");
+        }
+        this.budgetNanos = budgetMillis * 1_000_000L;
+        this.pathfinder = pathfinder;
+        this.battlefield = pathfinder != null ? pathfinder.getBattlefield() : null;
+        this.pool = pool;
+    }
+
+    public Plan plan(List<CombatUnit> units, List<CombatUnit> opponents, long seed) {
+        return plan(units, opponents, Collections.emptyMap(), seed);
+    }
+
+    /**
+     * 规划一个回合
+     *
+     * @param units 由规划器控制的单位（敌军批次）
+     * @param opponents 对手单位（玩家队伍）
+     * @param resources 各单位可以使用的物资
+     * @param seed 推演使用的随机种子
+     */
+    public Plan plan(List<CombatUnit> units, List<CombatUnit> opponents,
+                     Map<CombatUnit, List<CombatResource>> resources, long seed) {
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+
+        Setup setup = new Setup(units, opponents, resources);
+        int[] greedy = new int[setup.unitCount];
+        double baseline = setup.evaluate(setup.template);
+        double greedyValue = setup.rollout(greedy, null) - baseline;
+
+        Result best = new Result(greedy, greedyValue + baseline, 0);
+        if (setup.hasChoices() && System.nanoTime() < deadline) {
+            int tasks = pool.getParallelism();
+            List<ForkJoinTask<Result>> submitted = new ArrayList<>(tasks);
+            for (int i = 0; i < tasks; i++) {
+                submitted.add(pool.submit(new RolloutTask(setup, greedy, best.value,
+                        BattleSimulator.mix64(seed + i * GOLDEN_GAMMA), deadline)));
+            }
+            // 按任务序号合并，得分相同时取序号小的结果
+            for (ForkJoinTask<Result> task : submitted) {
+                Result result = task.join();
+                best = new Result(result.value > best.value ? result.choices : best.choices,
+                        Math.max(result.value, best.value), best.rollouts + result.rollouts);
+            }
+        }
+
+        List<CombatAction> actions = setup.toActions(best.choices);
+        return new Plan(actions, best.value - baseline, greedyValue, best.rollouts, setup.candidateCount(),
+                System.nanoTime() - start);
+    }
+
+    /**
+     * 单位的一个候选行动：可选的移动，之后攻击或使用物资
+     */
+    private static final class Candidate {
+        private final int moveX;
+        private final int moveY;
+        private final int[] targets;            // 目标槽位
+        private final CombatResource resource;  // 为 null 时为攻击
+        private final int resourceIndex;
+        private final double score;
+
+        Candidate(int moveX, int moveY, int[] targets, CombatResource resource, int resourceIndex, double score) {
+            this.moveX = moveX;
+            this.moveY = moveY;
+            this.targets = targets;
+            this.resource = resource;
+            this.resourceIndex = resourceIndex;
+            this.score = score;
+        }
+
+        boolean hasMove() {
+            return moveX != NO_MOVE;
+        }
+    }
+
+    /**
+     * 一次规划的输入：战斗状态模板（己方单位在前，对手在后）和每个单位按评分降序排列的候选
+     */
+    private final class Setup {
+        private final int unitCount;
+        private final List<CombatUnit> slots = new ArrayList<>();
+        private final BattleState template;
+        private final double[] threat;
+        private final Candidate[][] candidates;
+        private final List<CombatResource> resourceList = new ArrayList<>();
+        private final int[] resourceUses;       // 本回合各物资最多可用次数
+        private final Set<Long> claimedCells = new HashSet<>();
+
+        Setup(List<CombatUnit> units, List<CombatUnit> opponents, Map<CombatUnit, List<CombatResource>> resources) {
+            unitCount = units.size();
+            template = new BattleState(units.size() + opponents.size());
+            for (CombatUnit unit : units) {
+                template.addUnit(unit);
+                slots.add(unit);
+            }
+            for (CombatUnit opponent : opponents) {
+                template.addUnit(opponent);
+                slots.add(opponent);
+            }
+            threat = new double[slots.size()];
+            for (int slot = 0; slot < slots.size(); slot++) {
+                threat[slot] = template.getAttack(slot) / (double) FixedPointCombatCalculator.HUNDREDTHS;
+            }
+
+            Map<CombatResource, Integer> resourceIndex = new IdentityHashMap<>();
+            for (CombatUnit unit : units) {
+                for (CombatResource resource : resources.getOrDefault(unit, Collections.emptyList())) {
+                    if (resource.isAvailable() && !resourceIndex.containsKey(resource)) {
+                        resourceIndex.put(resource, resourceList.size());
+                        resourceList.add(resource);
+                    }
+                }
+            }
+            resourceUses = new int[resourceList.size()];
+            for (int i = 0; i < resourceUses.length; i++) {
+                CombatResource resource = resourceList.get(i);
+                resourceUses[i] = resource.getCooldown() > 0 ? 1
+                        : resource.isConsumable() ? resource.getQuantity() : Integer.MAX_VALUE;
+            }
+
+            candidates = new Candidate[unitCount][];
+            for (int slot = 0; slot < unitCount; slot++) {
+                candidates[slot] = generate(slot, resources.getOrDefault(slots.get(slot), Collections.emptyList()),
+                        resourceIndex);
+            }
+        }
+
+        // ==================== 候选生成 ====================
+
+        private Candidate[] generate(int slot, List<CombatResource> unitResources,
+                                     Map<CombatResource, Integer> resourceIndex) {
+            CombatUnit unit = slots.get(slot);
+            if (!unit.canAct() && !unit.canMove()) {
+                return new Candidate[0];
+            }
+            int x = template.getX(slot);
+            int y = template.getY(slot);
+            int moveX = NO_MOVE;
+            int moveY = NO_MOVE;
+            List<Integer> inRange = targetsInRange(slot, x, y);
+            if (inRange.isEmpty() && unit.canMove()) {
+                long cell = approach(slot);
+                if (cell != Long.MIN_VALUE) {
+                    moveX = (int) (cell >> 32);
+                    moveY = (int) cell;
+                    claimedCells.add(cell);
+                    inRange = targetsInRange(slot, moveX, moveY);
+                }
+            }
+
+            List<Candidate> result = new ArrayList<>();
+            if (unit.canAct()) {
+                for (int target : screen(slot, inRange)) {
+                    result.add(new Candidate(moveX, moveY, new int[]{target}, null, -1, attackScore(slot, target)));
+                }
+                for (CombatResource resource : unitResources) {
+                    Integer index = resourceIndex.get(resource);
+                    if (index != null) {
+                        Candidate candidate = resourceCandidate(slot, resource, index, inRange, moveX, moveY);
+                        if (candidate != null) {
+                            result.add(candidate);
+                        }
+                    }
+                }
+            }
+            if (result.isEmpty() && moveX != NO_MOVE) {
+                result.add(new Candidate(moveX, moveY, new int[0], null, -1, 0.0));
+            }
+            result.sort((a, b) -> Double.compare(b.score, a.score));
+            return result.toArray(new Candidate[0]);
+        }
+
+        /**
+         * 从 (x, y) 出发射程内存活的对手槽位
+         */
+        private List<Integer> targetsInRange(int slot, int x, int y) {
+            List<Integer> result = new ArrayList<>();
+            int minRange = template.getMinRange(slot);
+            int maxRange = template.getMaxRange(slot);
+            for (int target = unitCount; target < slots.size(); target++) {
+                if (!template.isAlive(target) || !template.isDeployed(target)) {
+                    continue;
+                }
+                int distance = Math.abs(template.getX(target) - x) + Math.abs(template.getY(target) - y);
+                if (distance >= minRange && distance <= maxRange) {
+                    result.add(target);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * 向最近的对手移动，返回目的地（高 32 位为 x，低 32 位为 y），无法移动时返回 Long.MIN_VALUE
+         */
+        private long approach(int slot) {
+            int x = template.getX(slot);
+            int y = template.getY(slot);
+            int nearest = -1;
+            int nearestDistance = Integer.MAX_VALUE;
+            for (int target = unitCount; target < slots.size(); target++) {
+                if (template.isAlive(target) && template.isDeployed(target)) {
+                    int distance = Math.abs(template.getX(target) - x) + Math.abs(template.getY(target) - y);
+                    if (distance < nearestDistance) {
+                        nearest = target;
+                        nearestDistance = distance;
+                    }
+                }
+            }
+            if (nearest < 0) {
+                return Long.MIN_VALUE;
+            }
+            int tx = template.getX(nearest);
+            int ty = template.getY(nearest);
+            int maxRange = template.getMaxRange(slot);
+
+            if (pathfinder != null) {
+                // 在可达格子中选离目标最近（不进入最小射程以内）的一个
+                PathfindingService.ReachabilityMap reachability = pathfinder.getReachability(slots.get(slot));
+                long best = Long.MIN_VALUE;
+                int bestScore = Integer.MAX_VALUE;
+                for (Position position : reachability.getReachablePositions()) {
+                    long cell = cell(position.getX(), position.getY());
+                    if (claimedCells.contains(cell) || (position.getX() == x && position.getY() == y)) {
+                        continue;
+                    }
+                    int distance = position.distanceTo(new Position(tx, ty));
+                    int score = Math.max(distance - maxRange, template.getMinRange(slot) - distance) * 1024
+                            + reachability.getCost(position.getX(), position.getY());
+                    if (score < bestScore && !crossesClaimed(reachability, position)) {
+                        best = cell;
+                        bestScore = score;
+                    }
+                }
+                return best;
+            }
+
+            // 没有寻路服务时沿直线靠近，走到射程边缘为止
+            int steps = Math.min(template.getMovement(slot), Math.max(0, nearestDistance - maxRange));
+            if (steps == 0) {
+                return Long.MIN_VALUE;
+            }
+            int dx = Math.min(steps, Math.abs(tx - x));
+            int nx = x + Integer.signum(tx - x) * dx;
+            int ny = y + Integer.signum(ty - y) * (steps - dx);
+            long cell = cell(nx, ny);
+            if (claimedCells.contains(cell) || (battlefield != null && battlefield.isOccupied(nx, ny))) {
+                return Long.MIN_VALUE;
+            }
+            return cell;
+        }
+
+        /**
+         * 路径是否经过之前单位的目的地：单位按顺序移动，先移动的单位会挡住后面的路径
+         */
+        private boolean crossesClaimed(PathfindingService.ReachabilityMap reachability, Position destination) {
+            for (Position step : reachability.pathTo(destination.getX(), destination.getY())) {
+                if (claimedCells.contains(cell(step.getX(), step.getY()))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 按预期伤害占剩余生命的比例和威胁粗筛，再按评分保留最高的几个目标
+         */
+        private List<Integer> screen(int slot, List<Integer> targets) {
+            if (targets.size() > SCREENED_TARGETS) {
+                List<double[]> ranked = new ArrayList<>(targets.size());
+                for (int target : targets) {
+                    // 伤害相对剩余生命高、威胁大的目标优先
+                    double damage = attackDamage(slot, target);
+                    double health = Math.max(1, template.getCurrentHealth(target));
+                    ranked.add(new double[]{Math.min(damage, health) * (1.0 + threat[target]) / health, target});
+                }
+                ranked.sort((a, b) -> Double.compare(b[0], a[0]));
+                targets = new ArrayList<>(SCREENED_TARGETS);
+                for (int i = 0; i < SCREENED_TARGETS; i++) {
+                    targets.add((int) ranked.get(i)[1]);
+                }
+            }
+            if (targets.size() <= MAX_TARGETS_PER_UNIT) {
+                return targets;
+            }
+            List<double[]> scored = new ArrayList<>(targets.size());
+            for (int target : targets) {
+                scored.add(new double[]{attackScore(slot, target), target});
+            }
+            scored.sort((a, b) -> Double.compare(b[0], a[0]));
+            List<Integer> result = new ArrayList<>(MAX_TARGETS_PER_UNIT);
+            for (int i = 0; i < MAX_TARGETS_PER_UNIT; i++) {
+                result.add((int) scored.get(i)[1]);
+            }
+            return result;
+        }
+
+        /**
+         * 单独一次攻击的评分，与局面评估使用相同的权重
+         */
+        private double attackScore(int slot, int target) {
+            long health = template.getCurrentHealth(target);
+            long damage = attackDamage(slot, target);
+            return damageValue(target, Math.min(damage, health) / 100.0, 0, damage >= health);
+        }
+
+        /**
+         * 一次普通攻击的预期伤害（百分位），与 AttackAction.execute 相同的简单伤害公式
+         */
+        private long attackDamage(int slot, int target) {
+            return template.damageFrom(target, template.getAttack(slot), template.getArmorPenetration(slot));
+        }
+
+        private Candidate resourceCandidate(int slot, CombatResource resource, int index, List<Integer> inRange,
+                                            int moveX, int moveY) {
+            double effect = resource.getEffectValue().doubleValue();
+            switch (resource.getType()) {
+                case DAMAGE:
+                case CONTROL: {
+                    int limit = resource.getTargetingType() == TargetingType.MULTIPLE
+                            ? resource.getMaxTargets()
+                            : resource.getTargetingType() == TargetingType.SINGLE ? 1 : 0;
+                    if (limit == 0 || inRange.isEmpty()) {
+                        return null;
+                    }
+                    List<Integer> targets = new ArrayList<>(inRange);
+                    targets.sort((a, b) -> Double.compare(threat[b], threat[a]));
+                    int[] chosen = new int[Math.min(limit, targets.size())];
+                    double score = 0;
+                    for (int i = 0; i < chosen.length; i++) {
+                        chosen[i] = targets.get(i);
+                        if (resource.getType() == ResourceType.CONTROL) {
+                            score += threat[chosen[i]] * STUN_WEIGHT;
+                        } else {
+                            long health = template.getCurrentHealth(chosen[i]);
+                            long damage = template.damageFrom(chosen[i],
+                                    FixedPointCombatCalculator.toScaled(resource.getEffectValue(), 2),
+                                    FixedPointCombatCalculator.toScaled(resource.getPenetrationBonus(), 2));
+                            score += damageValue(chosen[i], Math.min(damage, health) / 100.0, 0, damage >= health);
+                        }
+                    }
+                    return new Candidate(moveX, moveY, chosen, resource, index, score);
+                }
+                case HEAL: {
+                    int target = -1;
+                    if (resource.getTargetingType() == TargetingType.SELF) {
+                        target = slot;
+                    } else if (resource.getTargetingType() == TargetingType.SINGLE) {
+                        target = mostWounded(slot);
+                    }
+                    if (target < 0) {
+                        return null;
+                    }
+                    double missing = (template.getMaxHealth(target) - template.getCurrentHealth(target)) / 100.0;
+                    double score = threat[target] * Math.min(effect, missing) / (template.getMaxHealth(target) / 100.0);
+                    return score > 0 ? new Candidate(moveX, moveY, new int[]{target}, resource, index, score) : null;
+                }
+                default:
+                    // 区域和增益类物资暂不参与规划
+                    return null;
+            }
+        }
+
+        /**
+         * 射程内生命比例最低的友军（包括自身）
+         */
+        private int mostWounded(int slot) {
+            int result = -1;
+            double lowest = 1.0;
+            for (int ally = 0; ally < unitCount; ally++) {
+                if (!template.isAlive(ally) || !template.isDeployed(ally)
+                        || (ally != slot && template.distance(slot, ally) > template.getMaxRange(slot))) {
+                    continue;
+                }
+                double ratio = (double) template.getCurrentHealth(ally) / template.getMaxHealth(ally);
+                if (ratio < lowest) {
+                    lowest = ratio;
+                    result = ally;
+                }
+            }
+            return result;
+        }
+
+        private double damageValue(int target, double healthDamage, double defenseDamage, boolean killed) {
+            double maxHealth = Math.max(0.01, template.getMaxHealth(target) / 100.0);
+            double maxDefense = Math.max(0.01, template.getMaxDefense(target) / 1_000_000.0);
+            double value = threat[target] * (healthDamage / maxHealth + DEFENSE_WEIGHT * defenseDamage / maxDefense);
+            return killed ? value + threat[target] * KILL_BONUS : value;
+        }
+
+        private long cell(int x, int y) {
+            return ((long) x << 32) | (y & 0xFFFFFFFFL);
+        }
+
+        // ==================== 推演 ====================
+
+        boolean hasChoices() {
+            for (Candidate[] options : candidates) {
+                if (options.length > 1) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int candidateCount() {
+            int count = 0;
+            for (Candidate[] options : candidates) {
+                count += options.length;
+            }
+            return count;
+        }
+
+        /**
+         * 在模板副本上结算方案并返回局面评估值
+         *
+         * @param wasted 不为 null 时记录动作落空（目标已被消灭或物资已用完）的单位，第 0 个元素为数量
+         */
+        double rollout(int[] choices, int[] wasted) {
+            BattleState state = template.copy();
+            int[] uses = resourceUses.clone();
+            int wastedCount = 0;
+            for (int slot = 0; slot < unitCount; slot++) {
+                Candidate[] options = candidates[slot];
+                if (options.length == 0) {
+                    continue;
+                }
+                Candidate candidate = options[choices[slot]];
+                if (candidate.hasMove()) {
+                    state.setPosition(slot, candidate.moveX, candidate.moveY);
+                }
+                if (!apply(state, slot, candidate, uses) && wasted != null) {
+                    wasted[++wastedCount] = slot;
+                }
+            }
+            if (wasted != null) {
+                wasted[0] = wastedCount;
+            }
+            return evaluate(state);
+        }
+
+        /**
+         * @return 动作是否产生了效果
+         */
+        private boolean apply(BattleState state, int slot, Candidate candidate, int[] uses) {
+            if (candidate.targets.length == 0) {
+                return true;
+            }
+            if (candidate.resource == null) {
+                int target = candidate.targets[0];
+                if (!state.isAlive(target)) {
+                    return false;
+                }
+                // 与 AttackAction.execute 相同的简单伤害公式
+                state.takeDamage(target, state.getAttack(slot), state.getArmorPenetration(slot));
+                return true;
+            }
+            if (uses[candidate.resourceIndex] == 0) {
+                return false;
+            }
+            uses[candidate.resourceIndex]--;
+            CombatResource resource = candidate.resource;
+            long effect = FixedPointCombatCalculator.toScaled(resource.getEffectValue(), 2);
+            long penetration = FixedPointCombatCalculator.toScaled(resource.getPenetrationBonus(), 2);
+            boolean effective = false;
+            for (int target : candidate.targets) {
+                if (!state.isAlive(target)) {
+                    continue;
+                }
+                effective = true;
+                switch (resource.getType()) {
+                    case DAMAGE:
+                        state.takeDamage(target, effect, penetration);
+                        break;
+                    case HEAL:
+                        state.receiveHeal(target, effect);
+                        break;
+                    case CONTROL:
+                        state.setStatus(target, CombatStatus.STUNNED);
+                        break;
+                    default:
+                        break;
+                }
+            }
+            return effective;
+        }
+
+        /**
+         * 局面评估：对手受到的伤害、消灭和眩晕按威胁加权，加上己方单位的剩余生命
+         */
+        double evaluate(BattleState state) {
+            double value = 0;
+            for (int slot = unitCount; slot < state.size(); slot++) {
+                double maxHealth = Math.max(1, state.getMaxHealth(slot));
+                double maxDefense = Math.max(1, state.getMaxDefense(slot));
+                if (!state.isAlive(slot)) {
+                    value += threat[slot] * (1.0 + KILL_BONUS);
+                    continue;
+                }
+                value += threat[slot] * (1.0 - state.getCurrentHealth(slot) / maxHealth);
+                value += threat[slot] * DEFENSE_WEIGHT * (1.0 - state.getCurrentDefense(slot) / maxDefense);
+                if (state.getStatus(slot) == CombatStatus.STUNNED) {
+                    value += threat[slot] * STUN_WEIGHT;
+                }
+            }
+            for (int slot = 0; slot < unitCount; slot++) {
+                value += threat[slot] * state.getCurrentHealth(slot) / Math.max(1, state.getMaxHealth(slot));
+            }
+            return value;
+        }
+
+        // ==================== 生成动作 ====================
+
+        List<CombatAction> toActions(int[] choices) {
+            List<CombatAction> actions = new ArrayList<>();
+            int[] uses = resourceUses.clone();
+            for (int slot = 0; slot < unitCount; slot++) {
+                Candidate[] options = candidates[slot];
+                if (options.length == 0) {
+                    continue;
+                }
+                CombatUnit unit = slots.get(slot);
+                Candidate candidate = options[choices[slot]];
+                if (candidate.hasMove()) {
+                    Position target = new Position(candidate.moveX, candidate.moveY);
+                    actions.add(pathfinder != null ? new MoveUnitAction(unit, target, pathfinder)
+                            : new MoveUnitAction(unit, target, battlefield));
+                }
+                if (candidate.targets.length == 0) {
+                    continue;
+                }
+                if (candidate.resource == null) {
+                    actions.add(new AttackAction(unit, slots.get(candidate.targets[0])));
+                } else if (uses[candidate.resourceIndex] > 0) {
+                    uses[candidate.resourceIndex]--;
+                    List<CombatUnit> targets = new ArrayList<>(candidate.targets.length);
+                    for (int target : candidate.targets) {
+                        targets.add(slots.get(target));
+                    }
+                    actions.add(new UseResourceAction(unit, candidate.resource, targets));
+                }
+            }
+            return actions;
+        }
+    }
+
+    /**
+     * 推演结果
+     */
+    private static final class Result {
+        private final int[] choices;
+        private final double value;
+        private final long rollouts;
+
+        Result(int[] choices, double value, long rollouts) {
+            this.choices = choices;
+            this.value = value;
+            this.rollouts = rollouts;
+        }
+    }
+
+    /**
+     * 一组独立的爬山推演，直到截止时间
+     * 一半的调整针对上一次最佳方案中落空的单位，另一半随机挑选单位
+     */
+    private static final class RolloutTask extends RecursiveTask<Result> {
+        private static final long serialVersionUID = 1L;
+
+        private final Setup setup;
+        private final int[] initial;
+        private final double initialValue;
+        private final long seed;
+        private final long deadline;
+
+        RolloutTask(Setup setup, int[] initial, double initialValue, long seed, long deadline) {
+            this.setup = setup;
+            this.initial = initial;
+            this.initialValue = initialValue;
+            this.seed = seed;
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected Result compute() {
+            SplittableRandom random = new SplittableRandom(seed);
+            int unitCount = setup.unitCount;
+            int[] best = initial.clone();
+            int[] bestWasted = new int[unitCount + 1];
+            double bestValue = setup.rollout(best, bestWasted);
+            int[] trial = new int[unitCount];
+            int[] trialWasted = new int[unitCount + 1];
+            long rollouts = 1;
+            int maxChanges = Math.max(1, unitCount / 32);
+
+            while (System.nanoTime() < deadline) {
+                System.arraycopy(best, 0, trial, 0, unitCount);
+                int changes = 1 + random.nextInt(maxChanges);
+                for (int i = 0; i < changes; i++) {
+                    int slot = bestWasted[0] > 0 && random.nextBoolean()
+                            ? bestWasted[1 + random.nextInt(bestWasted[0])]
+                            : random.nextInt(unitCount);
+                    int options = setup.candidates[slot].length;
+                    if (options > 1) {
+                        trial[slot] = random.nextInt(options);
+                    }
+                }
+                double value = setup.rollout(trial, trialWasted);
+                rollouts++;
+                if (value > bestValue) {
+                    int[] swap = best;
+                    best = trial;
+                    trial = swap;
+                    int[] swapWasted = bestWasted;
+                    bestWasted = trialWasted;
+                    trialWasted = swapWasted;
+                    bestValue = value;
+                }
+            }
+            return bestValue > initialValue ? new Result(best, bestValue, rollouts)
+                    : new Result(initial, initialValue, rollouts);
+        }
+    }
+
+    /**
+     * 规划结果
+     */
+    public static class Plan {
+        private final List<CombatAction> actions;
+        private final double expectedValue;
+        private final double greedyValue;
+        private final long rollouts;
+        private final int candidates;
+        private final long elapsedNanos;
+
+        private Plan(List<CombatAction> actions, double expectedValue, double greedyValue, long rollouts,
+                     int candidates, long elapsedNanos) {
+            this.actions = Collections.unmodifiableList(actions);
+            this.expectedValue = expectedValue;
+            this.greedyValue = greedyValue;
+            this.rollouts = rollouts;
+            this.candidates = candidates;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public List<CombatAction> getActions() { return actions; }
+        /** 方案相对当前局面的评估增益 */
+        public double getExpectedValue() { return expectedValue; }
+        /** 每个单位各取评分最高的候选时的评估增益 */
+        public double getGreedyValue() { return greedyValue; }
+        public long getRollouts() { return rollouts; }
+        public int getCandidates() { return candidates; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        @Override
+        public String toString() {
+            return String.format("规划 %d 个动作: 评估 %.1f（贪心 %.1f），候选 %d，推演 %d 次，耗时 %.1f ms",
+                    actions.size(), expectedValue, greedyValue, candidates, rollouts, elapsedNanos / 1_000_000.0);
+        }
+    }
+}
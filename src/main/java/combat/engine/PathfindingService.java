@@ -0,0 +1,256 @@
+package combat.engine;
+
+import combat.model.BattlefieldGrid;
+import combat.model.CombatUnit;
+import combat.model.Position;
+import util.LruCache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 战场寻路服务
+ * 以单位当前位置为起点做四方向广度优先搜索，每步消耗1点移动力，
+ * 被其他单位占据的格子、地形障碍和地图边界都不可通过。
+ *
+ * 计算结果（可达图）按单位缓存。只有可达图覆盖区域内的单位占用发生变化（战场索引中该区域的版本号
+ * 大于可达图计算时的版本号）或地形变化时才失效，战场其他位置的单位移动不影响缓存。
+ * 搜索队列是复用的基本类型数组，因此本类不是线程安全的，每场战斗使用一个实例。
+ */
+public class PathfindingService {
+    private static final int DEFAULT_CACHE_SIZE = 4096;
+    private static final int[] DX = {1, -1, 0, 0};
+    private static final int[] DY = {0, 0, 1, -1};
+
+    private final int width;
+    private final int height;
+    private final BattlefieldGrid battlefield;
+    private final boolean[] obstacles;
+    private long terrainVersion;
+    private final LruCache<CombatUnit, ReachabilityMap> cache;
+
+    private int[] queue = new int[64];   // 复用的搜索队列（可达图内的格子下标）
+
+    public PathfindingService(int width, int height, BattlefieldGrid battlefield) {
+        this(width, height, battlefield, DEFAULT_CACHE_SIZE);
+    }
+
+    public PathfindingService(int width, int height, BattlefieldGrid battlefield, int cacheSize) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("地图尺寸必须大于0");
+        }
+        this.width = width;
+        this.height = height;
+        this.battlefield = battlefield;
+        this.obstacles = new boolean[width * height];
+        this.cache = new LruCache<>(cacheSize);
+    }
+
+    // ==================== 地形 ====================
+
+    public void setObstacle(int x, int y, boolean blocked) {
+        if (!isInBounds(x, y)) {
+            throw new IllegalArgumentException("坐标超出地图范围: (" + x + ", " + y + ")");
+        }
+        if (obstacles[x * height + y] != blocked) {
+            obstacles[x * height + y] = blocked;
+            terrainVersion++;
+        }
+    }
+
+    public boolean isObstacle(int x, int y) {
+        return isInBounds(x, y) && obstacles[x * height + y];
+    }
+
+    public boolean isInBounds(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 获取单位的可达图，覆盖区域和地形未变化时直接返回缓存结果
+     */
+    public ReachabilityMap getReachability(CombatUnit unit) {
+        ReachabilityMap map = cache.get(unit);
+        Position position = unit.getPosition();
+        if (map != null
+                && map.terrainVersion == terrainVersion
+                && map.originX == position.getX()
+                && map.originY == position.getY()
+                && map.radius == Math.max(0, unit.getMovement())
+                && battlefield.getRegionVersion(map.originX - map.radius, map.originY - map.radius,
+                        map.originX + map.radius, map.originY + map.radius) <= map.battlefieldVersion) {
+            return map;
+        }
+        map = computeReachability(position.getX(), position.getY(), unit.getMovement());
+        cache.put(unit, map);
+        return map;
+    }
+
+    /**
+     * 检查单位本回合能否移动到目标位置
+     */
+    public boolean canReach(CombatUnit unit, Position target) {
+        return getReachability(unit).isReachable(target.getX(), target.getY());
+    }
+
+    /**
+     * 计算单位到目标位置的最短路径（不含起点），不可达时返回空列表
+     */
+    public List<Position> findPath(CombatUnit unit, Position target) {
+        return getReachability(unit).pathTo(target.getX(), target.getY());
+    }
+
+    /**
+     * 不使用缓存，计算从起点出发、移动力为 movement 的可达图
+     */
+    public ReachabilityMap computeReachability(int originX, int originY, int movement) {
+        int radius = Math.max(0, movement);
+        int side = 2 * radius + 1;
+        int[] costs = new int[side * side];
+        Arrays.fill(costs, -1);
+        ReachabilityMap map = new ReachabilityMap(originX, originY, radius, costs,
+                battlefield.getVersion(), terrainVersion);
+        if (!isInBounds(originX, originY)) {
+            return map;
+        }
+
+        int origin = radius * side + radius;
+        costs[origin] = 0;
+        if (queue.length < costs.length) {
+            queue = new int[Math.max(costs.length, queue.length * 2)];
+        }
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = origin;
+        int reachable = 1;
+
+        while (head < tail) {
+            int cell = queue[head++];
+            int cost = costs[cell];
+            if (cost == radius) {
+                continue;
+            }
+            int dx = cell / side - radius;
+            int dy = cell % side - radius;
+            for (int d = 0; d < 4; d++) {
+                int nx = dx + DX[d];
+                int ny = dy + DY[d];
+                if (Math.abs(nx) + Math.abs(ny) > radius) {
+                    continue;
+                }
+                int next = (nx + radius) * side + (ny + radius);
+                if (costs[next] >= 0) {
+                    continue;
+                }
+                int x = originX + nx;
+                int y = originY + ny;
+                if (!isInBounds(x, y) || obstacles[x * height + y] || battlefield.isOccupied(x, y)) {
+                    continue;
+                }
+                costs[next] = cost + 1;
+                queue[tail++] = next;
+                reachable++;
+            }
+        }
+        map.reachableCount = reachable;
+        return map;
+    }
+
+    public void clearCache() {
+        cache.clear();
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public BattlefieldGrid getBattlefield() { return battlefield; }
+    public long getCacheHitCount() { return cache.getHitCount(); }
+    public long getCacheMissCount() { return cache.getMissCount(); }
+
+    /**
+     * 可达图
+     * 以起点为中心、边长 2*radius+1 的方形区域内每个格子的最小移动消耗，-1 表示不可达
+     */
+    public static class ReachabilityMap {
+        private final int originX;
+        private final int originY;
+        private final int radius;
+        private final int side;
+        private final int[] costs;
+        private final long battlefieldVersion;
+        private final long terrainVersion;
+        private int reachableCount;
+
+        private ReachabilityMap(int originX, int originY, int radius, int[] costs,
+                                long battlefieldVersion, long terrainVersion) {
+            this.originX = originX;
+            this.originY = originY;
+            this.radius = radius;
+            this.side = 2 * radius + 1;
+            this.costs = costs;
+            this.battlefieldVersion = battlefieldVersion;
+            this.terrainVersion = terrainVersion;
+        }
+
+        /**
+         * 到达目标格子的最小移动消耗，不可达时返回 -1
+         */
+        public int getCost(int x, int y) {
+            int dx = x - originX;
+            int dy = y - originY;
+            if (Math.abs(dx) > radius || Math.abs(dy) > radius) {
+                return -1;
+            }
+            return costs[(dx + radius) * side + (dy + radius)];
+        }
+
+        public boolean isReachable(int x, int y) {
+            return getCost(x, y) >= 0;
+        }
+
+        /**
+         * 所有可达格子（包含起点）
+         */
+        public List<Position> getReachablePositions() {
+            List<Position> positions = new ArrayList<>(reachableCount);
+            for (int i = 0; i < costs.length; i++) {
+                if (costs[i] >= 0) {
+                    positions.add(new Position(originX + i / side - radius, originY + i % side - radius));
+                }
+            }
+            return positions;
+        }
+
+        /**
+         * 从目标沿消耗递减的方向回溯得到最短路径（不含起点）
+         */
+        public List<Position> pathTo(int x, int y) {
+            int cost = getCost(x, y);
+            if (cost <= 0) {
+                return Collections.emptyList();
+            }
+            Position[] path = new Position[cost];
+            int cx = x;
+            int cy = y;
+            for (int step = cost; step > 0; step--) {
+                path[step - 1] = new Position(cx, cy);
+                for (int d = 0; d < 4; d++) {
+                    if (getCost(cx + DX[d], cy + DY[d]) == step - 1) {
+                        cx += DX[d];
+                        cy += DY[d];
+                        break;
+                    }
+                }
+            }
+            return Arrays.asList(path);
+        }
+
+        public int getOriginX() { return originX; }
+        public int getOriginY() { return originY; }
+        public int getRadius() { return radius; }
+        public int getReachableCount() { return reachableCount; }
+    }
+}
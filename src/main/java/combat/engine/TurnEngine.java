@@ -0,0 +1,265 @@
+package combat.engine;
+
+import combat.actions.CombatAction;
+import combat.actions.UseResourceAction;
+import combat.model.CombatLog;
+import combat.model.CombatResource;
+import combat.model.CombatUnit;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 回合引擎
+ * 收集一个回合内提交的战斗动作，按阶段（部署、移动、物资、攻击、反击）排序执行；
+ * 每个阶段先批量验证、再依次执行，阶段内保持提交顺序。
+ * 回合结束时统一推进物资冷却并重置所有单位的回合标记，并记录各阶段耗时。
+ * 设置了 {@link ActionJournal} 时，每个执行过的动作及其结果都会写入战斗记录文件。
+ */
+public class TurnEngine {
+    private static final TurnPhase[] PHASES = TurnPhase.values();
+
+    private final Map<TurnPhase, List<CombatAction>> pending;
+    private final Set<CombatUnit> units;
+    private final Set<CombatResource> resources;
+    private final CombatLog combatLog;
+    private ActionJournal journal;
+    private int turnNumber;
+
+    public TurnEngine() {
+        this(null);
+    }
+
+    /**
+     * @param combatLog 回合内所有动作共用的战斗日志，为 null 时各动作使用临时日志
+     */
+    public TurnEngine(CombatLog combatLog) {
+        this.pending = new EnumMap<>(TurnPhase.class);
+        for (TurnPhase phase : PHASES) {
+            pending.put(phase, new ArrayList<>());
+        }
+        this.units = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.resources = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.combatLog = combatLog;
+        this.turnNumber = 1;
+    }
+
+    // ==================== 注册 ====================
+
+    /**
+     * 注册参战单位，回合结束时统一重置其回合标记
+     */
+    public void registerUnit(CombatUnit unit) {
+        if (units.add(unit) && journal != null) {
+            journal.track(unit);
+        }
+    }
+
+    public void registerUnits(Collection<CombatUnit> unitsToAdd) {
+        for (CombatUnit unit : unitsToAdd) {
+            registerUnit(unit);
+        }
+    }
+
+    /**
+     * 注册战斗物资，回合结束时统一推进其冷却；重复注册同一物资不会使冷却多推进
+     */
+    public void registerResource(CombatResource resource) {
+        resources.add(resource);
+    }
+
+    public void registerResources(Collection<CombatResource> resourcesToAdd) {
+        for (CombatResource resource : resourcesToAdd) {
+            registerResource(resource);
+        }
+    }
+
+    // ==================== 提交动作 ====================
+
+    /**
+     * 提交本回合要执行的动作，动作的发起单位和使用的物资会自动注册
+     */
+    public void submit(CombatAction action) {
+        if (action.isExecuted()) {
+            throw new IllegalArgumentException("动作已执行: " + action.getDescription());
+        }
+        if (combatLog != null) {
+            action.setCombatLog(combatLog);
+        }
+        registerUnit(action.getSourceUnit());
+        if (action instanceof UseResourceAction) {
+            registerResource(((UseResourceAction) action).getResource());
+        }
+        pending.get(TurnPhase.of(action.getActionType())).add(action);
+    }
+
+    public void submitAll(Collection<? extends CombatAction> actions) {
+        for (CombatAction action : actions) {
+            submit(action);
+        }
+    }
+
+    public int getPendingCount() {
+        int count = 0;
+        for (List<CombatAction> actions : pending.values()) {
+            count += actions.size();
+        }
+        return count;
+    }
+
+    // ==================== 执行回合 ====================
+
+    /**
+     * 执行本回合所有已提交的动作并结束回合
+     */
+    public TurnReport executeTurn() {
+        TurnReport report = new TurnReport(turnNumber);
+        long turnStart = System.nanoTime();
+
+        for (TurnPhase phase : PHASES) {
+            List<CombatAction> actions = pending.get(phase);
+            if (actions.isEmpty()) {
+                continue;
+            }
+            long phaseStart = System.nanoTime();
+            executePhase(phase, actions, report);
+            report.phaseNanos[phase.ordinal()] = System.nanoTime() - phaseStart;
+            actions.clear();
+        }
+
+        long endStart = System.nanoTime();
+        endTurn();
+        report.endOfTurnNanos = System.nanoTime() - endStart;
+        report.totalNanos = System.nanoTime() - turnStart;
+        return report;
+    }
+
+    private void executePhase(TurnPhase phase, List<CombatAction> actions, TurnReport report) {
+        // 先批量验证：阶段开始时即无效的动作直接拒绝，不进入执行
+        List<CombatAction> accepted = new ArrayList<>(actions.size());
+        for (CombatAction action : actions) {
+            CombatAction.ValidationResult validation = action.validate();
+            if (validation.isValid()) {
+                accepted.add(action);
+            } else {
+                report.rejected.add(new RejectedAction(phase, action, validation.getMessage()));
+            }
+        }
+
+        // 执行时仍会再次验证，以处理同阶段前序动作造成的状态变化（如目标已被消灭）
+        for (CombatAction action : accepted) {
+            if (journal != null) {
+                journal.prepare(action);
+            }
+            CombatAction.ActionResult result = action.execute();
+            if (journal != null) {
+                journal.recordAction(turnNumber, action, result.isSuccess());
+            }
+            report.results.add(result);
+            if (result.isSuccess()) {
+                report.executedCounts[phase.ordinal()]++;
+            } else {
+                report.failedCounts[phase.ordinal()]++;
+            }
+        }
+    }
+
+    /**
+     * 回合结束：推进物资冷却并重置单位回合标记
+     */
+    private void endTurn() {
+        for (CombatResource resource : resources) {
+            resource.updateCooldown();
+        }
+        for (CombatUnit unit : units) {
+            unit.resetTurnState();
+        }
+        if (journal != null) {
+            journal.recordTurnEnd(turnNumber);
+        }
+        turnNumber++;
+    }
+
+    /**
+     * 设置战斗记录文件，之后执行的每个动作及其结果都会追加到文件中；已注册的单位立即登记
+     */
+    public void setJournal(ActionJournal journal) {
+        this.journal = journal;
+        if (journal != null) {
+            for (CombatUnit unit : units) {
+                journal.track(unit);
+            }
+        }
+    }
+
+    public int getTurnNumber() { return turnNumber; }
+    public CombatLog getCombatLog() { return combatLog; }
+    public ActionJournal getJournal() { return journal; }
+
+    /**
+     * 验证未通过而被拒绝的动作
+     */
+    public static class RejectedAction {
+        private final TurnPhase phase;
+        private final CombatAction action;
+        private final String reason;
+
+        private RejectedAction(TurnPhase phase, CombatAction action, String reason) {
+            this.phase = phase;
+            this.action = action;
+            this.reason = reason;
+        }
+
+        public TurnPhase getPhase() { return phase; }
+        public CombatAction getAction() { return action; }
+        public String getReason() { return reason; }
+    }
+
+    /**
+     * 回合执行报告
+     */
+    public static class TurnReport {
+        private final int turnNumber;
+        private final long[] phaseNanos = new long[PHASES.length];
+        private final int[] executedCounts = new int[PHASES.length];
+        private final int[] failedCounts = new int[PHASES.length];
+        private final List<CombatAction.ActionResult> results = new ArrayList<>();
+        private final List<RejectedAction> rejected = new ArrayList<>();
+        private long endOfTurnNanos;
+        private long totalNanos;
+
+        private TurnReport(int turnNumber) {
+            this.turnNumber = turnNumber;
+        }
+
+        public int getTurnNumber() { return turnNumber; }
+        public long getPhaseNanos(TurnPhase phase) { return phaseNanos[phase.ordinal()]; }
+        public int getExecutedCount(TurnPhase phase) { return executedCounts[phase.ordinal()]; }
+        public int getFailedCount(TurnPhase phase) { return failedCounts[phase.ordinal()]; }
+        public List<CombatAction.ActionResult> getResults() { return Collections.unmodifiableList(results); }
+        public List<RejectedAction> getRejected() { return Collections.unmodifiableList(rejected); }
+        public long getEndOfTurnNanos() { return endOfTurnNanos; }
+        public long getTotalNanos() { return totalNanos; }
+
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder();
+            report.append(String.format("=== 第 %d 回合 ===\n", turnNumber));
+            for (TurnPhase phase : PHASES) {
+                int i = phase.ordinal();
+                report.append(String.format("%s: 成功 %d, 失败 %d, 耗时 %.3f ms\n", phase.getDescription(),
+                        executedCounts[i], failedCounts[i], phaseNanos[i] / 1_000_000.0));
+            }
+            report.append(String.format("回合结束处理: %.3f ms\n", endOfTurnNanos / 1_000_000.0));
+            report.append(String.format("被拒绝的动作: %d\n", rejected.size()));
+            report.append(String.format("总耗时: %.3f ms\n", totalNanos / 1_000_000.0));
+            return report.toString();
+        }
+    }
+}
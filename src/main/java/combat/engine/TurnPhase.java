@@ -0,0 +1,46 @@
+package combat.engine;
+
+import combat.actions.ActionType;
+
+/**
+ * 回合阶段，按声明顺序依次执行
+ */
+public enum TurnPhase {
+    DEPLOY("部署阶段"),
+    MOVE("移动阶段"),
+    RESOURCE("物资阶段"),
+    ATTACK("攻击阶段"),
+    RETALIATION("反击阶段");
+
+    private final String description;
+
+    TurnPhase(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * 动作类型所属的回合阶段
+     */
+    public static TurnPhase of(ActionType actionType) {
+        switch (actionType) {
+            case DEPLOY:
+                return DEPLOY;
+            case MOVE:
+                return MOVE;
+            case HEAL:
+            case USE_RESOURCE:
+                return RESOURCE;
+            case RETALIATION_ATTACK:
+                return RETALIATION;
+            case ATTACK:
+            case SPECIAL:
+            case PASS:
+            default:
+                return ATTACK;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package combat.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 战斗快照日志（写时复制的撤销日志）
+ * 登记到日志的单位和物资在被修改前，把旧状态的浅拷贝追加到日志；每个纪元（两次快照之间）
+ * 同一对象只记录一次。BigDecimal 不可变，拷贝只共享引用，不做深拷贝。
+ *
+ * 创建快照只记下日志当前长度，为 O(1)；恢复快照按倒序撤销之后的记录，为 O(变化的对象数)，
+ * 与战斗中的单位总数无关。同一快照可以反复恢复（AI 逐一试探候选动作），恢复到较早的快照后，
+ * 之后创建的快照失效。没有快照时不记录任何修改。
+ *
+ * 与战斗代码一样不是线程安全的，应由拥有该战斗的线程（如 BattleActor）使用。
+ */
+public class BattleJournal {
+    private final List<Entry> entries = new ArrayList<>();
+    private final List<Snapshot> openSnapshots = new ArrayList<>();   // 按创建顺序
+    private CombatLog combatLog;
+    private long epoch;
+
+    /**
+     * 登记单位，之后的修改会被记录
+     */
+    public void track(CombatUnit unit) {
+        unit.attachJournal(this);
+    }
+
+    public void trackUnits(Collection<CombatUnit> units) {
+        for (CombatUnit unit : units) {
+            unit.attachJournal(this);
+        }
+    }
+
+    public void track(CombatResource resource) {
+        resource.attachJournal(this);
+    }
+
+    public void trackResources(Collection<CombatResource> resources) {
+        for (CombatResource resource : resources) {
+            resource.attachJournal(this);
+        }
+    }
+
+    public void untrack(CombatUnit unit) {
+        unit.detachJournal(this);
+    }
+
+    public void untrack(CombatResource resource) {
+        resource.detachJournal(this);
+    }
+
+    /**
+     * 同时回退战斗事件日志：恢复快照时截断快照之后追加的事件
+     */
+    public void trackLog(CombatLog log) {
+        this.combatLog = log;
+    }
+
+    // ==================== 快照 ====================
+
+    /**
+     * 创建快照
+     */
+    public Snapshot snapshot() {
+        epoch++;
+        Snapshot snapshot = new Snapshot(this, entries.size(), combatLog != null ? combatLog.size() : 0);
+        openSnapshots.add(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * 把登记的单位和物资恢复到快照时的状态，快照本身仍然有效
+     *
+     * @return 撤销的记录数
+     */
+    public int restore(Snapshot snapshot) {
+        requireValid(snapshot);
+        int undone = entries.size() - snapshot.position;
+        for (int i = entries.size() - 1; i >= snapshot.position; i--) {
+            entries.get(i).undo();
+        }
+        entries.subList(snapshot.position, entries.size()).clear();
+        // 之后创建的快照所依赖的记录已被撤销
+        for (int i = openSnapshots.size() - 1; openSnapshots.get(i) != snapshot; i--) {
+            openSnapshots.remove(i).released = true;
+        }
+        if (combatLog != null && combatLog.size() >= snapshot.logSize) {
+            combatLog.truncate(snapshot.logSize);
+        }
+        // 新纪元：恢复后的修改需要重新记录
+        epoch++;
+        return undone;
+    }
+
+    /**
+     * 不再需要该快照；所有快照都释放后清空日志并停止记录
+     */
+    public void release(Snapshot snapshot) {
+        requireValid(snapshot);
+        snapshot.released = true;
+        openSnapshots.remove(snapshot);
+        if (openSnapshots.isEmpty()) {
+            entries.clear();
+            epoch++;
+        }
+    }
+
+    /**
+     * 提交当前状态：丢弃全部记录，已有快照全部失效
+     */
+    public void clear() {
+        for (Snapshot snapshot : openSnapshots) {
+            snapshot.released = true;
+        }
+        openSnapshots.clear();
+        entries.clear();
+        epoch++;
+    }
+
+    public boolean isValid(Snapshot snapshot) {
+        return snapshot.journal == this && !snapshot.released;
+    }
+
+    /**
+     * 当前日志中的记录数，即自最早的快照以来被修改过的对象次数
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    boolean isRecording() {
+        return !openSnapshots.isEmpty();
+    }
+
+    long getEpoch() {
+        return epoch;
+    }
+
+    void record(Entry entry) {
+        entries.add(entry);
+    }
+
+    private void requireValid(Snapshot snapshot) {
+        if (!isValid(snapshot)) {
+            throw new IllegalStateException("快照已失效");
+        }
+    }
+
+    /**
+     * 一条撤销记录
+     */
+    interface Entry {
+        void undo();
+    }
+
+    /**
+     * 快照句柄
+     */
+    public static class Snapshot {
+        private final BattleJournal journal;
+        private final int position;
+        private final int logSize;
+        private boolean released;
+
+        private Snapshot(BattleJournal journal, int position, int logSize) {
+            this.journal = journal;
+            this.position = position;
+            this.logSize = logSize;
+        }
+
+        public int getPosition() { return position; }
+    }
+}
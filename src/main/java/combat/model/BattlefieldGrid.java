@@ -0,0 +1,281 @@
+package combat.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 战场空间索引
+ * 按固定大小的网格桶组织单位位置，支持曼哈顿距离范围查询和格子占用检查。
+ * 加入索引的单位通过 {@link CombatUnitListener} 在 setPosition 时自动增量更新；
+ * 坐标为负（未部署）和已阵亡的单位不计入索引，单位阵亡时自动移出，复活时重新加入。
+ * 每个网格桶记录最后一次变化时的版本号，缓存可以只检查自身覆盖区域是否变化。
+ */
+public class BattlefieldGrid implements CombatUnitListener {
+    private static final int DEFAULT_CELL_SIZE = 8;
+
+    private final int cellSize;
+    private final Map<Long, List<CombatUnit>> buckets;   // 网格桶 -> 桶内单位
+    private final Map<Long, CombatUnit> occupants;        // 精确坐标 -> 占据单位
+    private final Map<CombatUnit, Boolean> units;         // 已加入索引的单位（按对象身份）
+    private final Map<Long, Long> bucketVersions;         // 网格桶 -> 最后一次变化时的版本号
+    private long version;                                 // 任意位置或存活变化时递增
+
+    public BattlefieldGrid() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    public BattlefieldGrid(int cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("网格大小必须大于0");
+        }
+        this.cellSize = cellSize;
+        this.buckets = new HashMap<>();
+        this.occupants = new HashMap<>();
+        this.units = new IdentityHashMap<>();
+        this.bucketVersions = new HashMap<>();
+    }
+
+    /**
+     * 将单位加入索引，并监听其后续位置变化
+     */
+    public void add(CombatUnit unit) {
+        if (units.put(unit, Boolean.TRUE) != null) {
+            return;
+        }
+        unit.addListener(this);
+        index(unit, unit.getPosition());
+        version++;
+    }
+
+    /**
+     * 将单位移出索引
+     */
+    public void remove(CombatUnit unit) {
+        if (units.remove(unit) == null) {
+            return;
+        }
+        unit.removeListener(this);
+        unindex(unit, unit.getPosition());
+        version++;
+    }
+
+    public boolean contains(CombatUnit unit) {
+        return units.containsKey(unit);
+    }
+
+    @Override
+    public void onPositionChanged(CombatUnit unit, Position oldPosition, Position newPosition) {
+        if (!units.containsKey(unit)) {
+            return;
+        }
+        unindex(unit, oldPosition);
+        index(unit, newPosition);
+        version++;
+    }
+
+    @Override
+    public void onAliveChanged(CombatUnit unit, boolean alive) {
+        if (!units.containsKey(unit)) {
+            return;
+        }
+        if (alive) {
+            index(unit, unit.getPosition());
+        } else {
+            unindex(unit, unit.getPosition());
+        }
+        version++;
+    }
+
+    /**
+     * 检查格子是否已被占据
+     */
+    public boolean isOccupied(Position position) {
+        return occupants.containsKey(key(position.getX(), position.getY()));
+    }
+
+    /**
+     * 获取占据该格子的单位，没有则返回 null
+     */
+    public CombatUnit getOccupant(Position position) {
+        return occupants.get(key(position.getX(), position.getY()));
+    }
+
+    /**
+     * 按坐标检查格子是否已被占据，供寻路等热点路径使用，避免创建 Position
+     */
+    public boolean isOccupied(int x, int y) {
+        return occupants.containsKey(key(x, y));
+    }
+
+    public CombatUnit getOccupant(int x, int y) {
+        return occupants.get(key(x, y));
+    }
+
+    /**
+     * 查询与中心点曼哈顿距离在 [minRange, maxRange] 内的所有单位
+     */
+    public List<CombatUnit> findUnitsInRange(Position center, int minRange, int maxRange) {
+        return findUnitsInRange(center, minRange, maxRange, null);
+    }
+
+    /**
+     * 查询范围内满足条件的单位
+     */
+    public List<CombatUnit> findUnitsInRange(Position center, int minRange, int maxRange,
+                                             Predicate<CombatUnit> filter) {
+        List<CombatUnit> result = new ArrayList<>();
+        if (maxRange < minRange || maxRange < 0) {
+            return result;
+        }
+        int cx = center.getX();
+        int cy = center.getY();
+        int minCellX = Math.floorDiv(cx - maxRange, cellSize);
+        int maxCellX = Math.floorDiv(cx + maxRange, cellSize);
+        int minCellY = Math.floorDiv(cy - maxRange, cellSize);
+        int maxCellY = Math.floorDiv(cy + maxRange, cellSize);
+        long boxCells = (long) (maxCellX - minCellX + 1) * (maxCellY - minCellY + 1);
+
+        if (boxCells > buckets.size()) {
+            // 查询范围覆盖的格子比非空桶还多，直接遍历非空桶
+            for (Map.Entry<Long, List<CombatUnit>> entry : buckets.entrySet()) {
+                long cell = entry.getKey();
+                collect(entry.getValue(), (int) (cell >> 32), (int) cell, cx, cy, minRange, maxRange, filter, result);
+            }
+        } else {
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+                    List<CombatUnit> bucket = buckets.get(key(cellX, cellY));
+                    if (bucket != null) {
+                        collect(bucket, cellX, cellY, cx, cy, minRange, maxRange, filter, result);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 查询单位射程内的存活敌方单位
+     */
+    public List<CombatUnit> findEnemiesInRange(CombatUnit source) {
+        CombatRange range = source.getCombatRange();
+        return findEnemiesInRange(source, range.getMinRange(), range.getMaxRange());
+    }
+
+    public List<CombatUnit> findEnemiesInRange(CombatUnit source, int minRange, int maxRange) {
+        String ownerId = source.getOwnerId();
+        return findUnitsInRange(source.getPosition(), minRange, maxRange,
+                unit -> unit.isAlive() && !unit.getOwnerId().equals(ownerId));
+    }
+
+    public int size() {
+        return units.size();
+    }
+
+    /**
+     * 索引版本号，任何单位位置或存活状态变化都会递增
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 矩形区域 [minX, maxX] x [minY, maxY] 内最后一次变化时的版本号，区域从未变化时返回 0
+     * 结果不大于缓存计算时的 {@link #getVersion()} 说明该区域的占用情况没有变化
+     */
+    public long getRegionVersion(int minX, int minY, int maxX, int maxY) {
+        long result = 0;
+        int maxCellX = Math.floorDiv(maxX, cellSize);
+        int maxCellY = Math.floorDiv(maxY, cellSize);
+        for (int cellX = Math.floorDiv(minX, cellSize); cellX <= maxCellX; cellX++) {
+            for (int cellY = Math.floorDiv(minY, cellSize); cellY <= maxCellY; cellY++) {
+                Long changed = bucketVersions.get(key(cellX, cellY));
+                if (changed != null && changed > result) {
+                    result = changed;
+                }
+            }
+        }
+        return result;
+    }
+
+    // ==================== 辅助方法 ====================
+
+    private void collect(List<CombatUnit> bucket, int cellX, int cellY, int cx, int cy,
+                         int minRange, int maxRange, Predicate<CombatUnit> filter, List<CombatUnit> result) {
+        // 桶与中心点的最近、最远距离都在范围外时整桶跳过
+        int left = cellX * cellSize;
+        int right = left + cellSize - 1;
+        int bottom = cellY * cellSize;
+        int top = bottom + cellSize - 1;
+        int nearest = Math.max(0, Math.max(left - cx, cx - right)) + Math.max(0, Math.max(bottom - cy, cy - top));
+        if (nearest > maxRange) {
+            return;
+        }
+        int farthest = Math.max(Math.abs(cx - left), Math.abs(cx - right))
+                + Math.max(Math.abs(cy - bottom), Math.abs(cy - top));
+        if (farthest < minRange) {
+            return;
+        }
+        for (CombatUnit unit : bucket) {
+            Position position = unit.getPosition();
+            int distance = Math.abs(position.getX() - cx) + Math.abs(position.getY() - cy);
+            if (distance >= minRange && distance <= maxRange && (filter == null || filter.test(unit))) {
+                result.add(unit);
+            }
+        }
+    }
+
+    private void index(CombatUnit unit, Position position) {
+        if (!isOnBoard(position) || !unit.isAlive()) {
+            return;
+        }
+        long cell = key(Math.floorDiv(position.getX(), cellSize), Math.floorDiv(position.getY(), cellSize));
+        // 调用方在索引更新后递增 version
+        bucketVersions.put(cell, version + 1);
+        buckets.computeIfAbsent(cell, k -> new ArrayList<>()).add(unit);
+        occupants.putIfAbsent(key(position.getX(), position.getY()), unit);
+    }
+
+    private void unindex(CombatUnit unit, Position position) {
+        if (!isOnBoard(position)) {
+            return;
+        }
+        long cell = key(Math.floorDiv(position.getX(), cellSize), Math.floorDiv(position.getY(), cellSize));
+        List<CombatUnit> bucket = buckets.get(cell);
+        if (bucket != null) {
+            for (int i = 0; i < bucket.size(); i++) {
+                if (bucket.get(i) == unit) {
+                    bucketVersions.put(cell, version + 1);
+                    bucket.set(i, bucket.get(bucket.size() - 1));
+                    bucket.remove(bucket.size() - 1);
+                    break;
+                }
+            }
+            if (bucket.isEmpty()) {
+                buckets.remove(cell);
+            }
+        }
+        long positionKey = key(position.getX(), position.getY());
+        if (occupants.remove(positionKey, unit) && bucket != null) {
+            // 同格仍有其他单位时由其接替占据
+            for (CombatUnit other : bucket) {
+                if (position.equals(other.getPosition())) {
+                    occupants.put(positionKey, other);
+                    break;
+                }
+            }
+        }
+    }
+
+    private static boolean isOnBoard(Position position) {
+        return position != null && position.getX() >= 0 && position.getY() >= 0;
+    }
+
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,132 @@
+package combat.model;
+
+import model.EnemyBatch;
+import model.Unit;
+import util.LruCache;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 带记忆化的攻防计算器
+ * 以 calculateCombat 的全部7个输入为键缓存 CombatResult（不可变，可安全共享），
+ * 战役中的单位大多来自少数模板，相同的攻防组合会反复出现。
+ * 键按 BigDecimal.equals 比较（区分小数位数），因此命中时返回值与直接计算逐位一致。
+ */
+public class CachingCombatCalculator implements CombatCalculator {
+    private static final int DEFAULT_MAX_ENTRIES = 4096;
+
+    private final CombatCalculator delegate;
+    private final LruCache<InputKey, CombatResult> cache;
+
+    public CachingCombatCalculator() {
+        this(CombatCalculator.DEFENSE_FIRST, DEFAULT_MAX_ENTRIES);
+    }
+
+    public CachingCombatCalculator(CombatCalculator delegate, int maxEntries) {
+        this.delegate = delegate;
+        this.cache = new LruCache<>(maxEntries);
+    }
+
+    @Override
+    public CombatResult calculateCombat(BigDecimal attackPower,
+                                        BigDecimal defense,
+                                        BigDecimal penetration,
+                                        BigDecimal resistance,
+                                        BigDecimal damageMultiplier,
+                                        BigDecimal extraPenetration,
+                                        BigDecimal extraDefense) {
+        InputKey key = new InputKey(attackPower, defense, penetration, resistance,
+                damageMultiplier, extraPenetration, extraDefense);
+        return cache.computeIfAbsent(key, k -> delegate.calculateCombat(attackPower, defense, penetration,
+                resistance, damageMultiplier, extraPenetration, extraDefense));
+    }
+
+    // ==================== 预热 ====================
+
+    /**
+     * 以双方满防御状态预先计算所有攻击者对防御者的组合
+     * 只覆盖首次命中；后续命中的防御力已下降，会按需计算并缓存
+     *
+     * @return 新增的缓存条目数
+     */
+    public int prewarm(Collection<CombatUnit> attackers, Collection<CombatUnit> defenders) {
+        int before = cache.size();
+        for (CombatUnit attacker : attackers) {
+            for (CombatUnit defender : defenders) {
+                InputKey key = new InputKey(attacker.getAttack(), defender.getMaxDefense(),
+                        attacker.getArmorPenetration(), defender.getResistance(),
+                        attacker.getDamageMultiplier(), attacker.getExtraPenetration(), defender.getExtraDefense());
+                if (!cache.containsKey(key)) {
+                    cache.put(key, delegate.calculateCombat(key.values[0], key.values[1], key.values[2],
+                            key.values[3], key.values[4], key.values[5], key.values[6]));
+                }
+            }
+        }
+        return Math.max(0, cache.size() - before);
+    }
+
+    /**
+     * 按敌军批次名单预热：队伍与敌军模板双向的攻防组合
+     *
+     * @param enemyFactory 将批次中的 Unit 转换为战斗单位模板（同一模板只计算一次）
+     */
+    public int prewarm(Collection<CombatUnit> party, EnemyBatch batch, Function<Unit, CombatUnit> enemyFactory) {
+        List<CombatUnit> enemies = new ArrayList<>();
+        for (Unit enemy : batch.getEnemies()) {
+            if (enemy.getCount() > 0) {
+                enemies.add(enemyFactory.apply(enemy));
+            }
+        }
+        return prewarm(party, enemies) + prewarm(enemies, party);
+    }
+
+    // ==================== 统计 ====================
+
+    public long getHitCount() { return cache.getHitCount(); }
+    public long getMissCount() { return cache.getMissCount(); }
+    public long getEvictionCount() { return cache.getEvictionCount(); }
+    public double getHitRate() { return cache.getHitRate(); }
+    public int size() { return cache.size(); }
+    public int getMaxEntries() { return cache.getCapacity(); }
+
+    public void clear() {
+        cache.clear();
+        cache.resetStats();
+    }
+
+    @Override
+    public String toString() {
+        return "攻防计算" + cache;
+    }
+
+    /**
+     * 缓存键：calculateCombat 的完整输入
+     */
+    private static final class InputKey {
+        private final BigDecimal[] values;
+        private final int hash;
+
+        InputKey(BigDecimal... values) {
+            this.values = values;
+            this.hash = Arrays.hashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof InputKey)) return false;
+            InputKey other = (InputKey) o;
+            return hash == other.hash && Arrays.equals(values, other.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
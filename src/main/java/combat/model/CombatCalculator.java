@@ -0,0 +1,28 @@
+package combat.model;
+
+import java.math.BigDecimal;
+
+/**
+ * 攻防计算策略接口
+ * 每场战斗可以选择使用 BigDecimal 精确实现或定点数快速实现，两者结果完全一致
+ */
+@FunctionalInterface
+public interface CombatCalculator {
+
+    /** BigDecimal 实现（默认） */
+    CombatCalculator DEFENSE_FIRST = DefenseFirstCombatCalculator::calculateCombat;
+
+    /** 定点数实现，适用于大规模战斗 */
+    CombatCalculator FIXED_POINT = FixedPointCombatCalculator::calculateCombat;
+
+    /**
+     * 计算攻防结果，参数含义与 {@link DefenseFirstCombatCalculator#calculateCombat} 相同
+     */
+    CombatResult calculateCombat(BigDecimal attackPower,
+                                 BigDecimal defense,
+                                 BigDecimal penetration,
+                                 BigDecimal resistance,
+                                 BigDecimal damageMultiplier,
+                                 BigDecimal extraPenetration,
+                                 BigDecimal extraDefense);
+}
@@ -0,0 +1,22 @@
+package combat.model;
+
+public enum CombatEventType {
+    DAMAGE("伤害"),
+    RETALIATION("反击"),
+    BREACH("击穿"),
+    KILL("消灭"),
+    HEAL("治疗"),
+    STATUS("状态变化"),
+    EFFECT("物资效果"),
+    OUT_OF_RANGE("射程外");
+
+    private final String description;
+
+    CombatEventType(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
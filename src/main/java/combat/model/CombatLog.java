@@ -0,0 +1,419 @@
+package combat.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 结构化战斗事件日志
+ * 结算时只追加类型化的事件（伤害、击穿、消灭、反击等），不做任何字符串格式化；
+ * 需要展示时再通过 {@link #render()} 或 {@link #lines(int, int)} 按需生成文字，
+ * 也可以通过 {@link #toBytes()} 编码为紧凑的二进制形式保存。
+ *
+ * 数值约定：伤害/反击事件的 value1 为防御伤害（百万分位），value2 为生命伤害（百分位）；
+ * 治疗事件的 value2 为恢复量（百分位）；状态事件的 value1 为 CombatStatus 序号；
+ * 物资效果事件的 value1 为 ResourceType 序号。
+ */
+public class CombatLog {
+    private static final int MAGIC = 0x434C4F47; // "CLOG"
+    private static final byte FORMAT_VERSION = 1;
+    private static final int DEFAULT_CAPACITY = 32;
+
+    private static final CombatEventType[] EVENT_TYPES = CombatEventType.values();
+    private static final CombatStatus[] STATUSES = CombatStatus.values();
+    private static final ResourceType[] RESOURCE_TYPES = ResourceType.values();
+
+    private byte[] types;
+    private String[] sources;
+    private String[] targets;
+    private long[] values1;
+    private long[] values2;
+    private int size;
+
+    public CombatLog() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public CombatLog(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        types = new byte[capacity];
+        sources = new String[capacity];
+        targets = new String[capacity];
+        values1 = new long[capacity];
+        values2 = new long[capacity];
+    }
+
+    // ==================== 记录事件 ====================
+
+    /**
+     * 追加一条原始事件，返回事件下标
+     */
+    public int append(CombatEventType type, String source, String target, long value1, long value2) {
+        if (size == types.length) {
+            int newCapacity = size + (size >> 1) + 1;
+            types = Arrays.copyOf(types, newCapacity);
+            sources = Arrays.copyOf(sources, newCapacity);
+            targets = Arrays.copyOf(targets, newCapacity);
+            values1 = Arrays.copyOf(values1, newCapacity);
+            values2 = Arrays.copyOf(values2, newCapacity);
+        }
+        types[size] = (byte) type.ordinal();
+        sources[size] = source;
+        targets[size] = target;
+        values1[size] = value1;
+        values2[size] = value2;
+        return size++;
+    }
+
+    /**
+     * 记录一次伤害结算，并根据结果追加击穿、消灭事件
+     */
+    public void recordDamage(CombatUnit source, CombatUnit target, CombatUnit.DamageResult result) {
+        recordDamage(CombatEventType.DAMAGE, source, target, result);
+    }
+
+    /**
+     * 记录一次反击伤害结算
+     */
+    public void recordRetaliation(CombatUnit retaliator, CombatUnit target, CombatUnit.DamageResult result) {
+        recordDamage(CombatEventType.RETALIATION, retaliator, target, result);
+    }
+
+    private void recordDamage(CombatEventType type, CombatUnit source, CombatUnit target,
+                              CombatUnit.DamageResult result) {
+        append(type, nameOf(source), target.getName(),
+                scaled(result.getDefenseDamage(), 6), scaled(result.getHealthDamage(), 2));
+        if (result.isDefenseBreached()) {
+            append(CombatEventType.BREACH, nameOf(source), target.getName(), 0, 0);
+        }
+        if (result.isTargetKilled()) {
+            append(CombatEventType.KILL, nameOf(source), target.getName(), 0, 0);
+        }
+    }
+
+    /**
+     * 记录只影响生命值的伤害（简单伤害公式），source 为 null 表示来自物资等非单位来源
+     */
+    public void recordHealthDamage(CombatUnit source, CombatUnit target, BigDecimal damage) {
+        append(CombatEventType.DAMAGE, nameOf(source), target.getName(), 0, scaled(damage, 2));
+    }
+
+    public void recordKill(CombatUnit source, CombatUnit target) {
+        append(CombatEventType.KILL, nameOf(source), target.getName(), 0, 0);
+    }
+
+    public void recordHeal(CombatUnit source, CombatUnit target, BigDecimal amount) {
+        append(CombatEventType.HEAL, nameOf(source), target.getName(), 0, scaled(amount, 2));
+    }
+
+    public void recordStatus(CombatUnit source, CombatUnit target, CombatStatus status) {
+        append(CombatEventType.STATUS, nameOf(source), target.getName(), status.ordinal(), 0);
+    }
+
+    public void recordEffect(CombatUnit source, CombatUnit target, ResourceType resourceType) {
+        append(CombatEventType.EFFECT, nameOf(source), target.getName(), resourceType.ordinal(), 0);
+    }
+
+    /**
+     * 记录带反击的完整战斗结果
+     */
+    public void recordRetaliationResult(CombatUnit attacker, CombatUnit defender,
+                                        RetaliationCombatCalculator.RetaliationResult result) {
+        if (!result.isInRange()) {
+            append(CombatEventType.OUT_OF_RANGE, attacker.getName(), defender.getName(), 0, 0);
+            return;
+        }
+        recordCombatResult(CombatEventType.DAMAGE, attacker, defender, result.getAttackerDamage());
+        if (result.hasRetaliation()) {
+            recordCombatResult(CombatEventType.RETALIATION, defender, attacker, result.getRetaliationDamage());
+        }
+    }
+
+    private void recordCombatResult(CombatEventType type, CombatUnit source, CombatUnit target, CombatResult result) {
+        append(type, source.getName(), target.getName(),
+                scaled(result.getDefenseDamage(), 6), scaled(result.getHealthDamage(), 2));
+    }
+
+    /**
+     * 转为定点数，超出精度的部分按 HALF_UP 舍入（仅影响展示）
+     */
+    private static long scaled(BigDecimal value, int scale) {
+        return value.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    private static String nameOf(CombatUnit unit) {
+        return unit != null ? unit.getName() : null;
+    }
+
+    // ==================== 读取事件 ====================
+
+    public int size() { return size; }
+
+    /**
+     * 丢弃下标 newSize 及之后的事件，用于撤销到快照时回退日志
+     */
+    public void truncate(int newSize) {
+        if (newSize < 0 || newSize > size) {
+            throw new IndexOutOfBoundsException("日志长度 " + size + ", 截断到 " + newSize);
+        }
+        Arrays.fill(sources, newSize, size, null);
+        Arrays.fill(targets, newSize, size, null);
+        size = newSize;
+    }
+    public boolean isEmpty() { return size == 0; }
+    public CombatEventType getType(int index) { return EVENT_TYPES[types[index]]; }
+    public String getSourceName(int index) { return sources[index]; }
+    public String getTargetName(int index) { return targets[index]; }
+    public long getValue1(int index) { return values1[index]; }
+    public long getValue2(int index) { return values2[index]; }
+
+    /**
+     * 获取事件的不可变快照
+     */
+    public Entry get(int index) {
+        checkIndex(index);
+        return new Entry(getType(index), sources[index], targets[index], values1[index], values2[index]);
+    }
+
+    // ==================== 文字渲染 ====================
+
+    /**
+     * 渲染单条事件
+     */
+    public String render(int index) {
+        checkIndex(index);
+        String source = sources[index];
+        String target = targets[index];
+        switch (getType(index)) {
+            case DAMAGE:
+                if (source == null) {
+                    return String.format("%s 受到 %s 点伤害", target, totalDamage(index));
+                }
+                return String.format("%s 对 %s 造成 %s 点伤害", source, target, totalDamage(index));
+            case RETALIATION:
+                return String.format("%s 反击 %s 造成 %s 点伤害", source, target, totalDamage(index));
+            case BREACH:
+                return String.format("%s 的防御被击穿!", target);
+            case KILL:
+                return String.format("%s 被消灭!", target);
+            case HEAL:
+                return String.format("%s 恢复 %s 点生命值", target, BigDecimal.valueOf(values2[index], 2));
+            case STATUS:
+                CombatStatus status = STATUSES[(int) values1[index]];
+                if (status == CombatStatus.STUNNED) {
+                    return String.format("%s 被眩晕", target);
+                }
+                return String.format("%s 进入%s状态", target, status.getDescription());
+            case EFFECT:
+                return String.format("%s 受到 %s 效果", target, RESOURCE_TYPES[(int) values1[index]].getDescription());
+            case OUT_OF_RANGE:
+                return String.format("⚠️ %s 不在 %s 的射程范围内", target, source);
+            default:
+                return getType(index).getDescription();
+        }
+    }
+
+    /**
+     * 渲染全部事件，每行一条
+     */
+    public String render() {
+        return String.join("\n", lines(0, size));
+    }
+
+    /**
+     * 复制 [from, to) 区间的事件为一份独立的日志，之后原日志被截断或覆盖不影响副本
+     * 只复制结构化事件，不做字符串格式化
+     */
+    public CombatLog slice(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("无效的事件区间: [" + from + ", " + to + ")");
+        }
+        int length = to - from;
+        CombatLog copy = new CombatLog(length);
+        System.arraycopy(types, from, copy.types, 0, length);
+        System.arraycopy(sources, from, copy.sources, 0, length);
+        System.arraycopy(targets, from, copy.targets, 0, length);
+        System.arraycopy(values1, from, copy.values1, 0, length);
+        System.arraycopy(values2, from, copy.values2, 0, length);
+        copy.size = length;
+        return copy;
+    }
+
+    /**
+     * 获取 [from, to) 区间事件的文字视图，列表元素在读取时才格式化
+     * 视图直接读取本日志，日志被截断（撤销）后不再有效；需要长期保存时先用 {@link #slice(int, int)} 复制
+     */
+    public List<String> lines(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("无效的事件区间: [" + from + ", " + to + ")");
+        }
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                if (index < 0 || index >= to - from) {
+                    throw new IndexOutOfBoundsException("事件下标越界: " + index);
+                }
+                return render(from + index);
+            }
+
+            @Override
+            public int size() {
+                return to - from;
+            }
+        };
+    }
+
+    private BigDecimal totalDamage(int index) {
+        long total = values1[index] + values2[index] * 10_000;
+        if (total % 10_000 == 0) {
+            return BigDecimal.valueOf(total / 10_000, 2);
+        }
+        return BigDecimal.valueOf(total, 6);
+    }
+
+    // ==================== 二进制编码 ====================
+
+    /**
+     * 编码为紧凑二进制：名称表去重，事件字段使用变长整数
+     */
+    public byte[] toBytes() {
+        Map<String, Integer> nameIndex = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            intern(sources[i], nameIndex, names);
+            intern(targets[i], nameIndex, names);
+        }
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(16 + size * 8);
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.writeInt(MAGIC);
+            out.writeByte(FORMAT_VERSION);
+            writeVarLong(out, names.size());
+            for (String name : names) {
+                out.writeUTF(name);
+            }
+            writeVarLong(out, size);
+            for (int i = 0; i < size; i++) {
+                out.writeByte(types[i]);
+                writeVarLong(out, sources[i] == null ? 0 : nameIndex.get(sources[i]) + 1);
+                writeVarLong(out, targets[i] == null ? 0 : nameIndex.get(targets[i]) + 1);
+                writeVarLong(out, zigZag(values1[i]));
+                writeVarLong(out, zigZag(values2[i]));
+            }
+            out.flush();
+            return buffer.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("战斗日志编码失败", e);
+        }
+    }
+
+    /**
+     * 从二进制形式还原日志
+     */
+    public static CombatLog fromBytes(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            if (in.readInt() != MAGIC) {
+                throw new IllegalArgumentException("不是有效的战斗日志数据");
+            }
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("不支持的战斗日志版本: " + version);
+            }
+            int nameCount = (int) readVarLong(in);
+            String[] names = new String[nameCount];
+            for (int i = 0; i < nameCount; i++) {
+                names[i] = in.readUTF();
+            }
+            int count = (int) readVarLong(in);
+            CombatLog log = new CombatLog(count);
+            for (int i = 0; i < count; i++) {
+                CombatEventType type = EVENT_TYPES[in.readByte()];
+                int source = (int) readVarLong(in);
+                int target = (int) readVarLong(in);
+                long value1 = unZigZag(readVarLong(in));
+                long value2 = unZigZag(readVarLong(in));
+                log.append(type, source == 0 ? null : names[source - 1],
+                        target == 0 ? null : names[target - 1], value1, value2);
+            }
+            return log;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("战斗日志数据已损坏", e);
+        }
+    }
+
+    private static void intern(String name, Map<String, Integer> nameIndex, List<String> names) {
+        if (name != null && !nameIndex.containsKey(name)) {
+            nameIndex.put(name, names.size());
+            names.add(name);
+        }
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("变长整数格式错误");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("事件下标越界: " + index);
+        }
+    }
+
+    /**
+     * 单条战斗事件
+     */
+    public static class Entry {
+        private final CombatEventType type;
+        private final String sourceName;
+        private final String targetName;
+        private final long value1;
+        private final long value2;
+
+        private Entry(CombatEventType type, String sourceName, String targetName, long value1, long value2) {
+            this.type = type;
+            this.sourceName = sourceName;
+            this.targetName = targetName;
+            this.value1 = value1;
+            this.value2 = value2;
+        }
+
+        public CombatEventType getType() { return type; }
+        public String getSourceName() { return sourceName; }
+        public String getTargetName() { return targetName; }
+        public long getValue1() { return value1; }
+        public long getValue2() { return value2; }
+    }
+}
@@ -22,6 +22,10 @@ public class CombatResource {
     private int currentCooldown;
     private boolean consumable;
 
+    // 快照日志：每个日志纪元内第一次修改前记录一次旧状态
+    private BattleJournal journal;
+    private long journalEpoch = -1;
+
     public CombatResource(String name, ResourceType type, TargetingType targetingType,
                           int quantity, BigDecimal effectValue) {
         this.id = java.util.UUID.randomUUID().toString();
@@ -47,6 +51,7 @@ public class CombatResource {
         if (!isAvailable()) {
             return false;
         }
+        beforeChange();
         if (consumable) {
             quantity--;
         }
@@ -58,6 +63,7 @@ public class CombatResource {
 
     public void updateCooldown() {
         if (currentCooldown > 0) {
+            beforeChange();
             currentCooldown--;
         }
     }
@@ -81,35 +87,112 @@ public class CombatResource {
     // Getter和Setter
     public String getId() { return id; }
     public String getName() { return name; }
-    public void setName(String name) { this.name = name; }
+    public void setName(String name) { beforeChange(); this.name = name; }
     public String getDescription() { return description; }
-    public void setDescription(String description) { this.description = description; }
+    public void setDescription(String description) { beforeChange(); this.description = description; }
     public ResourceType getType() { return type; }
-    public void setType(ResourceType type) { this.type = type; }
+    public void setType(ResourceType type) { beforeChange(); this.type = type; }
     public TargetingType getTargetingType() { return targetingType; }
-    public void setTargetingType(TargetingType targetingType) { this.targetingType = targetingType; }
+    public void setTargetingType(TargetingType targetingType) { beforeChange(); this.targetingType = targetingType; }
     public int getQuantity() { return quantity; }
-    public void setQuantity(int quantity) { this.quantity = quantity; }
+    public void setQuantity(int quantity) { beforeChange(); this.quantity = quantity; }
     public BigDecimal getEffectValue() { return effectValue; }
     public void setEffectValue(BigDecimal effectValue) {
+        beforeChange();
         this.effectValue = effectValue.setScale(2, RoundingMode.HALF_UP);
     }
     public BigDecimal getPenetrationBonus() { return penetrationBonus; }
     public void setPenetrationBonus(BigDecimal penetrationBonus) {
+        beforeChange();
         this.penetrationBonus = penetrationBonus.setScale(2, RoundingMode.HALF_UP);
     }
     public BigDecimal getControlEffect() { return controlEffect; }
     public void setControlEffect(BigDecimal controlEffect) {
+        beforeChange();
         this.controlEffect = controlEffect.setScale(2, RoundingMode.HALF_UP);
     }
     public int getAreaOfEffect() { return areaOfEffect; }
-    public void setAreaOfEffect(int areaOfEffect) { this.areaOfEffect = areaOfEffect; }
+    public void setAreaOfEffect(int areaOfEffect) { beforeChange(); this.areaOfEffect = areaOfEffect; }
     public int getMaxTargets() { return maxTargets; }
-    public void setMaxTargets(int maxTargets) { this.maxTargets = maxTargets; }
+    public void setMaxTargets(int maxTargets) { beforeChange(); this.maxTargets = maxTargets; }
     public int getCooldown() { return cooldown; }
-    public void setCooldown(int cooldown) { this.cooldown = cooldown; }
+    public void setCooldown(int cooldown) { beforeChange(); this.cooldown = cooldown; }
     public int getCurrentCooldown() { return currentCooldown; }
-    public void setCurrentCooldown(int currentCooldown) { this.currentCooldown = currentCooldown; }
+    public void setCurrentCooldown(int currentCooldown) { beforeChange(); this.currentCooldown = currentCooldown; }
     public boolean isConsumable() { return consumable; }
-    public void setConsumable(boolean consumable) { this.consumable = consumable; }
-}
\ No newline at end of file
+    public void setConsumable(boolean consumable) { beforeChange(); this.consumable = consumable; }
+
+    // ==================== 快照日志 ====================
+
+    void attachJournal(BattleJournal journal) {
+        this.journal = journal;
+        this.journalEpoch = -1;
+    }
+
+    void detachJournal(BattleJournal journal) {
+        if (this.journal == journal) {
+            this.journal = null;
+        }
+    }
+
+    private void beforeChange() {
+        if (journal != null && journal.isRecording() && journalEpoch != journal.getEpoch()) {
+            journalEpoch = journal.getEpoch();
+            journal.record(new Memento(this));
+        }
+    }
+
+    /**
+     * 物资状态的浅拷贝
+     */
+    private static final class Memento implements BattleJournal.Entry {
+        private final CombatResource resource;
+        private final String name;
+        private final String description;
+        private final ResourceType type;
+        private final TargetingType targetingType;
+        private final int quantity;
+        private final BigDecimal effectValue;
+        private final BigDecimal penetrationBonus;
+        private final BigDecimal controlEffect;
+        private final int areaOfEffect;
+        private final int maxTargets;
+        private final int cooldown;
+        private final int currentCooldown;
+        private final boolean consumable;
+
+        private Memento(CombatResource resource) {
+            this.resource = resource;
+            this.name = resource.name;
+            this.description = resource.description;
+            this.type = resource.type;
+            this.targetingType = resource.targetingType;
+            this.quantity = resource.quantity;
+            this.effectValue = resource.effectValue;
+            this.penetrationBonus = resource.penetrationBonus;
+            this.controlEffect = resource.controlEffect;
+            this.areaOfEffect = resource.areaOfEffect;
+            this.maxTargets = resource.maxTargets;
+            this.cooldown = resource.cooldown;
+            this.currentCooldown = resource.currentCooldown;
+            this.consumable = resource.consumable;
+        }
+
+        @Override
+        public void undo() {
+            resource.name = name;
+            resource.description = description;
+            resource.type = type;
+            resource.targetingType = targetingType;
+            resource.quantity = quantity;
+            resource.effectValue = effectValue;
+            resource.penetrationBonus = penetrationBonus;
+            resource.controlEffect = controlEffect;
+            resource.areaOfEffect = areaOfEffect;
+            resource.maxTargets = maxTargets;
+            resource.cooldown = cooldown;
+            resource.currentCooldown = currentCooldown;
+            resource.consumable = consumable;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package combat.model;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 
@@ -32,6 +34,13 @@ public class CombatUnit {
     private BigDecimal extraPenetration;
     private BigDecimal extraDefense;
 
+    // 监听器（按需创建）
+    private List<CombatUnitListener> listeners;
+
+    // 快照日志：每个日志纪元内第一次修改前记录一次旧状态
+    private BattleJournal journal;
+    private long journalEpoch = -1;
+
     public CombatUnit(String name, String type, BigDecimal attack, BigDecimal defense,
                       BigDecimal health, BigDecimal armorPenetration, BigDecimal resistance,
                       int movement, BigDecimal control, String ownerId) {
@@ -88,8 +97,16 @@ public class CombatUnit {
      * 执行带反击的攻击
      */
     public RetaliationCombatCalculator.RetaliationResult attackWithRetaliation(CombatUnit target) {
+        return attackWithRetaliation(target, CombatCalculator.DEFENSE_FIRST);
+    }
+
+    /**
+     * 使用指定的攻防计算器执行带反击的攻击
+     */
+    public RetaliationCombatCalculator.RetaliationResult attackWithRetaliation(CombatUnit target,
+                                                                              CombatCalculator calculator) {
         RetaliationCombatCalculator.RetaliationResult result =
-                RetaliationCombatCalculator.calculateCombat(this, target);
+                RetaliationCombatCalculator.calculateCombat(this, target, calculator);
 
         if (result.isInRange()) {
             // 应用攻击者的伤害
@@ -108,7 +125,14 @@ public class CombatUnit {
      * 接收伤害攻击
      */
     public DamageResult takeDamage(CombatUnit attacker) {
-        CombatResult combatResult = DefenseFirstCombatCalculator.calculateCombat(
+        return takeDamage(attacker, CombatCalculator.DEFENSE_FIRST);
+    }
+
+    /**
+     * 使用指定的攻防计算器接收伤害攻击
+     */
+    public DamageResult takeDamage(CombatUnit attacker, CombatCalculator calculator) {
+        CombatResult combatResult = calculator.calculateCombat(
                 attacker.getAttack(),
                 this.currentDefense,
                 attacker.getArmorPenetration(),
@@ -124,7 +148,8 @@ public class CombatUnit {
     /**
      * 应用战斗结果到单位
      */
-    private DamageResult applyDamageResult(CombatResult combatResult) {
+    public DamageResult applyDamageResult(CombatResult combatResult) {
+        beforeChange();
         BigDecimal oldDefense = this.currentDefense;
         BigDecimal oldHealth = this.currentHealth;
 
@@ -135,6 +160,7 @@ public class CombatUnit {
         this.currentHealth = this.currentHealth.subtract(combatResult.getHealthDamage())
                 .max(BigDecimal.ZERO);
         BigDecimal healthDamage = oldHealth.subtract(this.currentHealth);
+        healthChanged(oldHealth);
 
         boolean killed = !this.isAlive();
         boolean defenseBreached = this.currentDefense.compareTo(BigDecimal.ZERO) == 0;
@@ -146,6 +172,7 @@ public class CombatUnit {
      * 修复防御力
      */
     public void repairDefense(BigDecimal repairAmount) {
+        beforeChange();
         this.currentDefense = this.currentDefense.add(repairAmount)
                 .min(this.maxDefense)
                 .max(BigDecimal.ZERO);
@@ -155,6 +182,7 @@ public class CombatUnit {
      * 完全修复防御力
      */
     public void fullyRepairDefense() {
+        beforeChange();
         this.currentDefense = this.maxDefense;
     }
 
@@ -183,7 +211,38 @@ public class CombatUnit {
         return this.currentDefense.compareTo(BigDecimal.ZERO) == 0;
     }
 
+    /**
+     * 承受一次普通攻击：AttackAction 与齐射共用的伤害规则，
+     * 按攻击者的攻击力和护甲穿透使用简单伤害公式 {@link #takeDamage(BigDecimal, BigDecimal)}，只扣除生命
+     */
+    public DamageResult takeAttack(CombatUnit attacker) {
+        return takeAttackDamage(calculateAttackDamage(attacker));
+    }
+
+    /**
+     * 计算 attacker 的一次普通攻击对本单位造成的伤害，不修改任何状态
+     * 只读取攻防属性，可以在没有并发修改时由多个线程同时调用
+     */
+    public BigDecimal calculateAttackDamage(CombatUnit attacker) {
+        return calculateDamage(attacker.getAttack(), attacker.getArmorPenetration());
+    }
+
+    /**
+     * 扣除 {@link #calculateAttackDamage(CombatUnit)} 算出的伤害，返回与 takeAttack 相同的结果
+     */
+    public DamageResult takeAttackDamage(BigDecimal damage) {
+        BigDecimal dealt = applyHealthDamage(damage);
+        return new DamageResult(null, BigDecimal.ZERO, dealt, !isAlive(), false);
+    }
+
     public BigDecimal takeDamage(BigDecimal damage, BigDecimal penetration) {
+        return applyHealthDamage(calculateDamage(damage, penetration));
+    }
+
+    /**
+     * 简单伤害公式：(伤害 - 防御 * (1 - 穿透)) * (1 - 抗性)，不修改任何状态
+     */
+    public BigDecimal calculateDamage(BigDecimal damage, BigDecimal penetration) {
         BigDecimal effectiveDefense = this.defense.multiply(
                 BigDecimal.ONE.subtract(penetration.min(BigDecimal.ONE))
         );
@@ -191,14 +250,22 @@ public class CombatUnit {
         BigDecimal finalDamage = baseDamage.multiply(
                 BigDecimal.ONE.subtract(this.resistance.min(BigDecimal.ONE))
         );
-        finalDamage = setPrecision(finalDamage);
+        return setPrecision(finalDamage);
+    }
+
+    private BigDecimal applyHealthDamage(BigDecimal finalDamage) {
+        beforeChange();
+        BigDecimal oldHealth = this.currentHealth;
         this.currentHealth = this.currentHealth.subtract(finalDamage).max(BigDecimal.ZERO);
+        healthChanged(oldHealth);
         return finalDamage;
     }
 
     public BigDecimal receiveHeal(BigDecimal healAmount) {
+        beforeChange();
         BigDecimal oldHealth = this.currentHealth;
         this.currentHealth = this.currentHealth.add(healAmount).min(this.maxHealth);
+        healthChanged(oldHealth);
         BigDecimal actualHeal = this.currentHealth.subtract(oldHealth);
         return setPrecision(actualHeal);
     }
@@ -218,8 +285,11 @@ public class CombatUnit {
     }
 
     public void resetTurnState() {
-        this.hasMovedThisTurn = false;
-        this.hasActedThisTurn = false;
+        if (hasMovedThisTurn || hasActedThisTurn) {
+            beforeChange();
+            this.hasMovedThisTurn = false;
+            this.hasActedThisTurn = false;
+        }
     }
 
     public boolean canMove() {
@@ -233,64 +303,236 @@ public class CombatUnit {
     // Getter和Setter方法
     public String getId() { return id; }
     public String getName() { return name; }
-    public void setName(String name) { this.name = name; }
+    public void setName(String name) { beforeChange(); this.name = name; }
     public String getType() { return type; }
-    public void setType(String type) { this.type = type; }
+    public void setType(String type) { beforeChange(); this.type = type; }
     public BigDecimal getAttack() { return attack; }
-    public void setAttack(BigDecimal attack) { this.attack = setPrecision(attack); }
-    public void setAttack(double attack) { this.attack = setPrecision(attack); }
+    public void setAttack(BigDecimal attack) { beforeChange(); this.attack = setPrecision(attack); }
+    public void setAttack(double attack) { beforeChange(); this.attack = setPrecision(attack); }
     public BigDecimal getDefense() { return defense; }
-    public void setDefense(BigDecimal defense) { this.defense = setPrecision(defense); }
-    public void setDefense(double defense) { this.defense = setPrecision(defense); }
+    public void setDefense(BigDecimal defense) { beforeChange(); this.defense = setPrecision(defense); }
+    public void setDefense(double defense) { beforeChange(); this.defense = setPrecision(defense); }
     public BigDecimal getMaxHealth() { return maxHealth; }
     public void setMaxHealth(BigDecimal maxHealth) {
+        beforeChange();
         this.maxHealth = setPrecision(maxHealth);
+        BigDecimal oldHealth = this.currentHealth;
         this.currentHealth = this.currentHealth.min(this.maxHealth);
+        healthChanged(oldHealth);
     }
     public BigDecimal getCurrentHealth() { return currentHealth; }
+    public void setCurrentHealth(BigDecimal currentHealth) {
+        beforeChange();
+        BigDecimal oldHealth = this.currentHealth;
+        this.currentHealth = setPrecision(currentHealth).min(this.maxHealth).max(BigDecimal.ZERO);
+        healthChanged(oldHealth);
+    }
     public BigDecimal getArmorPenetration() { return armorPenetration; }
     public void setArmorPenetration(BigDecimal armorPenetration) {
+        beforeChange();
         this.armorPenetration = setPrecision(armorPenetration);
     }
     public BigDecimal getResistance() { return resistance; }
     public void setResistance(BigDecimal resistance) {
+        beforeChange();
         this.resistance = setPrecision(resistance);
     }
     public int getMovement() { return movement; }
-    public void setMovement(int movement) { this.movement = movement; }
+    public void setMovement(int movement) { beforeChange(); this.movement = movement; }
     public BigDecimal getControl() { return control; }
-    public void setControl(BigDecimal control) { this.control = setPrecision(control); }
+    public void setControl(BigDecimal control) { beforeChange(); this.control = setPrecision(control); }
     public String getOwnerId() { return ownerId; }
-    public void setOwnerId(String ownerId) { this.ownerId = ownerId; }
+    public void setOwnerId(String ownerId) { beforeChange(); this.ownerId = ownerId; }
     public Position getPosition() { return position; }
-    public void setPosition(Position position) { this.position = position; }
+    /**
+     * 设置位置并通知监听器
+     * 注意：直接修改 Position 对象的坐标不会通知监听器，应始终通过本方法移动单位
+     */
+    public void setPosition(Position position) {
+        beforeChange();
+        movePosition(position);
+    }
+
+    /**
+     * 生命变化后检查存活状态是否改变，改变时通知监听器（空间索引据此移除或恢复单位）
+     */
+    private void healthChanged(BigDecimal oldHealth) {
+        boolean alive = isAlive();
+        if (listeners != null && alive != (oldHealth.compareTo(BigDecimal.ZERO) > 0)) {
+            for (CombatUnitListener listener : listeners) {
+                listener.onAliveChanged(this, alive);
+            }
+        }
+    }
+
+    private void movePosition(Position position) {
+        Position oldPosition = this.position;
+        this.position = position;
+        if (listeners != null) {
+            for (CombatUnitListener listener : listeners) {
+                listener.onPositionChanged(this, oldPosition, position);
+            }
+        }
+    }
     public boolean isDeployed() { return isDeployed; }
-    public void setDeployed(boolean deployed) { isDeployed = deployed; }
+    public void setDeployed(boolean deployed) { beforeChange(); isDeployed = deployed; }
     public CombatStatus getStatus() { return status; }
-    public void setStatus(CombatStatus status) { this.status = status; }
+    public void setStatus(CombatStatus status) { beforeChange(); this.status = status; }
     public boolean hasMovedThisTurn() { return hasMovedThisTurn; }
-    public void setHasMovedThisTurn(boolean hasMovedThisTurn) { this.hasMovedThisTurn = hasMovedThisTurn; }
+    public void setHasMovedThisTurn(boolean hasMovedThisTurn) { beforeChange(); this.hasMovedThisTurn = hasMovedThisTurn; }
     public boolean hasActedThisTurn() { return hasActedThisTurn; }
-    public void setHasActedThisTurn(boolean hasActedThisTurn) { this.hasActedThisTurn = hasActedThisTurn; }
+    public void setHasActedThisTurn(boolean hasActedThisTurn) { beforeChange(); this.hasActedThisTurn = hasActedThisTurn; }
     public CombatRange getCombatRange() { return combatRange; }
-    public void setCombatRange(CombatRange combatRange) { this.combatRange = combatRange; }
+    public void setCombatRange(CombatRange combatRange) { beforeChange(); this.combatRange = combatRange; }
 
     // 新增Getter和Setter方法
     public BigDecimal getCurrentDefense() { return currentDefense; }
+    /**
+     * 直接设置当前防御力，不做精度调整（反击结算后的防御力可能带有6位小数）
+     */
+    public void setCurrentDefense(BigDecimal currentDefense) { beforeChange(); this.currentDefense = currentDefense; }
     public BigDecimal getMaxDefense() { return maxDefense; }
     public BigDecimal getDamageMultiplier() { return damageMultiplier; }
     public void setDamageMultiplier(BigDecimal damageMultiplier) {
+        beforeChange();
         this.damageMultiplier = damageMultiplier.setScale(2, RoundingMode.HALF_UP);
     }
     public BigDecimal getExtraPenetration() { return extraPenetration; }
     public void setExtraPenetration(BigDecimal extraPenetration) {
+        beforeChange();
         this.extraPenetration = extraPenetration.setScale(2, RoundingMode.HALF_UP);
     }
     public BigDecimal getExtraDefense() { return extraDefense; }
     public void setExtraDefense(BigDecimal extraDefense) {
+        beforeChange();
         this.extraDefense = extraDefense.setScale(2, RoundingMode.HALF_UP);
     }
 
+    public void addListener(CombatUnitListener listener) {
+        if (listeners == null) {
+            listeners = new ArrayList<>(2);
+        }
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    public void removeListener(CombatUnitListener listener) {
+        if (listeners != null) {
+            listeners.remove(listener);
+        }
+    }
+
+    // ==================== 快照日志 ====================
+
+    /**
+     * 由 BattleJournal.track 调用，此后每个日志纪元内第一次修改前记录旧状态
+     */
+    void attachJournal(BattleJournal journal) {
+        this.journal = journal;
+        this.journalEpoch = -1;
+    }
+
+    void detachJournal(BattleJournal journal) {
+        if (this.journal == journal) {
+            this.journal = null;
+        }
+    }
+
+    private void beforeChange() {
+        if (journal != null && journal.isRecording() && journalEpoch != journal.getEpoch()) {
+            journalEpoch = journal.getEpoch();
+            journal.record(new Memento(this));
+        }
+    }
+
+    /**
+     * 单位状态的浅拷贝：BigDecimal 不可变，直接共享引用，不做深拷贝
+     */
+    private static final class Memento implements BattleJournal.Entry {
+        private final CombatUnit unit;
+        private final String name;
+        private final String type;
+        private final BigDecimal attack;
+        private final BigDecimal defense;
+        private final BigDecimal maxHealth;
+        private final BigDecimal currentHealth;
+        private final BigDecimal armorPenetration;
+        private final BigDecimal resistance;
+        private final int movement;
+        private final BigDecimal control;
+        private final String ownerId;
+        private final int x;
+        private final int y;
+        private final boolean deployed;
+        private final CombatStatus status;
+        private final boolean hasMovedThisTurn;
+        private final boolean hasActedThisTurn;
+        private final CombatRange combatRange;
+        private final BigDecimal currentDefense;
+        private final BigDecimal damageMultiplier;
+        private final BigDecimal extraPenetration;
+        private final BigDecimal extraDefense;
+
+        private Memento(CombatUnit unit) {
+            this.unit = unit;
+            this.name = unit.name;
+            this.type = unit.type;
+            this.attack = unit.attack;
+            this.defense = unit.defense;
+            this.maxHealth = unit.maxHealth;
+            this.currentHealth = unit.currentHealth;
+            this.armorPenetration = unit.armorPenetration;
+            this.resistance = unit.resistance;
+            this.movement = unit.movement;
+            this.control = unit.control;
+            this.ownerId = unit.ownerId;
+            // Position 可以被原地修改，只保存坐标
+            this.x = unit.position.getX();
+            this.y = unit.position.getY();
+            this.deployed = unit.isDeployed;
+            this.status = unit.status;
+            this.hasMovedThisTurn = unit.hasMovedThisTurn;
+            this.hasActedThisTurn = unit.hasActedThisTurn;
+            this.combatRange = unit.combatRange;
+            this.currentDefense = unit.currentDefense;
+            this.damageMultiplier = unit.damageMultiplier;
+            this.extraPenetration = unit.extraPenetration;
+            this.extraDefense = unit.extraDefense;
+        }
+
+        @Override
+        public void undo() {
+            unit.name = name;
+            unit.type = type;
+            unit.attack = attack;
+            unit.defense = defense;
+            unit.maxHealth = maxHealth;
+            BigDecimal oldHealth = unit.currentHealth;
+            unit.currentHealth = currentHealth;
+            unit.armorPenetration = armorPenetration;
+            unit.resistance = resistance;
+            unit.movement = movement;
+            unit.control = control;
+            unit.ownerId = ownerId;
+            unit.isDeployed = deployed;
+            unit.status = status;
+            unit.hasMovedThisTurn = hasMovedThisTurn;
+            unit.hasActedThisTurn = hasActedThisTurn;
+            unit.combatRange = combatRange;
+            unit.currentDefense = currentDefense;
+            unit.damageMultiplier = damageMultiplier;
+            unit.extraPenetration = extraPenetration;
+            unit.extraDefense = extraDefense;
+            // 先同步存活状态再移动，空间索引按当前位置移除或恢复单位
+            unit.healthChanged(oldHealth);
+            if (unit.position.getX() != x || unit.position.getY() != y) {
+                // 通过监听器同步空间索引
+                unit.movePosition(new Position(x, y));
+            }
+        }
+    }
+
     @Override
     public String toString() {
         return String.format("%s [%s] 生命: %s/%s 防御: %s/%s 攻击: %s",
@@ -325,6 +567,7 @@ public class CombatUnit {
             this.defenseBreached = defenseBreached;
         }
 
+        /** 攻防计算结果；普通攻击（{@link #takeAttack}）不经过攻防计算器，为 null */
         public CombatResult getCombatResult() { return combatResult; }
         public BigDecimal getDefenseDamage() { return defenseDamage; }
         public BigDecimal getHealthDamage() { return healthDamage; }
@@ -333,7 +576,9 @@ public class CombatUnit {
 
         public String getDamageReport() {
             StringBuilder report = new StringBuilder();
-            report.append(combatResult.getCombatReport());
+            if (combatResult != null) {
+                report.append(combatResult.getCombatReport());
+            }
             report.append(String.format("防御损伤: %.2f\n", defenseDamage));
             report.append(String.format("生命损伤: %.2f\n", healthDamage));
             if (defenseBreached) {
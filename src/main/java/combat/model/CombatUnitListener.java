@@ -0,0 +1,19 @@
+package combat.model;
+
+/**
+ * 战斗单位状态变化监听器
+ * 用于让空间索引等外部结构随单位变化增量更新
+ */
+public interface CombatUnitListener {
+
+    /**
+     * 单位位置改变后调用
+     */
+    void onPositionChanged(CombatUnit unit, Position oldPosition, Position newPosition);
+
+    /**
+     * 单位阵亡（生命降为0）或被复活（撤销、治疗等使生命恢复）后调用
+     */
+    default void onAliveChanged(CombatUnit unit, boolean alive) {
+    }
+}
@@ -0,0 +1,217 @@
+package combat.model;
+
+import java.math.BigDecimal;
+
+/**
+ * 定点数攻防计算器
+ * 与 {@link DefenseFirstCombatCalculator} 使用完全相同的公式和 HALF_UP 舍入规则，
+ * 但全部中间量使用 long 定点数表示，避免每次命中分配十几个 BigDecimal 对象。
+ *
+ * 定点数单位约定：
+ * 攻击力、穿透、抗性、伤害倍率、额外穿透、额外防御、生命值伤害使用百分位（×100）；
+ * 防御力与防御伤害使用百万分位（×1000000），因为反击结算后的当前防御力会带有6位小数；
+ * 伤害系数使用万分位（×10000）。
+ */
+public class FixedPointCombatCalculator {
+
+    public static final long HUNDREDTHS = 100L;
+    public static final long TEN_THOUSANDTHS = 10_000L;
+    public static final long MILLIONTHS = 1_000_000L;
+
+    private static final int HUNDREDTHS_SCALE = 2;
+    private static final int MILLIONTHS_SCALE = 6;
+
+    // 系统常数（与 DefenseFirstCombatCalculator 保持一致）
+    private static final long MIN_DAMAGE_RATIO = 15L;                  // 1 - 最大减伤85% = 0.15（百分位）
+    private static final long MIN_DEFENSE_STRENGTH = 50L * 100_000_000L; // 最小防御强度50（1e-8单位）
+    private static final long MIN_DEFENSE_PERCENT = 5L;                 // 最小防御百分比5%（百分位）
+
+    /**
+     * 计算攻防结果（BigDecimal 接口）
+     * 参数含义与 {@link DefenseFirstCombatCalculator#calculateCombat} 相同，返回值逐位一致。
+     * 输入无法精确转换为定点数（小数位过多）或计算溢出时回退到 BigDecimal 实现。
+     */
+    public static CombatResult calculateCombat(BigDecimal attackPower,
+                                               BigDecimal defense,
+                                               BigDecimal penetration,
+                                               BigDecimal resistance,
+                                               BigDecimal damageMultiplier,
+                                               BigDecimal extraPenetration,
+                                               BigDecimal extraDefense) {
+        ScaledResult result = new ScaledResult();
+        try {
+            calculateScaled(
+                    toScaled(attackPower, HUNDREDTHS_SCALE),
+                    toScaled(defense, MILLIONTHS_SCALE),
+                    toScaled(penetration, HUNDREDTHS_SCALE),
+                    toScaled(resistance, HUNDREDTHS_SCALE),
+                    toScaled(damageMultiplier, HUNDREDTHS_SCALE),
+                    toScaled(extraPenetration, HUNDREDTHS_SCALE),
+                    toScaled(extraDefense, HUNDREDTHS_SCALE),
+                    result);
+        } catch (ArithmeticException e) {
+            // 超出定点数表示范围时交给 BigDecimal 实现，保证结果（包括异常）完全一致
+            return DefenseFirstCombatCalculator.calculateCombat(attackPower, defense, penetration,
+                    resistance, damageMultiplier, extraPenetration, extraDefense);
+        }
+        return result.toCombatResult();
+    }
+
+    /**
+     * 计算攻防结果（定点数接口）
+     * 结果写入调用方提供的 ScaledResult，便于在批量结算中复用同一个对象
+     *
+     * @param attackPower 攻击力（百分位）
+     * @param defense 防御力（百万分位）
+     * @param penetration 穿透力（百分位）
+     * @param resistance 抗性（百分位）
+     * @param damageMultiplier 伤害倍率（百分位）
+     * @param extraPenetration 额外计算穿透（百分位）
+     * @param extraDefense 额外计算防御（百分位）
+     * @param out 结果输出对象
+     * @throws ArithmeticException 中间结果溢出 long 或除数为零
+     */
+    public static void calculateScaled(long attackPower, long defense, long penetration, long resistance,
+                                       long damageMultiplier, long extraPenetration, long extraDefense,
+                                       ScaledResult out) {
+        // 1. 穿透强度 = 攻击力 * (1 + 穿透力) * (1 - 抗性) * 伤害倍率 * (1 - 抗性)，保留2位
+        long oneMinusResistance = HUNDREDTHS - resistance;
+        long equivalentAttack = Math.multiplyExact(
+                Math.multiplyExact(attackPower, HUNDREDTHS + penetration), oneMinusResistance);   // 1e-6
+        long adjustedMultiplier = Math.multiplyExact(damageMultiplier, oneMinusResistance);      // 1e-4
+        long penetrationStrength = divideHalfUp(
+                Math.multiplyExact(equivalentAttack, adjustedMultiplier), 100_000_000L);          // 1e-2
+
+        // 2. 防御强度 = max(防御力 * (1 + 额外防御), max(防御力 * 5%, 50))，保留2位
+        long baseDefenseStrength = Math.multiplyExact(defense, HUNDREDTHS + extraDefense);       // 1e-8
+        long minDefense = Math.max(Math.multiplyExact(defense, MIN_DEFENSE_PERCENT), MIN_DEFENSE_STRENGTH);
+        long defenseStrength = divideHalfUp(Math.max(baseDefenseStrength, minDefense), MILLIONTHS); // 1e-2
+
+        // 3. 伤害系数 = 穿透强度 * (1 + 额外穿透) / (穿透强度 + 防御强度)，保留4位并限制在[0, 1]
+        long damageFactor;
+        int damageFactorScale;
+        if (defenseStrength == 0) {
+            damageFactor = 1;
+            damageFactorScale = 0;
+        } else {
+            long numerator = Math.multiplyExact(penetrationStrength, HUNDREDTHS + extraPenetration); // 1e-4
+            long denominator = Math.addExact(penetrationStrength, defenseStrength);                  // 1e-2
+            long factor = divideHalfUp(Math.multiplyExact(numerator, HUNDREDTHS), denominator);     // 1e-4
+            if (factor > TEN_THOUSANDTHS) {
+                damageFactor = 1;
+                damageFactorScale = 0;
+            } else if (factor < 0) {
+                damageFactor = 0;
+                damageFactorScale = 0;
+            } else {
+                damageFactor = factor;
+                damageFactorScale = 4;
+            }
+        }
+        long normalizedFactor = damageFactorScale == 0 ? damageFactor * TEN_THOUSANDTHS : damageFactor;
+
+        // 4. 防御伤害强度 = 穿透强度 * 伤害系数（1e-6）
+        long defenseDamageStrength = Math.multiplyExact(penetrationStrength, normalizedFactor);
+
+        // 5. 最小防御伤害 = 穿透强度 * 0.15（1e-6）
+        long minDefenseDamage = Math.multiplyExact(penetrationStrength, MIN_DAMAGE_RATIO * HUNDREDTHS);
+
+        // 6. 实际防御伤害，相等时与 BigDecimal.max 一样取防御伤害强度
+        long actualDefenseDamage;
+        int actualDefenseDamageScale;
+        if (defenseDamageStrength >= minDefenseDamage) {
+            actualDefenseDamage = defenseDamageStrength;
+            actualDefenseDamageScale = HUNDREDTHS_SCALE + damageFactorScale;
+        } else {
+            actualDefenseDamage = minDefenseDamage;
+            actualDefenseDamageScale = 4;
+        }
+
+        // 7. 生命值伤害 = 溢出伤害 / 伤害倍率 * (1 - 抗性)
+        long overflowDamage = defenseDamageStrength - actualDefenseDamage;
+        long healthDamage = 0;
+        boolean healthDamageComputed = false;
+        if (overflowDamage > 0) {
+            long divided = divideHalfUp(overflowDamage, Math.multiplyExact(damageMultiplier, HUNDREDTHS)); // 1e-2
+            healthDamage = divideHalfUp(Math.multiplyExact(divided, oneMinusResistance), HUNDREDTHS);     // 1e-2
+            healthDamageComputed = true;
+        }
+
+        out.defenseDamage = actualDefenseDamage;
+        out.defenseDamageScale = actualDefenseDamageScale;
+        out.healthDamage = healthDamage;
+        out.healthDamageComputed = healthDamageComputed;
+        out.damageFactor = damageFactor;
+        out.damageFactorScale = damageFactorScale;
+        out.defensePenetrated = defenseDamageStrength > actualDefenseDamage;
+    }
+
+    /**
+     * 整数除法，按 RoundingMode.HALF_UP（远离零方向）舍入
+     */
+    public static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder != 0) {
+            long absRemainder = Math.abs(remainder);
+            if (absRemainder >= Math.abs(divisor) - absRemainder) {
+                quotient += ((dividend ^ divisor) < 0) ? -1 : 1;
+            }
+        }
+        return quotient;
+    }
+
+    /**
+     * BigDecimal 转为指定小数位的定点数，无法精确表示时抛出 ArithmeticException
+     */
+    public static long toScaled(BigDecimal value, int scale) {
+        return value.movePointRight(scale).longValueExact();
+    }
+
+    /**
+     * 定点数攻防结果
+     * 同时记录各数值在 BigDecimal 实现中的小数位数，以便还原出逐位一致的 CombatResult
+     */
+    public static class ScaledResult {
+        private long defenseDamage;          // 防御伤害（百万分位）
+        private int defenseDamageScale;
+        private long healthDamage;           // 生命值伤害（百分位）
+        private boolean healthDamageComputed;
+        private long damageFactor;           // 伤害系数（按 damageFactorScale 计）
+        private int damageFactorScale;
+        private boolean defensePenetrated;
+
+        public long getDefenseDamage() { return defenseDamage; }
+        public long getHealthDamage() { return healthDamage; }
+        public long getDamageFactor() {
+            return damageFactorScale == 0 ? damageFactor * TEN_THOUSANDTHS : damageFactor;
+        }
+        public boolean isDefensePenetrated() { return defensePenetrated; }
+
+        /**
+         * 还原为与 BigDecimal 实现逐位一致的 CombatResult
+         */
+        public CombatResult toCombatResult() {
+            BigDecimal defenseDamageValue = BigDecimal.valueOf(
+                    defenseDamage / pow10(MILLIONTHS_SCALE - defenseDamageScale), defenseDamageScale);
+            BigDecimal healthDamageValue = healthDamageComputed
+                    ? BigDecimal.valueOf(healthDamage, HUNDREDTHS_SCALE)
+                    : BigDecimal.ZERO;
+            BigDecimal damageFactorValue;
+            if (damageFactorScale == 0) {
+                damageFactorValue = damageFactor == 0 ? BigDecimal.ZERO : BigDecimal.ONE;
+            } else {
+                damageFactorValue = BigDecimal.valueOf(damageFactor, damageFactorScale);
+            }
+            return new CombatResult(defenseDamageValue, healthDamageValue, damageFactorValue, defensePenetrated);
+        }
+
+        private static long pow10(int exponent) {
+            long result = 1;
+            for (int i = 0; i < exponent; i++) {
+                result *= 10;
+            }
+            return result;
+        }
+    }
+}
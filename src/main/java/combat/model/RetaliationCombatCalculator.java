@@ -14,6 +14,14 @@ public class RetaliationCombatCalculator {
      * 计算包含反击的战斗结果
      */
     public static RetaliationResult calculateCombat(CombatUnit attacker, CombatUnit defender) {
+        return calculateCombat(attacker, defender, CombatCalculator.DEFENSE_FIRST);
+    }
+
+    /**
+     * 使用指定的攻防计算器计算包含反击的战斗结果
+     */
+    public static RetaliationResult calculateCombat(CombatUnit attacker, CombatUnit defender,
+                                                    CombatCalculator calculator) {
         // 获取双方距离
         int distance = attacker.getPosition().distanceTo(defender.getPosition());
 
@@ -23,19 +31,19 @@ public class RetaliationCombatCalculator {
         }
 
         // 计算初始伤害（10%）
-        CombatResult initialDamage = calculateInitialDamage(attacker, defender);
+        CombatResult initialDamage = calculateInitialDamage(attacker, defender, calculator);
 
         // 检查被攻击者是否可以反击（是否在射程内）
         boolean canRetaliate = defender.getCombatRange().isInRange(distance);
 
         if (!canRetaliate) {
             // 如果不能反击，结算全部伤害
-            CombatResult fullDamage = calculateRemainingDamage(attacker, defender, initialDamage);
+            CombatResult fullDamage = calculateRemainingDamage(attacker, defender, initialDamage, calculator);
             return new RetaliationResult(fullDamage, null);
         } else {
             // 如果可以反击，同时结算剩余伤害和反击伤害
-            CombatResult remainingDamage = calculateRemainingDamage(attacker, defender, initialDamage);
-            CombatResult retaliationDamage = calculateRetaliationDamage(defender, attacker);
+            CombatResult remainingDamage = calculateRemainingDamage(attacker, defender, initialDamage, calculator);
+            CombatResult retaliationDamage = calculateRetaliationDamage(defender, attacker, calculator);
             return new RetaliationResult(remainingDamage, retaliationDamage);
         }
     }
@@ -43,11 +51,12 @@ public class RetaliationCombatCalculator {
     /**
      * 计算初始伤害（10%）
      */
-    private static CombatResult calculateInitialDamage(CombatUnit attacker, CombatUnit defender) {
+    private static CombatResult calculateInitialDamage(CombatUnit attacker, CombatUnit defender,
+                                                       CombatCalculator calculator) {
         BigDecimal initialAttack = attacker.getAttack().multiply(INITIAL_DAMAGE_RATIO)
                 .setScale(2, RoundingMode.HALF_UP);
 
-        return DefenseFirstCombatCalculator.calculateCombat(
+        return calculator.calculateCombat(
                 initialAttack,
                 defender.getCurrentDefense(),
                 attacker.getArmorPenetration(),
@@ -62,12 +71,13 @@ public class RetaliationCombatCalculator {
      * 计算剩余伤害（90%）
      */
     private static CombatResult calculateRemainingDamage(CombatUnit attacker, CombatUnit defender,
-                                                         CombatResult initialDamage) {
+                                                         CombatResult initialDamage,
+                                                         CombatCalculator calculator) {
         BigDecimal remainingAttack = attacker.getAttack()
                 .multiply(BigDecimal.ONE.subtract(INITIAL_DAMAGE_RATIO))
                 .setScale(2, RoundingMode.HALF_UP);
 
-        return DefenseFirstCombatCalculator.calculateCombat(
+        return calculator.calculateCombat(
                 remainingAttack,
                 defender.getCurrentDefense().subtract(initialDamage.getDefenseDamage()),
                 attacker.getArmorPenetration(),
@@ -81,12 +91,13 @@ public class RetaliationCombatCalculator {
     /**
      * 计算反击伤害（85%攻击力）
      */
-    private static CombatResult calculateRetaliationDamage(CombatUnit retaliator, CombatUnit target) {
+    private static CombatResult calculateRetaliationDamage(CombatUnit retaliator, CombatUnit target,
+                                                           CombatCalculator calculator) {
         BigDecimal retaliationAttack = retaliator.getAttack()
                 .multiply(RETALIATION_DAMAGE_RATIO)
                 .setScale(2, RoundingMode.HALF_UP);
 
-        return DefenseFirstCombatCalculator.calculateCombat(
+        return calculator.calculateCombat(
                 retaliationAttack,
                 target.getCurrentDefense(),
                 retaliator.getArmorPenetration(),
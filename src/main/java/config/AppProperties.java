@@ -0,0 +1,93 @@
+package config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * 应用配置
+ * 依次从类路径和 src/resourses 目录读取 database.properties，
+ * 同名的 JVM 系统属性（-Dkey=value）优先于文件中的值。
+ */
+public class AppProperties {
+    private static final Logger logger = LoggerFactory.getLogger(AppProperties.class);
+    private static final String FILE_NAME = "database.properties";
+    private static final Path LOCAL_FILE = Paths.get("src", "resourses", FILE_NAME);
+
+    private static final Properties properties = load();
+
+    private AppProperties() {
+    }
+
+    private static Properties load() {
+        Properties loaded = new Properties();
+        try (InputStream in = AppProperties.class.getClassLoader().getResourceAsStream(FILE_NAME)) {
+            if (in != null) {
+                try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                    loaded.load(reader);
+                }
+                logger.info("已从类路径加载配置文件 {}", FILE_NAME);
+                return loaded;
+            }
+        } catch (IOException e) {
+            logger.warn("读取类路径配置文件失败: {}", e.getMessage());
+        }
+        if (Files.exists(LOCAL_FILE)) {
+            try (Reader reader = Files.newBufferedReader(LOCAL_FILE, StandardCharsets.UTF_8)) {
+                loaded.load(reader);
+                logger.info("已加载配置文件 {}", LOCAL_FILE);
+            } catch (IOException e) {
+                logger.warn("读取配置文件 {} 失败: {}", LOCAL_FILE, e.getMessage());
+            }
+        }
+        return loaded;
+    }
+
+    public static String getString(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            value = properties.getProperty(key);
+        }
+        return (value != null && !value.trim().isEmpty()) ? value.trim() : defaultValue;
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = getString(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            logger.warn("配置项 {} 的值 {} 不是有效的整数，使用默认值 {}", key, value, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = getString(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            logger.warn("配置项 {} 的值 {} 不是有效的整数，使用默认值 {}", key, value, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+}
@@ -6,18 +6,38 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
 
+/**
+ * 数据库配置
+ * 连接池和表结构分两步显式初始化：initialize() 创建数据库和连接池，initializeSchema() 校验表结构，
+ * 只创建缺少的表。两者都只执行一次，由启动流程在后台线程调用；getConnection() 在连接池
+ * 尚未初始化时会先初始化连接池。
+ */
 public class DatabaseConfig {
     private static final Logger logger = LoggerFactory.getLogger(DatabaseConfig.class);
-    private static HikariDataSource dataSource;
+    // 表名 -> 建表语句
+    private static final Map<String, String> TABLES = createTableDefinitions();
+    private static volatile HikariDataSource dataSource;
+    private static volatile boolean schemaInitialized;
 
-    static {
+    /**
+     * 创建数据库（如果不存在）并初始化连接池
+     */
+    public static synchronized void initialize() {
+        if (dataSource != null) {
+            return;
+        }
         createDatabaseIfNotExists();  // 先创建数据库
         initializeDataSource();       // 再初始化连接池
-        initializeDatabase();         // 最后初始化表结构
     }
 
     /**
@@ -51,12 +71,15 @@ public class DatabaseConfig {
             config.setPassword("catleafleaf070105!");
             config.setDriverClassName("com.mysql.cj.jdbc.Driver");
 
-            // 连接池配置
-            config.setMaximumPoolSize(10);
-            config.setMinimumIdle(2);
-            config.setConnectionTimeout(30000);
-            config.setIdleTimeout(600000);
-            config.setMaxLifetime(1800000);
+            // 连接池配置（database.properties 中的 db.pool.*）
+            config.setPoolName(AppProperties.getString("db.pool.name", "wh40k-pool"));
+            config.setMaximumPoolSize(AppProperties.getInt("db.pool.maximumPoolSize", 10));
+            config.setMinimumIdle(AppProperties.getInt("db.pool.minimumIdle", 2));
+            config.setConnectionTimeout(AppProperties.getLong("db.pool.connectionTimeout", 30000));
+            config.setIdleTimeout(AppProperties.getLong("db.pool.idleTimeout", 600000));
+            config.setMaxLifetime(AppProperties.getLong("db.pool.maxLifetime", 1800000));
+            config.setLeakDetectionThreshold(AppProperties.getLong("db.pool.leakDetectionThreshold", 0));
+            config.setMetricsTrackerFactory(DatabaseMetrics.getInstance());
 
             // 性能优化配置
             config.addDataSourceProperty("cachePrepStmts", "true");
@@ -71,7 +94,8 @@ public class DatabaseConfig {
             config.addDataSourceProperty("maintainTimeStats", "false");
 
             dataSource = new HikariDataSource(config);
-            logger.info("数据库连接池初始化成功");
+            logger.info("数据库连接池初始化成功: 最大连接数 {}, 最小空闲 {}, 获取超时 {} ms",
+                    config.getMaximumPoolSize(), config.getMinimumIdle(), config.getConnectionTimeout());
 
         } catch (Exception e) {
             logger.error("数据库连接池初始化失败", e);
@@ -80,7 +104,12 @@ public class DatabaseConfig {
     }
 
     public static Connection getConnection() throws SQLException {
-        return dataSource.getConnection();
+        HikariDataSource ds = dataSource;
+        if (ds == null) {
+            initialize();
+            ds = dataSource;
+        }
+        return ds.getConnection();
     }
 
     public static boolean testConnection() {
@@ -99,7 +128,50 @@ public class DatabaseConfig {
         }
     }
 
-    private static void initializeDatabase() {
+    /**
+     * 校验表结构，只创建缺少的表
+     * 表已存在时只需要一次元数据查询，不再逐条执行 CREATE TABLE IF NOT EXISTS。
+     */
+    public static synchronized void initializeSchema() {
+        if (schemaInitialized) {
+            return;
+        }
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement()) {
+
+            Set<String> existing = new HashSet<>();
+            DatabaseMetaData metaData = conn.getMetaData();
+            try (ResultSet rs = metaData.getTables(conn.getCatalog(), null, "%", new String[]{"TABLE"})) {
+                while (rs.next()) {
+                    existing.add(rs.getString("TABLE_NAME").toLowerCase());
+                }
+            }
+
+            // 按声明顺序创建，被外键引用的表在前
+            int created = 0;
+            for (Map.Entry<String, String> table : TABLES.entrySet()) {
+                if (existing.contains(table.getKey())) {
+                    continue;
+                }
+                try {
+                    stmt.execute(table.getValue());
+                    created++;
+                    logger.debug("创建表: {}", table.getKey());
+                } catch (SQLException e) {
+                    logger.error("执行SQL失败: {}", table.getValue(), e);
+                    throw e;
+                }
+            }
+            schemaInitialized = true;
+            logger.info("数据库表结构校验完成，新建 {} 张表", created);
+
+        } catch (SQLException e) {
+            logger.error("数据库表结构初始化失败", e);
+            throw new RuntimeException("数据库初始化失败", e);
+        }
+    }
+
+    private static Map<String, String> createTableDefinitions() {
         String[] createTables = {
                 // 用户表
                 """
@@ -218,23 +290,12 @@ public class DatabaseConfig {
             """
         };
 
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement()) {
-
-            for (String sql : createTables) {
-                try {
-                    stmt.execute(sql);
-                    logger.debug("执行SQL: {}", sql.split("\n")[1].trim()); // 记录表名
-                } catch (SQLException e) {
-                    logger.error("执行SQL失败: {}", sql, e);
-                    throw e;
-                }
-            }
-            logger.info("数据库表结构初始化成功");
-
-        } catch (SQLException e) {
-            logger.error("数据库表结构初始化失败", e);
-            throw new RuntimeException("数据库初始化失败", e);
+        Map<String, String> tables = new LinkedHashMap<>();
+        for (String sql : createTables) {
+            // 第一行为 CREATE TABLE IF NOT EXISTS 表名 (
+            String[] header = sql.trim().split("\\s+", 7);
+            tables.put(header[5].toLowerCase(), sql);
         }
+        return tables;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,248 @@
+package config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import util.LatencyRecorder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 数据库连接池与 SQL 执行指标
+ * 作为 HikariCP 的 MetricsTrackerFactory 注册到连接池，记录获取连接的等待时间、连接占用时间和
+ * 获取超时次数，并读取连接池的活动、空闲和等待线程数；DatabaseUtil 和 DatabaseService
+ * 执行的每条语句按 SQL 文本分别统计次数、失败次数和耗时，并统计工作单元内预编译语句的创建和复用次数。
+ *
+ * 等待线程数大于0或出现获取超时说明连接池已经耗尽，需要调大 db.pool.maximumPoolSize
+ * 或缩短连接占用时间。连接池未初始化（如使用本地文件存储）时只有 SQL 统计为空的快照。
+ */
+public class DatabaseMetrics implements MetricsTrackerFactory {
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseMetrics.class);
+    private static final int SAMPLE_WINDOW = 4096;
+    private static final int MAX_TRACKED_STATEMENTS = 256;
+    private static final String OTHER_STATEMENTS = "(其他语句)";
+    private static final DatabaseMetrics instance = new DatabaseMetrics();
+
+    private final LatencyRecorder acquireLatency = new LatencyRecorder(SAMPLE_WINDOW);
+    private final LatencyRecorder usageLatency = new LatencyRecorder(SAMPLE_WINDOW);
+    private final AtomicLong connectionTimeouts = new AtomicLong();
+    private final AtomicLong connectionsCreated = new AtomicLong();
+    private final AtomicLong statementsPrepared = new AtomicLong();
+    private final AtomicLong statementsReused = new AtomicLong();
+    private final ConcurrentHashMap<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private volatile String poolName;
+    private volatile PoolStats poolStats;
+
+    private DatabaseMetrics() {
+    }
+
+    public static DatabaseMetrics getInstance() {
+        return instance;
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolName = poolName;
+        this.poolStats = poolStats;
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+                connectionsCreated.incrementAndGet();
+            }
+
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquireLatency.record(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usageLatency.record(TimeUnit.MILLISECONDS.toNanos(elapsedBorrowedMillis));
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                connectionTimeouts.incrementAndGet();
+                logger.warn("获取数据库连接超时，连接池可能已耗尽");
+            }
+        };
+    }
+
+    /**
+     * 记录一条语句的执行耗时
+     */
+    public void recordStatement(String sql, long elapsedNanos, boolean failed) {
+        StatementStats stats = statements.get(sql);
+        if (stats == null) {
+            String key = statements.size() < MAX_TRACKED_STATEMENTS ? sql : OTHER_STATEMENTS;
+            stats = statements.computeIfAbsent(key, StatementStats::new);
+        }
+        stats.record(elapsedNanos, failed);
+    }
+
+    /**
+     * 记录一次预编译语句的获取
+     *
+     * @param reused 是否复用了工作单元内已预编译的语句
+     */
+    public void recordPrepare(boolean reused) {
+        (reused ? statementsReused : statementsPrepared).incrementAndGet();
+    }
+
+    public void reset() {
+        acquireLatency.reset();
+        usageLatency.reset();
+        connectionTimeouts.set(0);
+        statementsPrepared.set(0);
+        statementsReused.set(0);
+        statements.clear();
+    }
+
+    public Snapshot snapshot() {
+        List<StatementStats> statementSnapshot = new ArrayList<>();
+        for (StatementStats stats : statements.values()) {
+            statementSnapshot.add(stats.copy());
+        }
+        statementSnapshot.sort(Comparator.comparingLong(StatementStats::getTotalNanos).reversed());
+        return new Snapshot(poolName, poolStats, acquireLatency.snapshot(), usageLatency.snapshot(),
+                connectionTimeouts.get(), connectionsCreated.get(), statementsPrepared.get(), statementsReused.get(),
+                statementSnapshot);
+    }
+
+    /**
+     * 单条 SQL 的执行统计
+     */
+    public static class StatementStats {
+        private final String sql;
+        private long count;
+        private long failures;
+        private long totalNanos;
+        private long maxNanos;
+
+        private StatementStats(String sql) {
+            this.sql = sql;
+        }
+
+        private synchronized void record(long elapsedNanos, boolean failed) {
+            count++;
+            if (failed) {
+                failures++;
+            }
+            totalNanos += elapsedNanos;
+            if (elapsedNanos > maxNanos) {
+                maxNanos = elapsedNanos;
+            }
+        }
+
+        private synchronized StatementStats copy() {
+            StatementStats copy = new StatementStats(sql);
+            copy.count = count;
+            copy.failures = failures;
+            copy.totalNanos = totalNanos;
+            copy.maxNanos = maxNanos;
+            return copy;
+        }
+
+        public String getSql() { return sql; }
+        public long getCount() { return count; }
+        public long getFailures() { return failures; }
+        public long getTotalNanos() { return totalNanos; }
+        public long getMaxNanos() { return maxNanos; }
+
+        public double getMeanNanos() {
+            return count == 0 ? 0.0 : (double) totalNanos / count;
+        }
+    }
+
+    /**
+     * 指标快照
+     */
+    public static class Snapshot {
+        private static final int REPORTED_STATEMENTS = 10;
+
+        private final String poolName;
+        private final boolean poolAvailable;
+        private final int activeConnections;
+        private final int idleConnections;
+        private final int totalConnections;
+        private final int maxConnections;
+        private final int pendingThreads;
+        private final LatencyRecorder.Snapshot acquireLatency;
+        private final LatencyRecorder.Snapshot usageLatency;
+        private final long connectionTimeouts;
+        private final long connectionsCreated;
+        private final long statementsPrepared;
+        private final long statementsReused;
+        private final List<StatementStats> statements;
+
+        private Snapshot(String poolName, PoolStats poolStats, LatencyRecorder.Snapshot acquireLatency,
+                         LatencyRecorder.Snapshot usageLatency, long connectionTimeouts, long connectionsCreated,
+                         long statementsPrepared, long statementsReused, List<StatementStats> statements) {
+            this.poolName = poolName;
+            this.poolAvailable = poolStats != null;
+            this.activeConnections = poolStats != null ? poolStats.getActiveConnections() : 0;
+            this.idleConnections = poolStats != null ? poolStats.getIdleConnections() : 0;
+            this.totalConnections = poolStats != null ? poolStats.getTotalConnections() : 0;
+            this.maxConnections = poolStats != null ? poolStats.getMaxConnections() : 0;
+            this.pendingThreads = poolStats != null ? poolStats.getPendingThreads() : 0;
+            this.acquireLatency = acquireLatency;
+            this.usageLatency = usageLatency;
+            this.connectionTimeouts = connectionTimeouts;
+            this.connectionsCreated = connectionsCreated;
+            this.statementsPrepared = statementsPrepared;
+            this.statementsReused = statementsReused;
+            this.statements = statements;
+        }
+
+        public boolean isPoolAvailable() { return poolAvailable; }
+        public int getActiveConnections() { return activeConnections; }
+        public int getIdleConnections() { return idleConnections; }
+        public int getTotalConnections() { return totalConnections; }
+        public int getMaxConnections() { return maxConnections; }
+        public int getPendingThreads() { return pendingThreads; }
+        public LatencyRecorder.Snapshot getAcquireLatency() { return acquireLatency; }
+        public LatencyRecorder.Snapshot getUsageLatency() { return usageLatency; }
+        public long getConnectionTimeouts() { return connectionTimeouts; }
+        public long getConnectionsCreated() { return connectionsCreated; }
+        public long getStatementsPrepared() { return statementsPrepared; }
+        public long getStatementsReused() { return statementsReused; }
+        public List<StatementStats> getStatements() { return statements; }
+
+        /**
+         * 是否出现连接池耗尽：有线程在等待连接或曾经获取超时
+         */
+        public boolean isStarved() {
+            return pendingThreads > 0 || connectionTimeouts > 0;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder();
+            if (poolAvailable) {
+                report.append(String.format("连接池 %s: 活动 %d, 空闲 %d, 总数 %d/%d, 等待线程 %d, 获取超时 %d, 已创建连接 %d%s\n",
+                        poolName, activeConnections, idleConnections, totalConnections, maxConnections,
+                        pendingThreads, connectionTimeouts, connectionsCreated, isStarved() ? "（连接池耗尽）" : ""));
+                report.append("获取连接等待: ").append(acquireLatency).append('\n');
+                report.append("连接占用时间: ").append(usageLatency).append('\n');
+            } else {
+                report.append("连接池未初始化\n");
+            }
+            report.append(String.format("预编译语句: 新建 %d, 复用 %d\n", statementsPrepared, statementsReused));
+            report.append(String.format("SQL 语句统计（共 %d 条，按总耗时排序）:\n", statements.size()));
+            for (int i = 0; i < Math.min(REPORTED_STATEMENTS, statements.size()); i++) {
+                StatementStats stats = statements.get(i);
+                report.append(String.format("  %6d 次, 失败 %d, 总计 %.1f ms, 平均 %.3f ms, 最大 %.3f ms  %s\n",
+                        stats.count, stats.failures, stats.totalNanos / 1_000_000.0, stats.getMeanNanos() / 1_000_000,
+                        stats.maxNanos / 1_000_000.0, stats.sql.replaceAll("\\s+", " ").trim()));
+            }
+            return report.toString();
+        }
+    }
+}
@@ -27,6 +27,28 @@ public class Campaign {
         this.currentBatchIndex = 0;
     }
 
+    // 用于从数据库重建对象
+    public Campaign(long id, String name, String description, long creatorId, CampaignStatus status,
+                    List<Long> participantIds, List<EnemyBatch> enemyBatches, int currentBatchIndex) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.creatorId = creatorId;
+        this.status = status;
+        this.participantIds = participantIds != null ? new ArrayList<>(participantIds) : new ArrayList<>();
+        this.enemyBatches = enemyBatches != null ? new ArrayList<>(enemyBatches) : new ArrayList<>();
+        this.currentBatchIndex = currentBatchIndex;
+    }
+
+    /**
+     * 让ID生成器从数据库中已使用的最大ID之后继续分配，避免重启后ID冲突
+     */
+    public static void initializeIdGenerator(long maxUsedId) {
+        if (maxUsedId >= 20000000L && maxUsedId < 29999999L) {
+            ID_GENERATOR.accumulateAndGet(maxUsedId, Math::max);
+        }
+    }
+
     private long generateId() {
         long newId = ID_GENERATOR.incrementAndGet();
         if (newId > 29999999L) {
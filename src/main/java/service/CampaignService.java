@@ -1,20 +1,44 @@
 package service;
 
+import config.AppProperties;
 import model.*;
+import storage.CampaignStore;
+import storage.StorageFactory;
+import util.LruCache;
+
+import java.sql.SQLException;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * 战役服务
+ * 战役通过存储后端的 CampaignStore 持久化，修改先写入数据库再更新内存；
+ * 战役按需从数据库加载并保存在容量为 campaign.cache.maxSize 的 LRU 缓存中，
+ * 同一战役在缓存中只有一个实例。
+ */
 public class CampaignService {
+    private static final int DEFAULT_CACHE_SIZE = 1000;
+
     private static CampaignService instance;
-    private final Map<Long, Campaign> campaigns;
+    private final LruCache<Long, Campaign> campaigns;
+    private final CampaignStore repository;
     private final DatabaseUserService userService;
 
     private CampaignService() {
-        campaigns = new ConcurrentHashMap<>();
+        campaigns = new LruCache<>(Math.max(1, AppProperties.getInt("campaign.cache.maxSize", DEFAULT_CACHE_SIZE)));
+        repository = StorageFactory.getBackend().campaigns();
         userService = DatabaseUserService.getInstance();
+        initializeIdGenerator();
+    }
+
+    private void initializeIdGenerator() {
+        try {
+            Campaign.initializeIdGenerator(repository.findMaxId());
+        } catch (SQLException e) {
+            System.err.println("初始化战役ID失败: " + e.getMessage());
+        }
     }
 
-    public static CampaignService getInstance() {
+    public static synchronized CampaignService getInstance() {
         if (instance == null) {
             instance = new CampaignService();
         }
@@ -23,39 +47,50 @@ public class CampaignService {
 
     // 创建战役（需要管理者权限）
     public Campaign createCampaign(String name, String description) {
-        User currentUser = userService.getCurrentUser();
-        if (currentUser == null) {
-            throw new IllegalArgumentException("请先登录");
-        }
-
-        if (!currentUser.isManager()) {
+        UserSession session = requireSession();
+        if (!session.isManager()) {
             throw new IllegalArgumentException("权限不足：只有管理者可以创建战役");
         }
 
-        Campaign campaign = new Campaign(name, description, currentUser.getCharacterId());
+        Campaign campaign = new Campaign(name, description, session.getCharacterId());
+        try {
+            repository.insert(campaign);
+        } catch (SQLException e) {
+            throw new RuntimeException("保存战役失败: " + e.getMessage(), e);
+        }
         campaigns.put(campaign.getId(), campaign);
         return campaign;
     }
 
     // 开始战役
     public boolean startCampaign(long campaignId, List<Long> participantIds) {
-        Campaign campaign = campaigns.get(campaignId);
+        Campaign campaign = findCampaignById(campaignId);
         if (campaign == null) {
             throw new IllegalArgumentException("战役不存在");
         }
 
         // 检查权限：只有创建者可以开始战役
-        User currentUser = userService.getCurrentUser();
-        if (currentUser == null) {
-            throw new IllegalArgumentException("请先登录");
+        UserSession session = requireSession();
+        if (campaign.getCreatorId() != session.getCharacterId()) {
+            throw new IllegalArgumentException("只有战役创建者可以开始战役");
         }
 
-        if (campaign.getCreatorId() != currentUser.getCharacterId()) {
-            throw new IllegalArgumentException("只有战役创建者可以开始战役");
+        // 先写入数据库，成功后再更新内存中的战役
+        List<Long> existing = campaign.getParticipantIds();
+        List<Long> newParticipants = new ArrayList<>();
+        for (Long participantId : participantIds) {
+            if (!existing.contains(participantId) && !newParticipants.contains(participantId)) {
+                newParticipants.add(participantId);
+            }
+        }
+        try {
+            repository.updateStatus(campaignId, CampaignStatus.STARTED, campaign.getCurrentBatchIndex(), newParticipants);
+        } catch (SQLException e) {
+            throw new RuntimeException("保存战役状态失败: " + e.getMessage(), e);
         }
 
         // 添加参与者
-        for (Long participantId : participantIds) {
+        for (Long participantId : newParticipants) {
             campaign.addParticipant(participantId);
         }
 
@@ -65,32 +100,86 @@ public class CampaignService {
 
     // 为战役添加敌人批次
     public void addEnemyBatchToCampaign(long campaignId, EnemyBatch batch) {
-        Campaign campaign = campaigns.get(campaignId);
+        Campaign campaign = findCampaignById(campaignId);
         if (campaign == null) {
             throw new IllegalArgumentException("战役不存在");
         }
 
         // 检查权限
-        User currentUser = userService.getCurrentUser();
-        if (currentUser == null) {
-            throw new IllegalArgumentException("请先登录");
-        }
-
-        if (campaign.getCreatorId() != currentUser.getCharacterId()) {
+        UserSession session = requireSession();
+        if (campaign.getCreatorId() != session.getCharacterId()) {
             throw new IllegalArgumentException("只有战役创建者可以添加敌人批次");
         }
 
+        try {
+            repository.addEnemyBatch(campaignId, batch);
+        } catch (SQLException e) {
+            throw new RuntimeException("保存敌人批次失败: " + e.getMessage(), e);
+        }
         campaign.addEnemyBatch(batch);
     }
 
     // 获取所有战役
     public List<Campaign> getAllCampaigns() {
-        return new ArrayList<>(campaigns.values());
+        try {
+            return cached(repository.findAll());
+        } catch (SQLException e) {
+            System.err.println("加载战役列表失败: " + e.getMessage());
+            return campaigns.values();
+        }
+    }
+
+    // 按状态查询战役（走 idx_status 索引，不扫描全部战役）
+    public List<Campaign> getCampaignsByStatus(CampaignStatus status) {
+        try {
+            return cached(repository.findByStatus(status));
+        } catch (SQLException e) {
+            System.err.println("按状态查询战役失败: " + e.getMessage());
+            return new ArrayList<>();
+        }
     }
 
-    // 根据ID查找战役
+    // 按创建者角色查询战役（走 idx_creator_id 索引）
+    public List<Campaign> getCampaignsByCreator(long creatorId) {
+        try {
+            return cached(repository.findByCreator(creatorId));
+        } catch (SQLException e) {
+            System.err.println("按创建者查询战役失败: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    // 根据ID查找战役，缓存未命中时从数据库加载
     public Campaign findCampaignById(long id) {
-        return campaigns.get(id);
+        Campaign campaign = campaigns.get(id);
+        if (campaign != null) {
+            return campaign;
+        }
+        try {
+            Campaign loaded = repository.findById(id);
+            return loaded != null ? campaigns.putIfAbsent(id, loaded) : null;
+        } catch (SQLException e) {
+            System.err.println("查找战役失败: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // 查询结果中已缓存的战役使用缓存实例，其余放入缓存
+    private List<Campaign> cached(List<Campaign> loaded) {
+        List<Campaign> result = new ArrayList<>(loaded.size());
+        for (Campaign campaign : loaded) {
+            result.add(campaigns.putIfAbsent(campaign.getId(), campaign));
+        }
+        return result;
+    }
+
+    // 获取当前登录会话（内存读取，不查询数据库）
+    private UserSession requireSession() {
+        UserSession session = userService.getSession();
+        if (session == null) {
+            throw new IllegalArgumentException("请先登录");
+        }
+        return session;
     }
 
     // 获取用户服务实例
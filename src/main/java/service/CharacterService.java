@@ -4,24 +4,57 @@ import model.Character;
 import model.Faction;
 import model.Unit;
 import model.Resource;
-import config.DatabaseConfig;
-import java.sql.*;
+import config.AppProperties;
+import storage.CharacterPage;
+import storage.CharacterStore;
+import storage.StorageFactory;
+import util.LruCache;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
+/**
+ * 角色服务
+ * 角色数据通过 storage.backend 配置的存储后端读写。
+ * 默认（eager）模式在启动时加载全部角色，保存在按ID排序的并发映射中，分页直接从游标位置开始读取；
+ * character.loading.mode=lazy 时按需加载，角色保存在容量为 character.cache.maxSize 的 LRU 缓存中，
+ * 列表通过主键游标分页查询。
+ */
 public class CharacterService {
+    private static final int DEFAULT_CACHE_SIZE = 10000;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
     private static CharacterService instance;
-    private final ConcurrentHashMap<Long, Character> memoryCache;
+    private final LruCache<Long, Character> memoryCache;                  // 按需加载模式的角色缓存
+    private final ConcurrentSkipListMap<Long, Character> loadedCharacters; // eager 模式下的全部角色（按ID排序）
+    private final CharacterWriteBehindQueue writeQueue;
+    private final CharacterStore store;
+    private final boolean lazyLoading;
+    private final int pageSize;
     private long nextCharacterId;
 
     private CharacterService() {
-        memoryCache = new ConcurrentHashMap<>();
+        lazyLoading = "lazy".equalsIgnoreCase(AppProperties.getString("character.loading.mode", "eager"));
+        pageSize = Math.max(1, AppProperties.getInt("character.page.size", DEFAULT_PAGE_SIZE));
+        if (lazyLoading) {
+            memoryCache = new LruCache<>(
+                    Math.max(1, AppProperties.getInt("character.cache.maxSize", DEFAULT_CACHE_SIZE)));
+            loadedCharacters = null;
+        } else {
+            memoryCache = null;
+            loadedCharacters = new ConcurrentSkipListMap<>();
+        }
+        store = StorageFactory.getBackend().characters();
+        writeQueue = new CharacterWriteBehindQueue(store);
         initializeNextCharacterId();
-        loadCharactersFromDatabase();
+        if (!lazyLoading) {
+            loadCharactersFromDatabase();
+        }
+        writeQueue.start();
     }
 
-    public static CharacterService getInstance() {
+    public static synchronized CharacterService getInstance() {
         if (instance == null) {
             instance = new CharacterService();
         }
@@ -29,16 +62,8 @@ public class CharacterService {
     }
 
     private void initializeNextCharacterId() {
-        String sql = "SELECT COALESCE(MAX(id), 10000000) + 1 AS next_id FROM characters";
-        try (Connection conn = DatabaseConfig.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            if (rs.next()) {
-                nextCharacterId = rs.getLong("next_id");
-            } else {
-                nextCharacterId = 10000001L;
-            }
+        try {
+            nextCharacterId = Math.max(store.findMaxId(), 10000000L) + 1;
         } catch (SQLException e) {
             System.err.println("初始化角色ID失败: " + e.getMessage());
             nextCharacterId = 10000001L;
@@ -46,79 +71,26 @@ public class CharacterService {
     }
 
     private void loadCharactersFromDatabase() {
-        String sql = "SELECT * FROM characters";
-        try (Connection conn = DatabaseConfig.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                Character character = new Character(
-                        rs.getLong("id"),
-                        rs.getString("name"),
-                        rs.getString("title"),
-                        Faction.valueOf(rs.getString("faction")),
-                        loadUnitsForCharacter(rs.getLong("id")),
-                        loadResourcesForCharacter(rs.getLong("id"))
-                );
-                memoryCache.put(character.getId(), character);
+        try {
+            List<Character> characters = store.loadAll();
+            for (Character character : characters) {
+                loadedCharacters.put(character.getId(), character);
             }
-            System.out.println("从数据库加载 " + memoryCache.size() + " 个角色");
         } catch (SQLException e) {
             System.err.println("加载角色数据失败: " + e.getMessage());
         }
     }
 
-    private List<Unit> loadUnitsForCharacter(long characterId) {
-        List<Unit> units = new ArrayList<>();
-        String sql = "SELECT * FROM units WHERE character_id = ?";
-        try (ResultSet rs = DatabaseService.executeQuery(sql, characterId)) {
-            while (rs.next()) {
-                units.add(new Unit(
-                        rs.getString("name"),
-                        rs.getString("type"),
-                        rs.getInt("count")
-                ));
-            }
-        } catch (SQLException e) {
-            System.err.println("加载单位数据失败: " + e.getMessage());
-        }
-        return units;
-    }
-
-    private List<Resource> loadResourcesForCharacter(long characterId) {
-        List<Resource> resources = new ArrayList<>();
-        String sql = "SELECT * FROM resources WHERE character_id = ?";
-        try (ResultSet rs = DatabaseService.executeQuery(sql, characterId)) {
-            while (rs.next()) {
-                resources.add(new Resource(
-                        rs.getString("name"),
-                        rs.getInt("quantity")
-                ));
-            }
-        } catch (SQLException e) {
-            System.err.println("加载资源数据失败: " + e.getMessage());
-        }
-        return resources;
-    }
-
     public Character createCharacter(String name, Faction faction) {
         long id = nextCharacterId++;
         Character character = new Character(id, name, "", faction, new ArrayList<>(), new ArrayList<>());
 
         // 保存到数据库
-        String sql = "INSERT INTO characters (id, name, title, faction, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
         try {
-            DatabaseService.executeUpdate(sql,
-                    character.getId(),
-                    character.getName(),
-                    character.getTitle(),
-                    character.getFaction().name(),
-                    character.getCreatedAt(),
-                    character.getUpdatedAt()
-            );
+            store.insert(character);
 
             // 保存到内存缓存
-            memoryCache.put(character.getId(), character);
+            cachePut(character);
 
             return character;
         } catch (SQLException e) {
@@ -126,30 +98,92 @@ public class CharacterService {
         }
     }
 
+    /**
+     * 获取全部角色
+     * 按需加载模式下会逐页读取整张表，大数据量时应改用 {@link #listCharacters(long, int)}
+     */
     public List<Character> getAllCharacters() {
-        return new ArrayList<>(memoryCache.values());
+        if (!lazyLoading) {
+            return new ArrayList<>(loadedCharacters.values());
+        }
+        List<Character> characters = new ArrayList<>();
+        long cursor = 0;
+        CharacterPage page;
+        do {
+            page = listCharacters(cursor, pageSize);
+            characters.addAll(page.getCharacters());
+            cursor = page.getNextCursor();
+        } while (page.hasMore());
+        return characters;
+    }
+
+    /**
+     * 按ID顺序分页列出角色
+     *
+     * @param afterId 上一页的游标（第一页传 0）
+     * @param limit 每页数量
+     */
+    public CharacterPage listCharacters(long afterId, int limit) {
+        if (!lazyLoading) {
+            // 全部角色都在内存中且按ID排序，从游标之后直接读取一页
+            List<Character> page = new ArrayList<>(limit);
+            for (Character character : loadedCharacters.tailMap(afterId, false).values()) {
+                if (page.size() == limit) {
+                    return new CharacterPage(page, page.get(page.size() - 1).getId(), true);
+                }
+                page.add(character);
+            }
+            long cursor = page.isEmpty() ? afterId : page.get(page.size() - 1).getId();
+            return new CharacterPage(page, cursor, false);
+        }
+
+        flushPendingWritesQuietly();
+        try {
+            CharacterPage loaded = store.loadPage(afterId, limit);
+            // 已在缓存中的角色可能有尚未写回的修改，优先使用缓存中的对象
+            List<Character> characters = new ArrayList<>(loaded.getCharacters().size());
+            for (Character character : loaded.getCharacters()) {
+                Character dirty = writeQueue.getDirtyCharacter(character.getId());
+                characters.add(memoryCache.putIfAbsent(character.getId(), dirty != null ? dirty : character));
+            }
+            return new CharacterPage(characters, loaded.getNextCursor(), loaded.hasMore());
+        } catch (SQLException e) {
+            System.err.println("分页加载角色失败: " + e.getMessage());
+            return new CharacterPage(new ArrayList<>(), afterId, false);
+        }
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public boolean isLazyLoading() {
+        return lazyLoading;
     }
 
     public Character findCharacterById(long id) {
         // 先从内存缓存获取
-        Character character = memoryCache.get(id);
+        Character character = lazyLoading ? memoryCache.get(id) : loadedCharacters.get(id);
         if (character != null) {
             return character;
         }
 
+        // 已被淘汰但修改尚未写回的角色，先写回再从数据库读取
+        if (writeQueue.hasPending(id)) {
+            flushPendingWritesQuietly();
+            // 写回失败时数据库中是过期数据，使用排队中的最新对象
+            character = writeQueue.getDirtyCharacter(id);
+            if (character != null) {
+                cachePut(character);
+                return character;
+            }
+        }
+
         // 从数据库加载
-        String sql = "SELECT * FROM characters WHERE id = ?";
-        try (ResultSet rs = DatabaseService.executeQuery(sql, id)) {
-            if (rs.next()) {
-                character = new Character(
-                        rs.getLong("id"),
-                        rs.getString("name"),
-                        rs.getString("title"),
-                        Faction.valueOf(rs.getString("faction")),
-                        loadUnitsForCharacter(id),
-                        loadResourcesForCharacter(id)
-                );
-                memoryCache.put(id, character);
+        try {
+            character = store.findById(id);
+            if (character != null) {
+                cachePut(character);
                 return character;
             }
         } catch (SQLException e) {
@@ -158,31 +192,26 @@ public class CharacterService {
         return null;
     }
 
+    /**
+     * 更新角色信息，数据库写入由写回队列异步完成
+     */
     public void updateCharacter(Character character) {
-        String sql = "UPDATE characters SET name = ?, title = ?, faction = ?, updated_at = ? WHERE id = ?";
-        try {
-            DatabaseService.executeUpdate(sql,
-                    character.getName(),
-                    character.getTitle(),
-                    character.getFaction().name(),
-                    character.getUpdatedAt(),
-                    character.getId()
-            );
-
-            // 更新内存缓存
-            memoryCache.put(character.getId(), character);
-        } catch (SQLException e) {
-            throw new IllegalArgumentException("更新角色失败: " + e.getMessage());
-        }
+        // 更新内存缓存
+        cachePut(character);
+        writeQueue.enqueueCharacterUpdate(character);
     }
 
     public boolean deleteCharacter(long id) {
-        String sql = "DELETE FROM characters WHERE id = ?";
         try {
-            DatabaseService.executeUpdate(sql, id);
+            writeQueue.discard(id);
+            store.delete(id);
 
             // 从内存缓存移除
-            memoryCache.remove(id);
+            if (lazyLoading) {
+                memoryCache.remove(id);
+            } else {
+                loadedCharacters.remove(id);
+            }
 
             return true;
         } catch (SQLException e) {
@@ -196,20 +225,9 @@ public class CharacterService {
         if (character != null) {
             character.addUnit(unit);
 
-            // 保存到数据库
-            String sql = "INSERT INTO units (character_id, name, type, count) VALUES (?, ?, ?, ?)";
-            try {
-                DatabaseService.executeUpdate(sql,
-                        characterId,
-                        unit.getName(),
-                        unit.getType(),
-                        unit.getCount()
-                );
-
-                updateCharacter(character);
-            } catch (SQLException e) {
-                throw new IllegalArgumentException("添加单位失败: " + e.getMessage());
-            }
+            // 排队写入数据库
+            writeQueue.enqueueUnitInsert(characterId, unit);
+            updateCharacter(character);
         } else {
             throw new IllegalArgumentException("角色不存在");
         }
@@ -220,21 +238,62 @@ public class CharacterService {
         if (character != null) {
             character.addResource(resource);
 
-            // 保存到数据库
-            String sql = "INSERT INTO resources (character_id, name, quantity) VALUES (?, ?, ?)";
-            try {
-                DatabaseService.executeUpdate(sql,
-                        characterId,
-                        resource.getName(),
-                        resource.getQuantity()
-                );
-
-                updateCharacter(character);
-            } catch (SQLException e) {
-                throw new IllegalArgumentException("添加资源失败: " + e.getMessage());
-            }
+            // 排队写入数据库
+            writeQueue.enqueueResourceInsert(characterId, resource);
+            updateCharacter(character);
         } else {
             throw new IllegalArgumentException("角色不存在");
         }
     }
+
+    /**
+     * 立即写出所有排队中的角色修改
+     */
+    public void flushPendingWrites() throws SQLException {
+        writeQueue.flush();
+    }
+
+    private void cachePut(Character character) {
+        if (lazyLoading) {
+            memoryCache.put(character.getId(), character);
+        } else {
+            loadedCharacters.put(character.getId(), character);
+        }
+    }
+
+    private void flushPendingWritesQuietly() {
+        if (writeQueue.getPendingCount() == 0) {
+            return;
+        }
+        try {
+            writeQueue.flush();
+        } catch (SQLException e) {
+            System.err.println("写回角色修改失败: " + e.getMessage());
+        }
+    }
+
+    // ==================== 缓存统计 ====================
+    // eager 模式不经过 LRU 缓存，命中、未命中和淘汰次数均为0
+
+    public int getCachedCount() { return lazyLoading ? memoryCache.size() : loadedCharacters.size(); }
+    public long getCacheHitCount() { return lazyLoading ? memoryCache.getHitCount() : 0; }
+    public long getCacheMissCount() { return lazyLoading ? memoryCache.getMissCount() : 0; }
+    public long getCacheEvictionCount() { return lazyLoading ? memoryCache.getEvictionCount() : 0; }
+
+    public String getCacheStats() {
+        return lazyLoading ? "角色" + memoryCache : "角色已全部加载 " + loadedCharacters.size() + " 个";
+    }
+
+    public CharacterWriteBehindQueue getWriteQueue() {
+        return writeQueue;
+    }
+
+    /**
+     * 关闭服务：停止后台写回并同步写出剩余修改，需在关闭连接池之前调用
+     *
+     * @throws IllegalStateException 超时后仍有修改未能写入
+     */
+    public void shutdown() {
+        writeQueue.shutdown();
+    }
 }
\ No newline at end of file
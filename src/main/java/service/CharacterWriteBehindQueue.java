@@ -0,0 +1,439 @@
+package service;
+
+import model.Character;
+import model.Resource;
+import model.Unit;
+import storage.CharacterStore;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 角色写回队列
+ * 角色的单位、物资新增和角色信息更新先在内存中排队，由后台线程定期批量写入存储后端，
+ * 调用线程不再等待 MySQL 往返。同一角色的多次信息更新合并为一次 UPDATE（只保留最新值），
+ * 新增的单位和物资按提交顺序批量 INSERT。每次刷新的全部写入先尝试在存储后端的一个事务内完成，
+ * 只借用一次连接；该事务失败时改为逐个角色单独提交，一个角色的坏数据不会连累其他角色。
+ *
+ * 写入失败的角色不会被丢弃：修改保留在队列中并标记为脏数据（数据库中的数据已过期），
+ * 后台线程按指数退避不断重试，直到写入成功；刷新期间被删除（discard）的角色不再重试。
+ * 关闭时同步写出所有未写入的修改，在超时前仍无法写入则抛出异常。
+ *
+ * 正在写入的批次在提交或放回队列之前仍计入排队状态（hasPending、getDirtyCharacter、getPendingCount），
+ * 调用方据此先等待写回完成，不会在写入过程中从数据库读到旧数据。
+ */
+public class CharacterWriteBehindQueue {
+    private static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 200;
+    private static final int DEFAULT_MAX_PENDING = 500;   // 排队修改数达到该值时立即刷新
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 60_000;
+
+    private final CharacterStore store;
+    private final long flushIntervalMillis;
+    private final int maxPending;
+    private final Object lock = new Object();
+    private final Object flushLock = new Object();
+    private Map<Long, PendingWrites> pending = new LinkedHashMap<>();
+    private final Set<Long> discarded = new HashSet<>();   // 当前刷新开始后被丢弃的角色
+    private Map<Long, PendingWrites> inFlight = Collections.emptyMap(); // 正在写入、尚未提交的批次
+    private int pendingCount;
+    private int inFlightCount;
+    private ScheduledExecutorService scheduler;
+    private boolean shutdown;
+    private int consecutiveFailures;
+    private long retryAtNanos;                              // 退避期间后台线程不刷新
+
+    private long flushCount;
+    private long writtenRows;
+    private long failedFlushes;
+
+    public CharacterWriteBehindQueue(CharacterStore store) {
+        this(store, DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_MAX_PENDING);
+    }
+
+    public CharacterWriteBehindQueue(CharacterStore store, long flushIntervalMillis, int maxPending) {
+        if (flushIntervalMillis <= 0 || maxPending <= 0) {
+            throw new IllegalArgumentException("刷新间隔和队列上限必须大于0");
+        }
+        this.store = store;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * 启动后台刷新线程
+     */
+    public synchronized void start() {
+        if (scheduler != null || shutdown) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "character-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly,
+                flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // ==================== 排队 ====================
+
+    public void enqueueUnitInsert(long characterId, Unit unit) {
+        enqueue(characterId, writes -> writes.unitInserts.add(new Object[]{
+                characterId, unit.getName(), unit.getType(), unit.getCount()}));
+    }
+
+    public void enqueueResourceInsert(long characterId, Resource resource) {
+        enqueue(characterId, writes -> writes.resourceInserts.add(new Object[]{
+                characterId, resource.getName(), resource.getQuantity()}));
+    }
+
+    /**
+     * 排队角色信息更新，同一角色未写出的旧更新会被覆盖
+     */
+    public void enqueueCharacterUpdate(Character character) {
+        Object[] params = {
+                character.getName(),
+                character.getTitle(),
+                character.getFaction().name(),
+                character.getUpdatedAt(),
+                character.getId()
+        };
+        enqueue(character.getId(), writes -> {
+            writes.characterUpdate = params;
+            writes.character = character;
+        });
+    }
+
+    /**
+     * 丢弃某角色所有未写出的修改（角色被删除时调用）
+     */
+    public void discard(long characterId) {
+        synchronized (lock) {
+            PendingWrites removed = pending.remove(characterId);
+            if (removed != null) {
+                pendingCount -= removed.size();
+            }
+            // 正在写入的批次中可能还有该角色的修改，写入失败时不再放回队列
+            discarded.add(characterId);
+        }
+    }
+
+    /**
+     * 某角色是否还有未写出的修改（包括正在写入、尚未提交的修改）
+     */
+    public boolean hasPending(long characterId) {
+        synchronized (lock) {
+            return pending.containsKey(characterId) || isInFlight(characterId);
+        }
+    }
+
+    /**
+     * 某角色是否有写入失败、仍在等待重试的修改；此时数据库中的数据已过期
+     */
+    public boolean isDirty(long characterId) {
+        synchronized (lock) {
+            PendingWrites writes = pending.get(characterId);
+            return writes != null && writes.dirty;
+        }
+    }
+
+    /**
+     * 写入失败或正在写入的角色最近一次排队更新时的对象，没有则返回 null
+     * 此时数据库中的数据已过期，角色被缓存淘汰后应使用该对象
+     */
+    public Character getDirtyCharacter(long characterId) {
+        synchronized (lock) {
+            PendingWrites writes = pending.get(characterId);
+            if (writes != null && writes.dirty && writes.character != null) {
+                return writes.character;
+            }
+            return isInFlight(characterId) ? inFlight.get(characterId).character : null;
+        }
+    }
+
+    private boolean isInFlight(long characterId) {
+        return inFlight.containsKey(characterId) && !discarded.contains(characterId);
+    }
+
+    private void enqueue(long characterId, Consumer<PendingWrites> change) {
+        boolean flushNow;
+        synchronized (lock) {
+            if (shutdown) {
+                throw new IllegalStateException("写回队列已关闭");
+            }
+            PendingWrites writes = pending.computeIfAbsent(characterId, id -> new PendingWrites());
+            int before = writes.size();
+            change.accept(writes);
+            pendingCount += writes.size() - before;
+            flushNow = pendingCount >= maxPending;
+        }
+        if (flushNow && scheduler != null) {
+            scheduler.execute(this::flushQuietly);
+        }
+    }
+
+    // ==================== 刷新 ====================
+
+    /**
+     * 立即把排队的修改写入存储后端
+     *
+     * @return 本次写入的行数
+     */
+    public int flush() throws SQLException {
+        synchronized (flushLock) {
+            Map<Long, PendingWrites> batch;
+            synchronized (lock) {
+                if (pending.isEmpty()) {
+                    return 0;
+                }
+                batch = pending;
+                pending = new LinkedHashMap<>();
+                discarded.clear();
+                // 提交或放回队列之前批次仍对查询可见
+                inFlight = batch;
+                inFlightCount = pendingCount;
+                pendingCount = 0;
+            }
+
+            int written;
+            SQLException failure = null;
+            Map<Long, PendingWrites> failed = new LinkedHashMap<>();
+            try {
+                // 三类写入在一个事务内提交
+                written = write(batch.values());
+            } catch (SQLException e) {
+                failure = e;
+                written = 0;
+                if (batch.size() == 1) {
+                    failed.putAll(batch);
+                } else {
+                    // 逐个角色单独提交，找出写入失败的角色
+                    for (Map.Entry<Long, PendingWrites> entry : batch.entrySet()) {
+                        if (isDiscarded(entry.getKey())) {
+                            continue;
+                        }
+                        try {
+                            written += write(Collections.singletonList(entry.getValue()));
+                        } catch (SQLException characterFailure) {
+                            failed.put(entry.getKey(), entry.getValue());
+                            failure = characterFailure;
+                        }
+                    }
+                }
+            }
+
+            synchronized (lock) {
+                writtenRows += written;
+                if (failed.isEmpty()) {
+                    flushCount++;
+                    consecutiveFailures = 0;
+                    inFlight = Collections.emptyMap();
+                    inFlightCount = 0;
+                } else {
+                    failedFlushes++;
+                    consecutiveFailures++;
+                    retryAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMillis());
+                }
+            }
+            if (!failed.isEmpty()) {
+                requeue(failed);
+                throw failure;
+            }
+            return written;
+        }
+    }
+
+    /**
+     * 在一个事务内写入若干角色的修改
+     *
+     * @return 写入的行数
+     */
+    private int write(Collection<PendingWrites> characters) throws SQLException {
+        List<Object[]> unitParams = new ArrayList<>();
+        List<Object[]> resourceParams = new ArrayList<>();
+        List<Object[]> updateParams = new ArrayList<>();
+        for (PendingWrites writes : characters) {
+            unitParams.addAll(writes.unitInserts);
+            resourceParams.addAll(writes.resourceInserts);
+            if (writes.characterUpdate != null) {
+                updateParams.add(writes.characterUpdate);
+            }
+        }
+        store.applyWrites(unitParams, resourceParams, updateParams);
+        return unitParams.size() + resourceParams.size() + updateParams.size();
+    }
+
+    private boolean isDiscarded(long characterId) {
+        synchronized (lock) {
+            return discarded.contains(characterId);
+        }
+    }
+
+    /**
+     * 连续失败后的重试间隔：从刷新间隔开始每次翻倍，不超过 MAX_BACKOFF_MILLIS
+     */
+    private long backoffMillis() {
+        int doublings = Math.min(consecutiveFailures - 1, 20);
+        return Math.min(flushIntervalMillis << Math.max(doublings, 0), MAX_BACKOFF_MILLIS);
+    }
+
+    private void flushQuietly() {
+        synchronized (lock) {
+            if (consecutiveFailures > 0 && System.nanoTime() - retryAtNanos < 0) {
+                return;
+            }
+        }
+        try {
+            flush();
+        } catch (SQLException e) {
+            long delay;
+            synchronized (lock) {
+                delay = backoffMillis();
+            }
+            System.err.println("角色数据写回失败，" + delay + "ms 后重试: " + e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("角色数据写回出错: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 把写入失败的修改标记为脏数据后放回队列，排在之后新提交的修改之前；已被丢弃的角色不再放回
+     */
+    private void requeue(Map<Long, PendingWrites> failed) {
+        synchronized (lock) {
+            Map<Long, PendingWrites> merged = new LinkedHashMap<>();
+            for (Map.Entry<Long, PendingWrites> entry : failed.entrySet()) {
+                PendingWrites writes = entry.getValue();
+                if (discarded.contains(entry.getKey())) {
+                    continue;
+                }
+                if (writes.size() > 0) {
+                    writes.dirty = true;
+                    merged.put(entry.getKey(), writes);
+                }
+            }
+            for (Map.Entry<Long, PendingWrites> entry : pending.entrySet()) {
+                PendingWrites newer = entry.getValue();
+                PendingWrites older = merged.get(entry.getKey());
+                if (older == null) {
+                    merged.put(entry.getKey(), newer);
+                } else {
+                    older.unitInserts.addAll(newer.unitInserts);
+                    older.resourceInserts.addAll(newer.resourceInserts);
+                    if (newer.characterUpdate != null) {
+                        older.characterUpdate = newer.characterUpdate;
+                        older.character = newer.character;
+                    }
+                }
+            }
+            pending = merged;
+            inFlight = Collections.emptyMap();
+            inFlightCount = 0;
+            pendingCount = 0;
+            for (PendingWrites writes : merged.values()) {
+                pendingCount += writes.size();
+            }
+        }
+    }
+
+    /**
+     * 停止后台线程并同步写出所有剩余修改
+     * 写入失败时按退避间隔重试，直到成功；超过 SHUTDOWN_TIMEOUT_MILLIS 仍未写入则抛出 IllegalStateException
+     */
+    public void shutdown() {
+        ScheduledExecutorService executor;
+        synchronized (this) {
+            executor = scheduler;
+            scheduler = null;
+        }
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (lock) {
+            shutdown = true;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SHUTDOWN_TIMEOUT_MILLIS);
+        while (true) {
+            try {
+                flush();
+                return;
+            } catch (SQLException e) {
+                long delay;
+                synchronized (lock) {
+                    delay = backoffMillis();
+                }
+                if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay) - deadline > 0) {
+                    throw new IllegalStateException("关闭时仍有 " + getPendingCount() + " 项角色修改未能写入存储", e);
+                }
+                System.err.println("关闭时角色数据写回失败，" + delay + "ms 后重试: " + e.getMessage());
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("关闭时等待写回被中断，仍有 " + getPendingCount() + " 项角色修改未写入", e);
+                }
+            }
+        }
+    }
+
+    // ==================== 统计 ====================
+
+    /**
+     * 排队中和正在写入的修改数
+     */
+    public int getPendingCount() {
+        synchronized (lock) {
+            return pendingCount + inFlightCount;
+        }
+    }
+
+    public long getFlushCount() {
+        synchronized (lock) {
+            return flushCount;
+        }
+    }
+
+    public long getWrittenRows() {
+        synchronized (lock) {
+            return writtenRows;
+        }
+    }
+
+    public long getFailedFlushes() {
+        synchronized (lock) {
+            return failedFlushes;
+        }
+    }
+
+    /**
+     * 单个角色排队中的修改
+     */
+    private static class PendingWrites {
+        private final List<Object[]> unitInserts = new ArrayList<>();
+        private final List<Object[]> resourceInserts = new ArrayList<>();
+        private Object[] characterUpdate;
+        private Character character;    // 最近一次排队更新的角色对象
+        private boolean dirty;          // 写入失败过，数据库中的数据已过期
+
+        int size() {
+            return unitInserts.size() + resourceInserts.size() + (characterUpdate != null ? 1 : 0);
+        }
+    }
+}
@@ -1,41 +1,31 @@
 package service;
 
-import config.DatabaseConfig;
+import util.DatabaseUtil;
+
 import java.sql.*;
 
+/**
+ * @deprecated 已合并到 {@link util.DatabaseUtil}，多条语句的操作请使用
+ * {@link util.DatabaseUtil#inTransaction}
+ */
+@Deprecated
 public class DatabaseService {
 
     public static void executeUpdate(String sql, Object... params) throws SQLException {
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            for (int i = 0; i < params.length; i++) {
-                stmt.setObject(i + 1, params[i]);
-            }
-
-            stmt.executeUpdate();
-        }
+        DatabaseUtil.executeUpdate(sql, params);
     }
 
+    /**
+     * 返回已与连接断开的结果集副本，连接在返回前已归还连接池
+     *
+     * @deprecated 请使用 {@link util.DatabaseUtil#query} 或 {@link util.DatabaseUtil#stream}
+     */
+    @Deprecated
     public static ResultSet executeQuery(String sql, Object... params) throws SQLException {
-        Connection conn = DatabaseConfig.getConnection();
-        PreparedStatement stmt = conn.prepareStatement(sql);
-
-        for (int i = 0; i < params.length; i++) {
-            stmt.setObject(i + 1, params[i]);
-        }
-
-        return stmt.executeQuery();
+        return DatabaseUtil.executeQuery(sql, params);
     }
 
-    // 注意：调用方需要负责关闭ResultSet和Connection
     public static void closeResources(ResultSet rs, Statement stmt, Connection conn) {
-        try {
-            if (rs != null) rs.close();
-            if (stmt != null) stmt.close();
-            if (conn != null) conn.close();
-        } catch (SQLException e) {
-            System.err.println("关闭数据库资源时出错: " + e.getMessage());
-        }
+        DatabaseUtil.close(conn, stmt, rs);
     }
-}
\ No newline at end of file
+}
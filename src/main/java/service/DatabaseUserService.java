@@ -1,28 +1,42 @@
 package service;
 
+import config.AppProperties;
 import model.User;
-import util.DatabaseUtil;
+import storage.StorageFactory;
+import storage.UserStore;
+import util.LruCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.sql.*;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
 
 /**
  * 基于数据库的用户服务实现
- * 替代原有的内存版 UserService
+ * 替代原有的内存版 UserService，用户数据通过 storage.backend 配置的存储后端读写
+ *
+ * 按ID查询过的用户保存在进程内缓存中，当前登录用户保存在 UserSession 中，
+ * 权限检查不再每次查询数据库；通过本服务修改用户时会同步失效缓存并更新会话。
  */
 public class DatabaseUserService {
     private static final Logger logger = LoggerFactory.getLogger(DatabaseUserService.class);
+    private static final int DEFAULT_CACHE_SIZE = 1024;
     private static DatabaseUserService instance;
-    private long currentUserId;
+
+    private final UserStore store;
+    private final LruCache<Long, User> userCache;
+    private final AtomicLong queryCount = new AtomicLong();
+    private volatile UserSession session;
 
     private DatabaseUserService() {
-        // 私有构造函数
+        store = StorageFactory.getBackend().users();
+        userCache = new LruCache<>(Math.max(1, AppProperties.getInt("user.cache.maxSize", DEFAULT_CACHE_SIZE)));
     }
 
-    public static DatabaseUserService getInstance() {
+    public static synchronized DatabaseUserService getInstance() {
         if (instance == null) {
             instance = new DatabaseUserService();
         }
@@ -33,13 +47,9 @@ public class DatabaseUserService {
      * 检查用户名是否可用
      */
     public boolean isUsernameAvailable(String username) {
-        String sql = "SELECT COUNT(*) FROM users WHERE username = ?";
-
-        try (ResultSet rs = DatabaseUtil.executeQuery(sql, username)) {
-            if (rs.next()) {
-                return rs.getInt(1) == 0;
-            }
-            return true;
+        queryCount.incrementAndGet();
+        try {
+            return !store.existsByUsername(username);
         } catch (SQLException e) {
             logger.error("检查用户名是否存在失败: {}", username, e);
             return false;
@@ -69,13 +79,15 @@ public class DatabaseUserService {
         String salt = generateSalt();
         String passwordHash = hashPassword(password, salt);
 
-        String sql = "INSERT INTO users (id, username, password_hash, salt, permission_level, character_id) VALUES (?, ?, ?, ?, ?, ?)";
+        User user = new User(userId, username, passwordHash, salt, permissionLevel, characterId);
 
         try {
-            DatabaseUtil.executeUpdate(sql, userId, username, passwordHash, salt, permissionLevel, characterId);
+            queryCount.incrementAndGet();
+            store.insert(user);
             logger.info("用户注册成功: {}", username);
 
-            return new User(userId, username, passwordHash, salt, permissionLevel, characterId);
+            userCache.put(userId, user);
+            return user;
         } catch (SQLException e) {
             logger.error("用户注册失败: {}", username, e);
             throw new RuntimeException("用户注册失败", e);
@@ -86,50 +98,48 @@ public class DatabaseUserService {
      * 用户登录
      */
     public User login(String username, String password) {
-        String sql = "SELECT * FROM users WHERE username = ?";
-
-        try (ResultSet rs = DatabaseUtil.executeQuery(sql, username)) {
-            if (rs.next()) {
-                long userId = rs.getLong("id");
-                String storedHash = rs.getString("password_hash");
-                String salt = rs.getString("salt");
-                int permissionLevel = rs.getInt("permission_level");
-                long characterId = rs.getLong("character_id");
-
-                User user = new User(userId, username, storedHash, salt, permissionLevel, characterId);
-
-                if (user.verifyPassword(password)) {
-                    logger.info("用户登录成功: {}", username);
-                    return user;
-                } else {
-                    throw new IllegalArgumentException("密码错误");
-                }
-            } else {
-                throw new IllegalArgumentException("用户不存在");
-            }
+        User user;
+        queryCount.incrementAndGet();
+        try {
+            user = store.findByUsername(username);
         } catch (SQLException e) {
             logger.error("用户登录失败: {}", username, e);
             throw new RuntimeException("登录失败", e);
         }
+
+        if (user == null) {
+            throw new IllegalArgumentException("用户不存在");
+        }
+        if (!user.verifyPassword(password)) {
+            throw new IllegalArgumentException("密码错误");
+        }
+        userCache.put(user.getId(), user);
+        logger.info("用户登录成功: {}", username);
+        return user;
     }
 
     /**
-     * 根据ID获取用户
+     * 根据ID获取用户，优先读取缓存
      */
     public User getUserById(long id) {
-        String sql = "SELECT * FROM users WHERE id = ?";
-
-        try (ResultSet rs = DatabaseUtil.executeQuery(sql, id)) {
-            if (rs.next()) {
-                String username = rs.getString("username");
-                String passwordHash = rs.getString("password_hash");
-                String salt = rs.getString("salt");
-                int permissionLevel = rs.getInt("permission_level");
-                long characterId = rs.getLong("character_id");
+        User cached = userCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        return loadUserById(id);
+    }
 
-                return new User(id, username, passwordHash, salt, permissionLevel, characterId);
+    /**
+     * 绕过缓存从数据库读取用户，并刷新缓存
+     */
+    private User loadUserById(long id) {
+        queryCount.incrementAndGet();
+        try {
+            User user = store.findById(id);
+            if (user != null) {
+                userCache.put(id, user);
             }
-            return null;
+            return user;
         } catch (SQLException e) {
             logger.error("根据ID获取用户失败: {}", id, e);
             return null;
@@ -140,19 +150,11 @@ public class DatabaseUserService {
      * 获取所有用户
      */
     public List<User> getAllUsers() {
-        List<User> users = new ArrayList<>();
-        String sql = "SELECT * FROM users ORDER BY id";
-
-        try (ResultSet rs = DatabaseUtil.executeQuery(sql)) {
-            while (rs.next()) {
-                long id = rs.getLong("id");
-                String username = rs.getString("username");
-                String passwordHash = rs.getString("password_hash");
-                String salt = rs.getString("salt");
-                int permissionLevel = rs.getInt("permission_level");
-                long characterId = rs.getLong("character_id");
-
-                users.add(new User(id, username, passwordHash, salt, permissionLevel, characterId));
+        queryCount.incrementAndGet();
+        try {
+            List<User> users = store.findAll();
+            for (User user : users) {
+                userCache.put(user.getId(), user);
             }
             return users;
         } catch (SQLException e) {
@@ -165,12 +167,15 @@ public class DatabaseUserService {
      * 更新用户权限
      */
     public boolean updateUserPermission(long userId, int newPermissionLevel) {
-        String sql = "UPDATE users SET permission_level = ? WHERE id = ?";
-
         try {
-            int affectedRows = DatabaseUtil.executeUpdate(sql, newPermissionLevel, userId);
+            queryCount.incrementAndGet();
+            boolean updated = store.updatePermission(userId, newPermissionLevel);
             logger.info("更新用户权限: userId={}, newLevel={}", userId, newPermissionLevel);
-            return affectedRows > 0;
+            if (updated) {
+                applyUserChange(userId, user -> new User(user.getId(), user.getUsername(), user.getPasswordHash(),
+                        user.getSalt(), newPermissionLevel, user.getCharacterId()));
+            }
+            return updated;
         } catch (SQLException e) {
             logger.error("更新用户权限失败: {}", userId, e);
             return false;
@@ -181,24 +186,60 @@ public class DatabaseUserService {
      * 关联角色到用户
      */
     public boolean linkCharacterToUser(long userId, long characterId) {
-        String sql = "UPDATE users SET character_id = ? WHERE id = ?";
-
         try {
-            int affectedRows = DatabaseUtil.executeUpdate(sql, characterId, userId);
+            queryCount.incrementAndGet();
+            boolean updated = store.updateCharacterId(userId, characterId);
             logger.info("关联角色到用户: userId={}, characterId={}", userId, characterId);
-            return affectedRows > 0;
+            if (updated) {
+                applyUserChange(userId, user -> new User(user.getId(), user.getUsername(), user.getPasswordHash(),
+                        user.getSalt(), user.getPermissionLevel(), characterId));
+            }
+            return updated;
         } catch (SQLException e) {
             logger.error("关联角色到用户失败: userId={}", userId, e);
             return false;
         }
     }
 
+    /**
+     * 数据库更新成功后失效缓存中的旧用户对象，若是当前登录用户则同步更新会话
+     */
+    private void applyUserChange(long userId, UnaryOperator<User> change) {
+        userCache.remove(userId);
+        UserSession current = session;
+        if (current != null && current.getUserId() == userId) {
+            User updated = change.apply(current.getUser());
+            userCache.put(userId, updated);
+            session = current.withUser(updated);
+        }
+    }
+
+    /**
+     * 使某个用户的缓存失效（用户在其他地方被修改时调用），当前会话会从数据库重新加载
+     */
+    public void invalidateUser(long userId) {
+        userCache.remove(userId);
+        UserSession current = session;
+        if (current != null && current.getUserId() == userId) {
+            User reloaded = loadUserById(userId);
+            session = reloaded != null ? current.withUser(reloaded) : null;
+        }
+    }
+
+    /**
+     * 清空用户缓存，不影响当前会话
+     */
+    public void invalidateAllUsers() {
+        userCache.clear();
+    }
+
     /**
      * 设置当前用户
      */
     public void setCurrentUser(User user) {
         if (user != null) {
-            this.currentUserId = user.getId();
+            userCache.put(user.getId(), user);
+            this.session = new UserSession(user, System.currentTimeMillis());
         }
     }
 
@@ -208,24 +249,32 @@ public class DatabaseUserService {
     public boolean setCurrentUserId(long userId) {
         User user = getUserById(userId);
         if (user != null) {
-            this.currentUserId = userId;
+            this.session = new UserSession(user, System.currentTimeMillis());
             return true;
         }
         return false;
     }
 
     /**
-     * 获取当前登录用户
+     * 获取当前登录用户（读取会话，不查询数据库），未登录时返回 null
      */
     public User getCurrentUser() {
-        return getUserById(currentUserId);
+        UserSession current = session;
+        return current != null ? current.getUser() : null;
+    }
+
+    /**
+     * 获取当前登录会话，未登录时返回 null
+     */
+    public UserSession getSession() {
+        return session;
     }
 
     /**
      * 注销当前用户
      */
     public void logout() {
-        this.currentUserId = 0;
+        this.session = null;
     }
 
     /**
@@ -240,9 +289,21 @@ public class DatabaseUserService {
      * 获取当前用户ID
      */
     public long getCurrentUserId() {
-        return currentUserId;
+        UserSession current = session;
+        return current != null ? current.getUserId() : 0;
     }
 
+    // ==================== 统计 ====================
+
+    /**
+     * 本服务对存储后端发出的请求数（查询和更新）
+     */
+    public long getQueryCount() { return queryCount.get(); }
+    public void resetQueryCount() { queryCount.set(0); }
+    public long getCacheHitCount() { return userCache.getHitCount(); }
+    public long getCacheMissCount() { return userCache.getMissCount(); }
+    public int getCachedUserCount() { return userCache.size(); }
+
     // ==================== 辅助方法 ====================
 
     /**
@@ -296,19 +357,13 @@ public class DatabaseUserService {
      * 根据用户名获取用户
      */
     public User getUserByUsername(String username) {
-        String sql = "SELECT * FROM users WHERE username = ?";
-
-        try (ResultSet rs = DatabaseUtil.executeQuery(sql, username)) {
-            if (rs.next()) {
-                long id = rs.getLong("id");
-                String passwordHash = rs.getString("password_hash");
-                String salt = rs.getString("salt");
-                int permissionLevel = rs.getInt("permission_level");
-                long characterId = rs.getLong("character_id");
-
-                return new User(id, username, passwordHash, salt, permissionLevel, characterId);
+        queryCount.incrementAndGet();
+        try {
+            User user = store.findByUsername(username);
+            if (user != null) {
+                userCache.put(user.getId(), user);
             }
-            return null;
+            return user;
         } catch (SQLException e) {
             logger.error("根据用户名获取用户失败: {}", username, e);
             return null;
@@ -0,0 +1,210 @@
+package service;
+
+import storage.StorageBackend;
+import storage.StorageFactory;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 启动流程
+ * 在后台线程中依次打开存储后端（MySQL 时创建数据库和连接池）、校验表结构，之后并行预热角色缓存
+ * 和战役服务。主线程可以立即显示菜单：登录前只需等待 {@link #awaitUsers()}（用户表可用），
+ * 进入角色和战役功能前再等待 {@link #awaitServices()}。每个阶段的耗时记录在启动报告中。
+ */
+public class StartupPipeline {
+    private final long startNanos = System.nanoTime();
+    private final List<StageTiming> timings = new ArrayList<>();
+    private final ExecutorService executor;
+    private final CompletableFuture<StorageBackend> backendReady;
+    private final CompletableFuture<DatabaseUserService> usersReady;
+    private final CompletableFuture<CharacterService> charactersReady;
+    private final CompletableFuture<CampaignService> campaignsReady;
+    private volatile long firstPromptNanos;
+
+    private StartupPipeline() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "startup-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        backendReady = CompletableFuture.supplyAsync(() -> stage("打开存储后端", () -> {
+            StorageBackend backend = StorageFactory.getBackend();
+            if (!backend.testConnection()) {
+                throw new IllegalStateException("无法连接存储后端: " + backend.getName());
+            }
+            return backend;
+        }), executor);
+        usersReady = backendReady.thenApplyAsync(backend -> stage("校验表结构", () -> {
+            backend.initializeSchema();
+            return DatabaseUserService.getInstance();
+        }), executor);
+        charactersReady = usersReady.thenApplyAsync(users -> stage("加载角色", CharacterService::getInstance),
+                executor);
+        campaignsReady = usersReady.thenApplyAsync(users -> stage("初始化战役服务", CampaignService::getInstance),
+                executor);
+        CompletableFuture.allOf(charactersReady, campaignsReady)
+                .whenComplete((ignored, error) -> executor.shutdown());
+    }
+
+    /**
+     * 开始后台启动流程，立即返回
+     */
+    public static StartupPipeline start() {
+        return new StartupPipeline();
+    }
+
+    /**
+     * 等待用户表可用，登录和注册之前调用
+     */
+    public DatabaseUserService awaitUsers() throws StartupException {
+        return await(usersReady);
+    }
+
+    /**
+     * 等待角色缓存预热和战役服务初始化完成
+     */
+    public void awaitServices() throws StartupException {
+        await(charactersReady);
+        await(campaignsReady);
+    }
+
+    public boolean isServicesReady() {
+        return charactersReady.isDone() && campaignsReady.isDone();
+    }
+
+    /**
+     * 记录第一次显示菜单的时间，只记录第一次
+     */
+    public void markFirstPrompt() {
+        if (firstPromptNanos == 0) {
+            firstPromptNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * 等待后台阶段结束（忽略失败），关闭前调用，避免在预热过程中关闭连接池
+     */
+    public void awaitQuietly() {
+        try {
+            CompletableFuture.allOf(charactersReady, campaignsReady).join();
+        } catch (CompletionException | CancellationException e) {
+            // 失败已在启动报告中记录
+        }
+    }
+
+    /**
+     * 角色服务，启动失败或尚未完成时返回 null
+     */
+    public CharacterService getCharacterService() {
+        return charactersReady.isDone() && !charactersReady.isCompletedExceptionally()
+                ? charactersReady.join() : null;
+    }
+
+    /**
+     * 存储后端，打开失败或尚未完成时返回 null
+     */
+    public StorageBackend getBackend() {
+        return backendReady.isDone() && !backendReady.isCompletedExceptionally()
+                ? backendReady.join() : null;
+    }
+
+    public List<StageTiming> getTimings() {
+        synchronized (timings) {
+            return new ArrayList<>(timings);
+        }
+    }
+
+    /**
+     * 启动报告：各阶段的开始时间（相对启动）、耗时和结果
+     */
+    public String getReport() {
+        StringBuilder report = new StringBuilder("启动阶段耗时:\n");
+        for (StageTiming timing : getTimings()) {
+            report.append(String.format("  %-10s 开始 +%d ms, 耗时 %d ms%s\n", timing.getName(),
+                    timing.getStartMillis(), timing.getElapsedMillis(), timing.isSucceeded() ? "" : "（失败）"));
+        }
+        if (firstPromptNanos != 0) {
+            report.append(String.format("  首个菜单显示于 +%d ms\n", (firstPromptNanos - startNanos) / 1_000_000));
+        }
+        CharacterService characters = getCharacterService();
+        if (characters != null && !characters.isLazyLoading()) {
+            report.append(String.format("  已加载 %d 个角色\n", characters.getCachedCount()));
+        }
+        return report.toString();
+    }
+
+    private <T> T stage(String name, Stage<T> work) {
+        long start = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            T result = work.run();
+            succeeded = true;
+            return result;
+        } catch (SQLException e) {
+            throw new CompletionException(e);
+        } finally {
+            long end = System.nanoTime();
+            synchronized (timings) {
+                timings.add(new StageTiming(name, (start - startNanos) / 1_000_000,
+                        (end - start) / 1_000_000, succeeded));
+            }
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws StartupException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw new StartupException(cause.getMessage(), cause);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Stage<T> {
+        T run() throws SQLException;
+    }
+
+    /**
+     * 启动阶段的耗时记录
+     */
+    public static class StageTiming {
+        private final String name;
+        private final long startMillis;
+        private final long elapsedMillis;
+        private final boolean succeeded;
+
+        private StageTiming(String name, long startMillis, long elapsedMillis, boolean succeeded) {
+            this.name = name;
+            this.startMillis = startMillis;
+            this.elapsedMillis = elapsedMillis;
+            this.succeeded = succeeded;
+        }
+
+        public String getName() { return name; }
+        public long getStartMillis() { return startMillis; }
+        public long getElapsedMillis() { return elapsedMillis; }
+        public boolean isSucceeded() { return succeeded; }
+    }
+
+    /**
+     * 启动阶段失败
+     */
+    public static class StartupException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        public StartupException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
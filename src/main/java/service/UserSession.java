@@ -0,0 +1,35 @@
+package service;
+
+import model.User;
+
+/**
+ * 登录会话
+ * 保存已认证的用户对象，权限检查直接读取内存，不再每次查询数据库。
+ * 会话本身不可变，用户信息变化时由 DatabaseUserService 替换为新的会话。
+ */
+public class UserSession {
+    private final User user;
+    private final long loginTime;
+
+    UserSession(User user, long loginTime) {
+        if (user == null) {
+            throw new IllegalArgumentException("会话用户不能为空");
+        }
+        this.user = user;
+        this.loginTime = loginTime;
+    }
+
+    /**
+     * 以新的用户信息替换当前会话，保留登录时间
+     */
+    UserSession withUser(User updated) {
+        return new UserSession(updated, loginTime);
+    }
+
+    public User getUser() { return user; }
+    public long getUserId() { return user.getId(); }
+    public long getCharacterId() { return user.getCharacterId(); }
+    public boolean isManager() { return user.isManager(); }
+    public boolean hasLinkedCharacter() { return user.getCharacterId() != 0; }
+    public long getLoginTime() { return loginTime; }
+}
@@ -0,0 +1,53 @@
+package storage;
+
+import model.Campaign;
+import model.CampaignStatus;
+import model.EnemyBatch;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * 战役存储
+ * 每个写入方法都是原子的：战役及其参与者、敌人批次要么全部写入，要么都不写入。
+ */
+public interface CampaignStore {
+
+    /**
+     * 已使用的最大战役ID，没有战役时返回 0
+     */
+    long findMaxId() throws SQLException;
+
+    /**
+     * 保存新战役及其参与者和敌人批次
+     */
+    void insert(Campaign campaign) throws SQLException;
+
+    /**
+     * 加入新的参与者并更新战役状态
+     */
+    void updateStatus(long campaignId, CampaignStatus status, int currentBatchIndex,
+                      List<Long> newParticipantIds) throws SQLException;
+
+    /**
+     * 为战役追加一个敌人批次及其单位
+     */
+    void addEnemyBatch(long campaignId, EnemyBatch batch) throws SQLException;
+
+    /**
+     * 按ID查询战役，不存在时返回 null
+     */
+    Campaign findById(long id) throws SQLException;
+
+    /**
+     * 按状态查询，不扫描全部战役
+     */
+    List<Campaign> findByStatus(CampaignStatus status) throws SQLException;
+
+    /**
+     * 按创建者角色查询
+     */
+    List<Campaign> findByCreator(long creatorId) throws SQLException;
+
+    List<Campaign> findAll() throws SQLException;
+}
@@ -0,0 +1,160 @@
+package storage;
+
+import model.Character;
+import model.Resource;
+import model.Unit;
+import util.DatabaseUtil;
+import util.RowCallback;
+import util.RowMapper;
+import util.UnitOfWork;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 角色批量加载器
+ * 用一个连接上的三条集合查询（角色、单位、物资）加载全部角色并在内存中组装，
+ * 代替逐个角色查询单位和物资的 2N+1 次往返。查询结果以流式方式读取，不会一次性缓存整张表。
+ * 供 MySqlCharacterStore 使用。
+ */
+public class CharacterBulkLoader {
+    private static final String SELECT_UNITS =
+            "SELECT character_id, name, type, count FROM units ORDER BY character_id, id";
+    private static final String SELECT_RESOURCES =
+            "SELECT character_id, name, quantity FROM resources ORDER BY character_id, id";
+    private static final String SELECT_CHARACTERS =
+            "SELECT id, name, title, faction FROM characters ORDER BY id";
+
+    /**
+     * 加载全部角色（从连接池借用一个连接）
+     */
+    public LoadResult loadAll() throws SQLException {
+        return DatabaseUtil.withConnection(this::loadAll);
+    }
+
+    /**
+     * 在调用方打开的工作单元内加载全部角色
+     */
+    public LoadResult loadAll(UnitOfWork unit) throws SQLException {
+        long start = System.nanoTime();
+
+        Map<Long, List<Unit>> unitsByCharacter = new HashMap<>();
+        long unitCount = unit.stream(SELECT_UNITS, DatabaseUtil.STREAM_ROW_BY_ROW, rs ->
+                unitsByCharacter.computeIfAbsent(rs.getLong("character_id"), id -> new ArrayList<>())
+                        .add(RowMappers.UNIT.map(rs)));
+        long unitsLoaded = System.nanoTime();
+
+        Map<Long, List<Resource>> resourcesByCharacter = new HashMap<>();
+        long resourceCount = unit.stream(SELECT_RESOURCES, DatabaseUtil.STREAM_ROW_BY_ROW, rs ->
+                resourcesByCharacter.computeIfAbsent(rs.getLong("character_id"), id -> new ArrayList<>())
+                        .add(RowMappers.RESOURCE.map(rs)));
+        long resourcesLoaded = System.nanoTime();
+
+        List<Character> characters = new ArrayList<>();
+        int[] skipped = new int[1];
+        unit.stream(SELECT_CHARACTERS, DatabaseUtil.STREAM_ROW_BY_ROW,
+                mapValid(RowMappers.character(unitsByCharacter, resourcesByCharacter), characters, skipped));
+        long charactersLoaded = System.nanoTime();
+
+        return new LoadResult(characters, (int) unitCount, (int) resourceCount, skipped[0],
+                unitsLoaded - start, resourcesLoaded - unitsLoaded, charactersLoaded - resourcesLoaded);
+    }
+
+    /**
+     * 按主键游标分页加载角色（WHERE id > ? ORDER BY id LIMIT ?），
+     * 并用 IN 查询一次取回本页所有角色的单位和物资
+     *
+     * @param afterId 上一页最后一个角色的ID，第一页传 0
+     * @param limit 最多返回的角色数
+     */
+    public CharacterPage loadPage(UnitOfWork unit, long afterId, int limit) throws SQLException {
+        List<Long> ids = unit.query("SELECT id FROM characters WHERE id > ? ORDER BY id LIMIT ?",
+                RowMappers.LONG, afterId, limit);
+        if (ids.isEmpty()) {
+            return new CharacterPage(new ArrayList<>(), afterId, false);
+        }
+
+        Object[] idParams = ids.toArray();
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        Map<Long, List<Unit>> unitsByCharacter = new HashMap<>();
+        unit.stream("SELECT character_id, name, type, count FROM units WHERE character_id IN ("
+                        + placeholders + ") ORDER BY character_id, id", 0,
+                rs -> unitsByCharacter.computeIfAbsent(rs.getLong("character_id"), id -> new ArrayList<>())
+                        .add(RowMappers.UNIT.map(rs)), idParams);
+        Map<Long, List<Resource>> resourcesByCharacter = new HashMap<>();
+        unit.stream("SELECT character_id, name, quantity FROM resources WHERE character_id IN ("
+                        + placeholders + ") ORDER BY character_id, id", 0,
+                rs -> resourcesByCharacter.computeIfAbsent(rs.getLong("character_id"), id -> new ArrayList<>())
+                        .add(RowMappers.RESOURCE.map(rs)), idParams);
+
+        List<Character> characters = new ArrayList<>(ids.size());
+        unit.stream("SELECT id, name, title, faction FROM characters WHERE id IN ("
+                        + placeholders + ") ORDER BY id", 0,
+                mapValid(RowMappers.character(unitsByCharacter, resourcesByCharacter), characters, new int[1]),
+                idParams);
+        long lastId = ids.get(ids.size() - 1);
+        return new CharacterPage(characters, lastId, ids.size() == limit);
+    }
+
+    /**
+     * 映射角色行，跳过数据无效（如未知阵营、空名称）的行
+     */
+    private static RowCallback mapValid(RowMapper<Character> mapper, List<Character> characters,
+                                             int[] skipped) {
+        return rs -> {
+            try {
+                characters.add(mapper.map(rs));
+            } catch (IllegalArgumentException e) {
+                skipped[0]++;
+                System.err.println("跳过无效的角色数据 " + rs.getLong("id") + ": " + e.getMessage());
+            }
+        };
+    }
+
+    /**
+     * 加载结果及统计
+     */
+    public static class LoadResult {
+        private static final int QUERY_COUNT = 3;
+
+        private final List<Character> characters;
+        private final int unitCount;
+        private final int resourceCount;
+        private final int skippedCount;
+        private final long unitsNanos;
+        private final long resourcesNanos;
+        private final long charactersNanos;
+
+        private LoadResult(List<Character> characters, int unitCount, int resourceCount, int skippedCount,
+                           long unitsNanos, long resourcesNanos, long charactersNanos) {
+            this.characters = characters;
+            this.unitCount = unitCount;
+            this.resourceCount = resourceCount;
+            this.skippedCount = skippedCount;
+            this.unitsNanos = unitsNanos;
+            this.resourcesNanos = resourcesNanos;
+            this.charactersNanos = charactersNanos;
+        }
+
+        public List<Character> getCharacters() { return Collections.unmodifiableList(characters); }
+        public int getCharacterCount() { return characters.size(); }
+        public int getUnitCount() { return unitCount; }
+        public int getResourceCount() { return resourceCount; }
+        public int getSkippedCount() { return skippedCount; }
+        public int getQueryCount() { return QUERY_COUNT; }
+        public int getConnectionCount() { return 1; }
+        public long getTotalNanos() { return unitsNanos + resourcesNanos + charactersNanos; }
+
+        @Override
+        public String toString() {
+            return String.format("从数据库加载 %d 个角色（%d 个单位，%d 项物资），%d 条查询 / %d 个连接，耗时 %d ms（单位 %d ms，物资 %d ms，角色 %d ms）",
+                    characters.size(), unitCount, resourceCount, QUERY_COUNT, getConnectionCount(),
+                    getTotalNanos() / 1_000_000, unitsNanos / 1_000_000,
+                    resourcesNanos / 1_000_000, charactersNanos / 1_000_000);
+        }
+    }
+}
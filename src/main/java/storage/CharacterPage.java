@@ -0,0 +1,26 @@
+package storage;
+
+import model.Character;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 角色分页结果
+ * nextCursor 为本页最后一行的ID（包括被跳过的无效行），作为下一页的 afterId
+ */
+public class CharacterPage {
+    private final List<Character> characters;
+    private final long nextCursor;
+    private final boolean hasMore;
+
+    public CharacterPage(List<Character> characters, long nextCursor, boolean hasMore) {
+        this.characters = characters;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<Character> getCharacters() { return Collections.unmodifiableList(characters); }
+    public long getNextCursor() { return nextCursor; }
+    public boolean hasMore() { return hasMore; }
+}
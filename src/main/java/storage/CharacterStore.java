@@ -0,0 +1,67 @@
+package storage;
+
+import model.Character;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * 角色存储
+ * 批量写入方法的每一行参数按对应表的列顺序排列，与写回队列排队的内容一致。
+ */
+public interface CharacterStore {
+
+    /**
+     * 已使用的最大角色ID，没有角色时返回 0
+     */
+    long findMaxId() throws SQLException;
+
+    /**
+     * 加载全部角色（含单位和物资）
+     */
+    List<Character> loadAll() throws SQLException;
+
+    /**
+     * 按主键游标分页加载角色
+     *
+     * @param afterId 上一页最后一个角色的ID，第一页传 0
+     * @param limit 最多返回的角色数
+     */
+    CharacterPage loadPage(long afterId, int limit) throws SQLException;
+
+    /**
+     * 按ID加载角色，不存在时返回 null
+     */
+    Character findById(long id) throws SQLException;
+
+    void insert(Character character) throws SQLException;
+
+    /**
+     * 删除角色及其单位和物资
+     *
+     * @return 角色是否存在
+     */
+    boolean delete(long id) throws SQLException;
+
+    /**
+     * 批量新增单位，每行为 (character_id, name, type, count)
+     */
+    void insertUnits(List<Object[]> rows) throws SQLException;
+
+    /**
+     * 批量新增物资，每行为 (character_id, name, quantity)
+     */
+    void insertResources(List<Object[]> rows) throws SQLException;
+
+    /**
+     * 批量更新角色信息，每行为 (name, title, faction, updated_at, id)
+     */
+    void updateCharacters(List<Object[]> rows) throws SQLException;
+
+    /**
+     * 在一个事务内写入一批单位、物资和角色更新，要么全部写入，要么全部不写入
+     * 各列表的行格式与 insertUnits、insertResources、updateCharacters 相同，可以为空
+     */
+    void applyWrites(List<Object[]> unitRows, List<Object[]> resourceRows,
+                     List<Object[]> characterUpdates) throws SQLException;
+}
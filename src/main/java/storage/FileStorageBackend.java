@@ -0,0 +1,934 @@
+package storage;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import model.Campaign;
+import model.CampaignStatus;
+import model.Character;
+import model.EnemyBatch;
+import model.Faction;
+import model.Resource;
+import model.Unit;
+import model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 本地文件存储后端
+ * 所有修改以 JSON 行的形式追加写入一个日志文件，启动时重放日志在内存中重建数据和索引
+ * （角色、用户、战役按主键有序，战役另有按状态和创建者的索引，用户有按用户名的索引）。
+ * 不需要外部数据库，适合基准测试、本地运行和单机部署。
+ *
+ * 一次写入操作产生的日志行一起写出，先写日志再修改内存；包含多条记录的操作先写一行带记录数的事务标记，
+ * 重放时只有读满全部记录的操作才会生效。写入失败时把文件截断回写入前的长度，
+ * 因此日志中只有末尾可能出现因异常退出而写坏的行或不完整的操作，启动时丢弃。
+ * 日志中的过期记录超过有效记录的两倍时，启动时会把当前数据重写为一份快照，快照刷盘后再原子替换日志文件。
+ */
+public class FileStorageBackend implements StorageBackend {
+    private static final Logger logger = LoggerFactory.getLogger(FileStorageBackend.class);
+    private static final int COMPACT_MIN_RECORDS = 1000;
+
+    // 日志操作类型
+    private static final String OP_CHARACTER = "character";
+    private static final String OP_CHARACTER_UPDATE = "character.update";
+    private static final String OP_CHARACTER_DELETE = "character.delete";
+    private static final String OP_UNIT = "unit";
+    private static final String OP_RESOURCE = "resource";
+    private static final String OP_USER = "user";
+    private static final String OP_USER_PERMISSION = "user.permission";
+    private static final String OP_USER_CHARACTER = "user.character";
+    private static final String OP_CAMPAIGN = "campaign";
+    private static final String OP_CAMPAIGN_STATUS = "campaign.status";
+    private static final String OP_CAMPAIGN_BATCH = "campaign.batch";
+    private static final String OP_TRANSACTION = "tx";   // 多记录操作的开始标记，count 为之后的记录数
+
+    private final Gson gson = new Gson();
+    private final Path path;
+    private final boolean fsync;
+    private final Object lock = new Object();
+
+    private final NavigableMap<Long, CharacterRow> characters = new TreeMap<>();
+    private final NavigableMap<Long, UserRow> users = new TreeMap<>();
+    private final Map<String, Long> userIdsByName = new HashMap<>();
+    private final NavigableMap<Long, CampaignRow> campaigns = new TreeMap<>();
+    private final Map<String, TreeSet<Long>> campaignIdsByStatus = new HashMap<>();
+    private final Map<Long, TreeSet<Long>> campaignIdsByCreator = new HashMap<>();
+
+    private FileOutputStream output;
+    private BufferedWriter writer;
+    private long logRecords;
+
+    private final CharacterStore characterStore = new FileCharacterStore();
+    private final UserStore userStore = new FileUserStore();
+    private final CampaignStore campaignStore = new FileCampaignStore();
+
+    /**
+     * @param path 日志文件路径，不存在时创建
+     * @param fsync 每次写入后是否强制刷到磁盘
+     */
+    public FileStorageBackend(Path path, boolean fsync) {
+        this.path = path;
+        this.fsync = fsync;
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            boolean damagedTail = replay();
+            if (damagedTail || logRecords > Math.max(COMPACT_MIN_RECORDS, 2L * liveRecords())) {
+                compact();
+            } else {
+                openWriter();
+            }
+        } catch (IOException e) {
+            logger.error("打开本地存储失败: {}", path, e);
+            throw new RuntimeException("打开本地存储失败: " + path, e);
+        }
+        logger.info("本地存储已打开: {}（{} 个角色，{} 个用户，{} 个战役）",
+                path, characters.size(), users.size(), campaigns.size());
+    }
+
+    @Override
+    public String getName() {
+        return "本地文件 " + path;
+    }
+
+    @Override
+    public boolean testConnection() {
+        synchronized (lock) {
+            return writer != null;
+        }
+    }
+
+    /**
+     * 重放日志时已建立全部数据和索引，没有需要校验的结构
+     */
+    @Override
+    public void initializeSchema() {
+    }
+
+    @Override
+    public CharacterStore characters() { return characterStore; }
+
+    @Override
+    public UserStore users() { return userStore; }
+
+    @Override
+    public CampaignStore campaigns() { return campaignStore; }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (writer == null) {
+                return;
+            }
+            try {
+                writer.close();
+            } catch (IOException e) {
+                logger.error("关闭本地存储失败", e);
+            }
+            writer = null;
+            output = null;
+        }
+    }
+
+    /**
+     * 把当前数据重写为快照并替换日志文件
+     */
+    public void compact() throws IOException {
+        synchronized (lock) {
+            if (writer != null) {
+                writer.close();
+                writer = null;
+            }
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            long written = 0;
+            try (FileOutputStream out = new FileOutputStream(temp.toFile());
+                 BufferedWriter snapshot = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+                for (CharacterRow row : characters.values()) {
+                    written += writeLine(snapshot, LogRecord.of(OP_CHARACTER).character(row));
+                }
+                for (UserRow row : users.values()) {
+                    written += writeLine(snapshot, LogRecord.of(OP_USER).user(row));
+                }
+                for (CampaignRow row : campaigns.values()) {
+                    written += writeLine(snapshot, LogRecord.of(OP_CAMPAIGN).campaign(row));
+                }
+                // 快照内容落盘后才能替换旧日志，否则掉电后可能只剩一个空文件
+                snapshot.flush();
+                out.getChannel().force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory();
+            logger.info("本地存储已压缩: {} 条记录 -> {} 条", logRecords, written);
+            logRecords = written;
+            openWriter();
+        }
+    }
+
+    public long getLogRecordCount() {
+        synchronized (lock) {
+            return logRecords;
+        }
+    }
+
+    // ==================== 日志 ====================
+
+    /**
+     * 把目录项的修改（压缩后的文件替换）刷到磁盘，文件系统不支持打开目录时只记录警告
+     */
+    private void syncDirectory() {
+        Path directory = path.toAbsolutePath().getParent();
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            logger.warn("无法刷新目录到磁盘: {}", directory, e);
+        }
+    }
+
+    /**
+     * 重放日志文件
+     *
+     * @return 日志末尾是否有损坏的行或不完整的多记录操作（已丢弃）
+     */
+    private boolean replay() throws IOException {
+        if (!Files.exists(path)) {
+            return false;
+        }
+        int lineNumber = 0;
+        int badLine = 0;
+        int transactionLine = 0;                      // 未完成的多记录操作的标记所在行
+        int remaining = 0;                            // 该操作还缺少的记录数
+        List<LogRecord> transaction = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (badLine != 0) {
+                    throw new IOException("日志文件第 " + badLine + " 行损坏: " + path);
+                }
+                try {
+                    LogRecord record = gson.fromJson(line, LogRecord.class);
+                    if (OP_TRANSACTION.equals(record.op)) {
+                        if (remaining != 0) {
+                            throw new IOException("日志文件第 " + transactionLine + " 行开始的操作不完整: " + path);
+                        }
+                        if (record.count == null || record.count <= 0) {
+                            throw new IllegalArgumentException("事务标记缺少记录数");
+                        }
+                        transactionLine = lineNumber;
+                        remaining = record.count;
+                    } else if (remaining != 0) {
+                        transaction.add(record);
+                        if (--remaining == 0) {
+                            for (LogRecord member : transaction) {
+                                apply(member);
+                            }
+                            logRecords += transaction.size();
+                            transaction.clear();
+                        }
+                    } else {
+                        apply(record);
+                        logRecords++;
+                    }
+                } catch (JsonParseException | NullPointerException | IllegalArgumentException e) {
+                    badLine = lineNumber;
+                }
+            }
+        }
+        if (badLine != 0) {
+            // 只有最后一行损坏：视为上次写入中断，丢弃后重写日志
+            logger.warn("丢弃本地存储日志末尾损坏的记录（第 {} 行）", badLine);
+            return true;
+        }
+        if (remaining != 0) {
+            logger.warn("丢弃本地存储日志末尾不完整的操作（第 {} 行起的 {} 条记录）",
+                    transactionLine, transaction.size());
+            return true;
+        }
+        return false;
+    }
+
+    private void openWriter() throws IOException {
+        output = new FileOutputStream(path.toFile(), true);
+        writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 追加一次操作的全部日志行并应用到内存
+     * 多条记录前写一行事务标记；写入失败时截断回写入前的长度，不在日志中间留下不完整的操作
+     */
+    private void append(List<LogRecord> records) throws SQLException {
+        if (writer == null) {
+            throw new SQLException("本地存储已关闭");
+        }
+        long length = -1;
+        try {
+            length = output.getChannel().size();
+            if (records.size() > 1) {
+                writeLine(writer, LogRecord.of(OP_TRANSACTION).count(records.size()));
+            }
+            for (LogRecord record : records) {
+                writeLine(writer, record);
+            }
+            writer.flush();
+            if (fsync) {
+                output.getFD().sync();
+            }
+        } catch (IOException e) {
+            if (length >= 0) {
+                discardPartialWrite(length);
+            }
+            throw new SQLException("写入本地存储失败: " + e.getMessage(), e);
+        }
+        for (LogRecord record : records) {
+            apply(record);
+        }
+        logRecords += records.size();
+    }
+
+    private void append(LogRecord record) throws SQLException {
+        append(List.of(record));
+    }
+
+    /**
+     * 丢弃写入失败的操作：截断日志并重新打开（不刷出缓冲区中的残留内容），截断失败时关闭存储
+     */
+    private void discardPartialWrite(long length) {
+        try {
+            output.getChannel().truncate(length);
+            output.close();
+            openWriter();
+        } catch (IOException e) {
+            logger.error("回滚本地存储日志失败，存储已关闭: {}", path, e);
+            try {
+                output.close();
+            } catch (IOException ignored) {
+                // 已经在关闭失败的存储
+            }
+            writer = null;
+            output = null;
+        }
+    }
+
+    private int writeLine(BufferedWriter out, LogRecord record) throws IOException {
+        out.write(gson.toJson(record));
+        out.newLine();
+        return 1;
+    }
+
+    private long liveRecords() {
+        return characters.size() + users.size() + campaigns.size();
+    }
+
+    private void apply(LogRecord record) {
+        switch (record.op) {
+            case OP_CHARACTER:
+                characters.put(record.character.id, record.character);
+                break;
+            case OP_CHARACTER_UPDATE: {
+                CharacterRow row = characters.get(record.id);
+                if (row != null) {
+                    row.name = record.name;
+                    row.title = record.title;
+                    row.faction = record.faction;
+                }
+                break;
+            }
+            case OP_CHARACTER_DELETE:
+                characters.remove(record.id);
+                for (CampaignRow campaign : campaigns.values()) {
+                    campaign.participants.remove(record.id);
+                }
+                break;
+            case OP_UNIT: {
+                CharacterRow row = characters.get(record.id);
+                if (row != null) {
+                    row.units.add(record.unit);
+                }
+                break;
+            }
+            case OP_RESOURCE: {
+                CharacterRow row = characters.get(record.id);
+                if (row != null) {
+                    row.resources.add(record.resource);
+                }
+                break;
+            }
+            case OP_USER:
+                users.put(record.user.id, record.user);
+                userIdsByName.put(record.user.username, record.user.id);
+                break;
+            case OP_USER_PERMISSION:
+                users.get(record.id).permissionLevel = record.permissionLevel;
+                break;
+            case OP_USER_CHARACTER:
+                users.get(record.id).characterId = record.characterId;
+                break;
+            case OP_CAMPAIGN:
+                campaigns.put(record.campaign.id, record.campaign);
+                campaignIdsByStatus.computeIfAbsent(record.campaign.status, s -> new TreeSet<>()).add(record.campaign.id);
+                campaignIdsByCreator.computeIfAbsent(record.campaign.creatorId, c -> new TreeSet<>()).add(record.campaign.id);
+                break;
+            case OP_CAMPAIGN_STATUS: {
+                CampaignRow row = campaigns.get(record.id);
+                campaignIdsByStatus.get(row.status).remove(row.id);
+                row.status = record.status;
+                row.currentBatchIndex = record.currentBatchIndex;
+                row.participants.addAll(record.participants);
+                campaignIdsByStatus.computeIfAbsent(row.status, s -> new TreeSet<>()).add(row.id);
+                break;
+            }
+            case OP_CAMPAIGN_BATCH:
+                campaigns.get(record.id).batches.add(record.batch);
+                break;
+            default:
+                throw new IllegalArgumentException("未知的日志操作: " + record.op);
+        }
+    }
+
+    // ==================== 角色 ====================
+
+    private class FileCharacterStore implements CharacterStore {
+
+        @Override
+        public long findMaxId() {
+            synchronized (lock) {
+                return characters.isEmpty() ? 0 : characters.lastKey();
+            }
+        }
+
+        @Override
+        public List<Character> loadAll() {
+            synchronized (lock) {
+                List<Character> result = new ArrayList<>(characters.size());
+                for (CharacterRow row : characters.values()) {
+                    result.add(row.toCharacter());
+                }
+                return result;
+            }
+        }
+
+        @Override
+        public CharacterPage loadPage(long afterId, int limit) {
+            synchronized (lock) {
+                List<Character> page = new ArrayList<>(limit);
+                for (CharacterRow row : characters.tailMap(afterId, false).values()) {
+                    if (page.size() == limit) {
+                        return new CharacterPage(page, page.get(page.size() - 1).getId(), true);
+                    }
+                    page.add(row.toCharacter());
+                }
+                long cursor = page.isEmpty() ? afterId : page.get(page.size() - 1).getId();
+                return new CharacterPage(page, cursor, false);
+            }
+        }
+
+        @Override
+        public Character findById(long id) {
+            synchronized (lock) {
+                CharacterRow row = characters.get(id);
+                return row != null ? row.toCharacter() : null;
+            }
+        }
+
+        @Override
+        public void insert(Character character) throws SQLException {
+            synchronized (lock) {
+                if (characters.containsKey(character.getId())) {
+                    throw new SQLException("角色ID已存在: " + character.getId());
+                }
+                append(LogRecord.of(OP_CHARACTER).character(CharacterRow.of(character)));
+            }
+        }
+
+        @Override
+        public boolean delete(long id) throws SQLException {
+            synchronized (lock) {
+                if (!characters.containsKey(id)) {
+                    return false;
+                }
+                append(LogRecord.of(OP_CHARACTER_DELETE).id(id));
+                return true;
+            }
+        }
+
+        @Override
+        public void insertUnits(List<Object[]> rows) throws SQLException {
+            List<LogRecord> records = unitRecords(rows);
+            synchronized (lock) {
+                requireCharacters(records);
+                append(records);
+            }
+        }
+
+        @Override
+        public void insertResources(List<Object[]> rows) throws SQLException {
+            List<LogRecord> records = resourceRecords(rows);
+            synchronized (lock) {
+                requireCharacters(records);
+                append(records);
+            }
+        }
+
+        @Override
+        public void updateCharacters(List<Object[]> rows) throws SQLException {
+            List<LogRecord> records = updateRecords(rows);
+            synchronized (lock) {
+                append(records);
+            }
+        }
+
+        /**
+         * 三类记录校验通过后一次追加到日志，只写一次文件
+         */
+        @Override
+        public void applyWrites(List<Object[]> unitRows, List<Object[]> resourceRows,
+                                List<Object[]> characterUpdates) throws SQLException {
+            List<LogRecord> inserts = unitRecords(unitRows);
+            inserts.addAll(resourceRecords(resourceRows));
+            List<LogRecord> records = new ArrayList<>(inserts);
+            records.addAll(updateRecords(characterUpdates));
+            if (records.isEmpty()) {
+                return;
+            }
+            synchronized (lock) {
+                requireCharacters(inserts);
+                append(records);
+            }
+        }
+
+        private List<LogRecord> unitRecords(List<Object[]> rows) {
+            List<LogRecord> records = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                records.add(LogRecord.of(OP_UNIT).id((Long) row[0])
+                        .unit(UnitRow.of((String) row[1], (String) row[2], (Integer) row[3])));
+            }
+            return records;
+        }
+
+        private List<LogRecord> resourceRecords(List<Object[]> rows) {
+            List<LogRecord> records = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                ResourceRow resource = new ResourceRow();
+                resource.name = (String) row[1];
+                resource.quantity = (Integer) row[2];
+                records.add(LogRecord.of(OP_RESOURCE).id((Long) row[0]).resource(resource));
+            }
+            return records;
+        }
+
+        private List<LogRecord> updateRecords(List<Object[]> rows) {
+            List<LogRecord> records = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                LogRecord record = LogRecord.of(OP_CHARACTER_UPDATE).id((Long) row[4]);
+                record.name = (String) row[0];
+                record.title = (String) row[1];
+                record.faction = (String) row[2];
+                records.add(record);
+            }
+            return records;
+        }
+
+        /**
+         * 与数据库外键约束一致：单位和物资必须属于已存在的角色
+         */
+        private void requireCharacters(List<LogRecord> records) throws SQLException {
+            for (LogRecord record : records) {
+                if (!characters.containsKey(record.id)) {
+                    throw new SQLException("角色不存在: " + record.id);
+                }
+            }
+        }
+    }
+
+    // ==================== 用户 ====================
+
+    private class FileUserStore implements UserStore {
+
+        @Override
+        public boolean existsByUsername(String username) {
+            synchronized (lock) {
+                return userIdsByName.containsKey(username);
+            }
+        }
+
+        @Override
+        public User findById(long id) {
+            synchronized (lock) {
+                UserRow row = users.get(id);
+                return row != null ? row.toUser() : null;
+            }
+        }
+
+        @Override
+        public User findByUsername(String username) {
+            synchronized (lock) {
+                Long id = userIdsByName.get(username);
+                return id != null ? users.get(id).toUser() : null;
+            }
+        }
+
+        @Override
+        public List<User> findAll() {
+            synchronized (lock) {
+                List<User> result = new ArrayList<>(users.size());
+                for (UserRow row : users.values()) {
+                    result.add(row.toUser());
+                }
+                return result;
+            }
+        }
+
+        @Override
+        public void insert(User user) throws SQLException {
+            synchronized (lock) {
+                if (users.containsKey(user.getId()) || userIdsByName.containsKey(user.getUsername())) {
+                    throw new SQLException("用户已存在: " + user.getUsername());
+                }
+                append(LogRecord.of(OP_USER).user(UserRow.of(user)));
+            }
+        }
+
+        @Override
+        public boolean updatePermission(long userId, int permissionLevel) throws SQLException {
+            synchronized (lock) {
+                if (!users.containsKey(userId)) {
+                    return false;
+                }
+                LogRecord record = LogRecord.of(OP_USER_PERMISSION).id(userId);
+                record.permissionLevel = permissionLevel;
+                append(record);
+                return true;
+            }
+        }
+
+        @Override
+        public boolean updateCharacterId(long userId, long characterId) throws SQLException {
+            synchronized (lock) {
+                if (!users.containsKey(userId)) {
+                    return false;
+                }
+                LogRecord record = LogRecord.of(OP_USER_CHARACTER).id(userId);
+                record.characterId = characterId;
+                append(record);
+                return true;
+            }
+        }
+    }
+
+    // ==================== 战役 ====================
+
+    private class FileCampaignStore implements CampaignStore {
+
+        @Override
+        public long findMaxId() {
+            synchronized (lock) {
+                return campaigns.isEmpty() ? 0 : campaigns.lastKey();
+            }
+        }
+
+        @Override
+        public void insert(Campaign campaign) throws SQLException {
+            synchronized (lock) {
+                if (campaigns.containsKey(campaign.getId())) {
+                    throw new SQLException("战役ID已存在: " + campaign.getId());
+                }
+                requireParticipants(campaign.getParticipantIds());
+                append(LogRecord.of(OP_CAMPAIGN).campaign(CampaignRow.of(campaign)));
+            }
+        }
+
+        @Override
+        public void updateStatus(long campaignId, CampaignStatus status, int currentBatchIndex,
+                                 List<Long> newParticipantIds) throws SQLException {
+            synchronized (lock) {
+                CampaignRow row = requireCampaign(campaignId);
+                requireParticipants(newParticipantIds);
+                LogRecord record = LogRecord.of(OP_CAMPAIGN_STATUS).id(campaignId);
+                record.status = status.name();
+                record.currentBatchIndex = currentBatchIndex;
+                record.participants = new ArrayList<>();
+                for (Long participantId : newParticipantIds) {
+                    // 与 INSERT IGNORE 一致，忽略已存在的参与者
+                    if (!row.participants.contains(participantId) && !record.participants.contains(participantId)) {
+                        record.participants.add(participantId);
+                    }
+                }
+                append(record);
+            }
+        }
+
+        @Override
+        public void addEnemyBatch(long campaignId, EnemyBatch batch) throws SQLException {
+            synchronized (lock) {
+                requireCampaign(campaignId);
+                append(LogRecord.of(OP_CAMPAIGN_BATCH).id(campaignId).batch(BatchRow.of(batch)));
+            }
+        }
+
+        @Override
+        public Campaign findById(long id) {
+            synchronized (lock) {
+                CampaignRow row = campaigns.get(id);
+                return row != null ? row.toCampaign() : null;
+            }
+        }
+
+        @Override
+        public List<Campaign> findByStatus(CampaignStatus status) {
+            synchronized (lock) {
+                return toCampaigns(campaignIdsByStatus.get(status.name()));
+            }
+        }
+
+        @Override
+        public List<Campaign> findByCreator(long creatorId) {
+            synchronized (lock) {
+                return toCampaigns(campaignIdsByCreator.get(creatorId));
+            }
+        }
+
+        @Override
+        public List<Campaign> findAll() {
+            synchronized (lock) {
+                return toCampaigns(campaigns.keySet());
+            }
+        }
+
+        private List<Campaign> toCampaigns(Iterable<Long> ids) {
+            List<Campaign> result = new ArrayList<>();
+            if (ids != null) {
+                for (Long id : ids) {
+                    result.add(campaigns.get(id).toCampaign());
+                }
+            }
+            return result;
+        }
+
+        private CampaignRow requireCampaign(long campaignId) throws SQLException {
+            CampaignRow row = campaigns.get(campaignId);
+            if (row == null) {
+                throw new SQLException("战役不存在: " + campaignId);
+            }
+            return row;
+        }
+
+        private void requireParticipants(List<Long> participantIds) throws SQLException {
+            for (Long participantId : participantIds) {
+                if (!characters.containsKey(participantId)) {
+                    throw new SQLException("角色不存在: " + participantId);
+                }
+            }
+        }
+    }
+
+    // ==================== 日志记录与数据行 ====================
+
+    /**
+     * 一条日志记录，按 op 使用其中的部分字段（Gson 不输出 null 字段）
+     */
+    private static class LogRecord {
+        private String op;
+        private Long id;
+        private CharacterRow character;
+        private UnitRow unit;
+        private ResourceRow resource;
+        private UserRow user;
+        private CampaignRow campaign;
+        private BatchRow batch;
+        private String name;
+        private String title;
+        private String faction;
+        private Integer permissionLevel;
+        private Long characterId;
+        private String status;
+        private Integer currentBatchIndex;
+        private List<Long> participants;
+        private Integer count;
+
+        static LogRecord of(String op) {
+            LogRecord record = new LogRecord();
+            record.op = op;
+            return record;
+        }
+
+        LogRecord id(long id) { this.id = id; return this; }
+        LogRecord character(CharacterRow character) { this.character = character; return this; }
+        LogRecord unit(UnitRow unit) { this.unit = unit; return this; }
+        LogRecord resource(ResourceRow resource) { this.resource = resource; return this; }
+        LogRecord user(UserRow user) { this.user = user; return this; }
+        LogRecord campaign(CampaignRow campaign) { this.campaign = campaign; return this; }
+        LogRecord batch(BatchRow batch) { this.batch = batch; return this; }
+        LogRecord count(int count) { this.count = count; return this; }
+    }
+
+    private static class CharacterRow {
+        private long id;
+        private String name;
+        private String title;
+        private String faction;
+        private List<UnitRow> units = new ArrayList<>();
+        private List<ResourceRow> resources = new ArrayList<>();
+
+        static CharacterRow of(Character character) {
+            CharacterRow row = new CharacterRow();
+            row.id = character.getId();
+            row.name = character.getName();
+            row.title = character.getTitle();
+            row.faction = character.getFaction().name();
+            for (Unit unit : character.getUnits()) {
+                row.units.add(UnitRow.of(unit.getName(), unit.getType(), unit.getCount()));
+            }
+            for (Resource resource : character.getResources()) {
+                ResourceRow resourceRow = new ResourceRow();
+                resourceRow.name = resource.getName();
+                resourceRow.quantity = resource.getQuantity();
+                row.resources.add(resourceRow);
+            }
+            return row;
+        }
+
+        Character toCharacter() {
+            List<Unit> unitList = new ArrayList<>(units.size());
+            for (UnitRow unit : units) {
+                unitList.add(unit.toUnit());
+            }
+            List<Resource> resourceList = new ArrayList<>(resources.size());
+            for (ResourceRow resource : resources) {
+                resourceList.add(new Resource(resource.name, resource.quantity));
+            }
+            return new Character(id, name, title, Faction.valueOf(faction), unitList, resourceList);
+        }
+    }
+
+    private static class UnitRow {
+        private String name;
+        private String type;
+        private int count;
+
+        static UnitRow of(String name, String type, int count) {
+            UnitRow row = new UnitRow();
+            row.name = name;
+            row.type = type;
+            row.count = count;
+            return row;
+        }
+
+        Unit toUnit() {
+            return new Unit(name, type, count);
+        }
+    }
+
+    private static class ResourceRow {
+        private String name;
+        private int quantity;
+    }
+
+    private static class UserRow {
+        private long id;
+        private String username;
+        private String passwordHash;
+        private String salt;
+        private int permissionLevel;
+        private long characterId;
+
+        static UserRow of(User user) {
+            UserRow row = new UserRow();
+            row.id = user.getId();
+            row.username = user.getUsername();
+            row.passwordHash = user.getPasswordHash();
+            row.salt = user.getSalt();
+            row.permissionLevel = user.getPermissionLevel();
+            row.characterId = user.getCharacterId();
+            return row;
+        }
+
+        User toUser() {
+            return new User(id, username, passwordHash, salt, permissionLevel, characterId);
+        }
+    }
+
+    private static class CampaignRow {
+        private long id;
+        private String name;
+        private String description;
+        private long creatorId;
+        private String status;
+        private int currentBatchIndex;
+        private List<Long> participants = new ArrayList<>();
+        private List<BatchRow> batches = new ArrayList<>();
+
+        static CampaignRow of(Campaign campaign) {
+            CampaignRow row = new CampaignRow();
+            row.id = campaign.getId();
+            row.name = campaign.getName();
+            row.description = campaign.getDescription();
+            row.creatorId = campaign.getCreatorId();
+            row.status = campaign.getStatus().name();
+            row.currentBatchIndex = campaign.getCurrentBatchIndex();
+            row.participants.addAll(campaign.getParticipantIds());
+            for (EnemyBatch batch : campaign.getEnemyBatches()) {
+                row.batches.add(BatchRow.of(batch));
+            }
+            return row;
+        }
+
+        Campaign toCampaign() {
+            List<EnemyBatch> batchList = new ArrayList<>(batches.size());
+            for (BatchRow batch : batches) {
+                batchList.add(batch.toBatch());
+            }
+            return new Campaign(id, name, description, creatorId, CampaignStatus.valueOf(status),
+                    participants, batchList, currentBatchIndex);
+        }
+    }
+
+    private static class BatchRow {
+        private String name;
+        private String description;
+        private int spawnRound;
+        private List<UnitRow> units = new ArrayList<>();
+
+        static BatchRow of(EnemyBatch batch) {
+            BatchRow row = new BatchRow();
+            row.name = batch.getName();
+            row.description = batch.getDescription();
+            row.spawnRound = batch.getSpawnRound();
+            for (Unit unit : batch.getEnemies()) {
+                row.units.add(UnitRow.of(unit.getName(), unit.getType(), unit.getCount()));
+            }
+            return row;
+        }
+
+        EnemyBatch toBatch() {
+            EnemyBatch batch = new EnemyBatch(name, description, spawnRound);
+            for (UnitRow unit : units) {
+                batch.addEnemy(unit.toUnit());
+            }
+            return batch;
+        }
+    }
+}
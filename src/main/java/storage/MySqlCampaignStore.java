@@ -0,0 +1,241 @@
+package storage;
+
+import model.Campaign;
+import model.CampaignStatus;
+import model.EnemyBatch;
+import model.Unit;
+import util.DatabaseUtil;
+import util.RowCallback;
+import util.UnitOfWork;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 战役存储的 MySQL 实现
+ * 负责 campaigns、campaign_participants、enemy_batches、enemy_units 四张表的读写。
+ * 写入时参与者、敌人批次和敌人单位都以 JDBC 批处理提交，同一操作的多张表在一个事务内完成；
+ * 读取时先按条件（主键、idx_status、idx_creator_id）查出战役行，再用 IN 查询一次取回这些战役的
+ * 参与者、批次和单位，不会为每个战役单独查询。
+ */
+public class MySqlCampaignStore implements CampaignStore {
+    // 单条 IN 查询的最大参数数，超过时分多次查询
+    private static final int MAX_IN_PARAMS = 500;
+
+    private static final String CAMPAIGN_COLUMNS =
+            "SELECT id, name, description, creator_id, status, current_batch_index FROM campaigns";
+    private static final String INSERT_CAMPAIGN_SQL =
+            "INSERT INTO campaigns (id, name, description, creator_id, status, current_batch_index) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_STATUS_SQL =
+            "UPDATE campaigns SET status = ?, current_batch_index = ? WHERE id = ?";
+    private static final String INSERT_PARTICIPANT_SQL =
+            "INSERT IGNORE INTO campaign_participants (campaign_id, character_id) VALUES (?, ?)";
+    private static final String INSERT_BATCH_SQL =
+            "INSERT INTO enemy_batches (campaign_id, name, description, spawn_round) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_ENEMY_UNIT_SQL =
+            "INSERT INTO enemy_units (batch_id, name, type, count) VALUES (?, ?, ?, ?)";
+
+    // ==================== 写入 ====================
+
+    /**
+     * 保存新战役及其参与者和敌人批次
+     */
+    @Override
+    public void insert(Campaign campaign) throws SQLException {
+        DatabaseUtil.inTransaction(unit -> {
+            unit.update(INSERT_CAMPAIGN_SQL, campaign.getId(), campaign.getName(), campaign.getDescription(),
+                    campaign.getCreatorId(), campaign.getStatus().name(), campaign.getCurrentBatchIndex());
+            insertParticipants(unit, campaign.getId(), campaign.getParticipantIds());
+            insertEnemyBatches(unit, campaign.getId(), campaign.getEnemyBatches());
+            return null;
+        });
+    }
+
+    /**
+     * 在一个事务内加入新的参与者并更新战役状态
+     */
+    @Override
+    public void updateStatus(long campaignId, CampaignStatus status, int currentBatchIndex,
+                             List<Long> newParticipantIds) throws SQLException {
+        DatabaseUtil.inTransaction(unit -> {
+            insertParticipants(unit, campaignId, newParticipantIds);
+            unit.update(UPDATE_STATUS_SQL, status.name(), currentBatchIndex, campaignId);
+            return null;
+        });
+    }
+
+    /**
+     * 为战役追加一个敌人批次及其单位
+     */
+    @Override
+    public void addEnemyBatch(long campaignId, EnemyBatch batch) throws SQLException {
+        DatabaseUtil.inTransaction(unit -> {
+            insertEnemyBatches(unit, campaignId, List.of(batch));
+            return null;
+        });
+    }
+
+    private void insertParticipants(UnitOfWork unit, long campaignId, List<Long> characterIds) throws SQLException {
+        if (characterIds == null || characterIds.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(characterIds.size());
+        for (Long characterId : characterIds) {
+            rows.add(new Object[]{campaignId, characterId});
+        }
+        unit.batch(INSERT_PARTICIPANT_SQL, rows);
+    }
+
+    private void insertEnemyBatches(UnitOfWork unit, long campaignId, List<EnemyBatch> batches) throws SQLException {
+        if (batches.isEmpty()) {
+            return;
+        }
+        // 批次表使用自增主键，批量插入后按顺序取回生成的ID再批量插入单位
+        List<Object[]> batchRows = new ArrayList<>(batches.size());
+        for (EnemyBatch batch : batches) {
+            batchRows.add(new Object[]{campaignId, batch.getName(), batch.getDescription(), batch.getSpawnRound()});
+        }
+        List<Long> batchIds = unit.batchReturningKeys(INSERT_BATCH_SQL, batchRows);
+        if (batchIds.size() != batches.size()) {
+            throw new SQLException("敌人批次主键数量不匹配: " + batchIds.size() + " / " + batches.size());
+        }
+
+        List<Object[]> unitRows = new ArrayList<>();
+        for (int i = 0; i < batches.size(); i++) {
+            for (Unit enemy : batches.get(i).getEnemies()) {
+                unitRows.add(new Object[]{batchIds.get(i), enemy.getName(), enemy.getType(), enemy.getCount()});
+            }
+        }
+        unit.batch(INSERT_ENEMY_UNIT_SQL, unitRows);
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 已使用的最大战役ID，没有战役时返回 0
+     */
+    @Override
+    public long findMaxId() throws SQLException {
+        return DatabaseUtil.queryOne("SELECT COALESCE(MAX(id), 0) FROM campaigns", RowMappers.LONG);
+    }
+
+    @Override
+    public Campaign findById(long id) throws SQLException {
+        List<Campaign> campaigns = query(CAMPAIGN_COLUMNS + " WHERE id = ?", id);
+        return campaigns.isEmpty() ? null : campaigns.get(0);
+    }
+
+    /**
+     * 按状态查询（使用 idx_status 索引）
+     */
+    @Override
+    public List<Campaign> findByStatus(CampaignStatus status) throws SQLException {
+        return query(CAMPAIGN_COLUMNS + " WHERE status = ? ORDER BY id", status.name());
+    }
+
+    /**
+     * 按创建者角色查询（使用 idx_creator_id 索引）
+     */
+    @Override
+    public List<Campaign> findByCreator(long creatorId) throws SQLException {
+        return query(CAMPAIGN_COLUMNS + " WHERE creator_id = ? ORDER BY id", creatorId);
+    }
+
+    @Override
+    public List<Campaign> findAll() throws SQLException {
+        return query(CAMPAIGN_COLUMNS + " ORDER BY id");
+    }
+
+    private List<Campaign> query(String sql, Object... params) throws SQLException {
+        return DatabaseUtil.withConnection(unit -> {
+            Map<Long, CampaignRow> rows = new LinkedHashMap<>();
+            unit.stream(sql, 0, rs -> {
+                CampaignRow row = new CampaignRow(rs.getLong("id"), rs.getString("name"),
+                        rs.getString("description"), rs.getLong("creator_id"), rs.getString("status"),
+                        rs.getInt("current_batch_index"));
+                rows.put(row.id, row);
+            }, params);
+            if (rows.isEmpty()) {
+                return new ArrayList<>();
+            }
+            loadParticipants(unit, rows);
+            loadEnemyBatches(unit, rows);
+
+            List<Campaign> campaigns = new ArrayList<>(rows.size());
+            for (CampaignRow row : rows.values()) {
+                try {
+                    campaigns.add(new Campaign(row.id, row.name, row.description, row.creatorId,
+                            CampaignStatus.valueOf(row.status), row.participantIds, row.batches,
+                            row.currentBatchIndex));
+                } catch (IllegalArgumentException e) {
+                    System.err.println("跳过无效的战役数据 " + row.id + ": " + e.getMessage());
+                }
+            }
+            return campaigns;
+        });
+    }
+
+    private void loadParticipants(UnitOfWork unit, Map<Long, CampaignRow> rows) throws SQLException {
+        forEachChunk(unit, new ArrayList<>(rows.keySet()),
+                "SELECT campaign_id, character_id FROM campaign_participants WHERE campaign_id IN (%s) ORDER BY campaign_id, id",
+                rs -> rows.get(rs.getLong(1)).participantIds.add(rs.getLong(2)));
+    }
+
+    private void loadEnemyBatches(UnitOfWork unit, Map<Long, CampaignRow> rows) throws SQLException {
+        Map<Long, EnemyBatch> batchesById = new HashMap<>();
+        forEachChunk(unit, new ArrayList<>(rows.keySet()),
+                "SELECT id, campaign_id, name, description, spawn_round FROM enemy_batches WHERE campaign_id IN (%s) ORDER BY campaign_id, id",
+                rs -> {
+                    EnemyBatch batch = new EnemyBatch(rs.getString(3), rs.getString(4), rs.getInt(5));
+                    batchesById.put(rs.getLong(1), batch);
+                    rows.get(rs.getLong(2)).batches.add(batch);
+                });
+        if (batchesById.isEmpty()) {
+            return;
+        }
+        forEachChunk(unit, new ArrayList<>(batchesById.keySet()),
+                "SELECT batch_id, name, type, count FROM enemy_units WHERE batch_id IN (%s) ORDER BY batch_id, id",
+                rs -> batchesById.get(rs.getLong("batch_id")).addEnemy(RowMappers.UNIT.map(rs)));
+    }
+
+    /**
+     * 把ID列表按 MAX_IN_PARAMS 分段执行 IN 查询，sqlTemplate 中的 %s 替换为占位符列表
+     */
+    private static void forEachChunk(UnitOfWork unit, List<Long> ids, String sqlTemplate, RowCallback callback)
+            throws SQLException {
+        for (int from = 0; from < ids.size(); from += MAX_IN_PARAMS) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + MAX_IN_PARAMS));
+            String sql = String.format(sqlTemplate, String.join(",", Collections.nCopies(chunk.size(), "?")));
+            unit.stream(sql, 0, callback, chunk.toArray());
+        }
+    }
+
+    /**
+     * 组装中的战役行
+     */
+    private static class CampaignRow {
+        private final long id;
+        private final String name;
+        private final String description;
+        private final long creatorId;
+        private final String status;
+        private final int currentBatchIndex;
+        private final List<Long> participantIds = new ArrayList<>();
+        private final List<EnemyBatch> batches = new ArrayList<>();
+
+        private CampaignRow(long id, String name, String description, long creatorId,
+                            String status, int currentBatchIndex) {
+            this.id = id;
+            this.name = name;
+            this.description = description;
+            this.creatorId = creatorId;
+            this.status = status;
+            this.currentBatchIndex = currentBatchIndex;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package storage;
+
+import model.Character;
+import model.Resource;
+import model.Unit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import util.DatabaseUtil;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 角色存储的 MySQL 实现
+ * 全量和分页加载由 CharacterBulkLoader 完成，批量写入使用 JDBC 批处理。
+ */
+public class MySqlCharacterStore implements CharacterStore {
+    private static final Logger logger = LoggerFactory.getLogger(MySqlCharacterStore.class);
+
+    private static final String INSERT_CHARACTER_SQL =
+            "INSERT INTO characters (id, name, title, faction, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_UNIT_SQL =
+            "INSERT INTO units (character_id, name, type, count) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_RESOURCE_SQL =
+            "INSERT INTO resources (character_id, name, quantity) VALUES (?, ?, ?)";
+    private static final String UPDATE_CHARACTER_SQL =
+            "UPDATE characters SET name = ?, title = ?, faction = ?, updated_at = ? WHERE id = ?";
+
+    private final CharacterBulkLoader loader = new CharacterBulkLoader();
+
+    @Override
+    public long findMaxId() throws SQLException {
+        return DatabaseUtil.queryOne("SELECT COALESCE(MAX(id), 0) FROM characters", RowMappers.LONG);
+    }
+
+    @Override
+    public List<Character> loadAll() throws SQLException {
+        CharacterBulkLoader.LoadResult result = loader.loadAll();
+        logger.info("{}", result);
+        return result.getCharacters();
+    }
+
+    @Override
+    public CharacterPage loadPage(long afterId, int limit) throws SQLException {
+        return DatabaseUtil.withConnection(unit -> loader.loadPage(unit, afterId, limit));
+    }
+
+    /**
+     * 在同一个连接上查询角色、单位和物资
+     */
+    @Override
+    public Character findById(long id) throws SQLException {
+        return DatabaseUtil.withConnection(unit -> {
+            Character header = unit.queryOne("SELECT id, name, title, faction FROM characters WHERE id = ?",
+                    RowMappers.character(Map.of(), Map.of()), id);
+            if (header == null) {
+                return null;
+            }
+            List<Unit> units = unit.query(
+                    "SELECT name, type, count FROM units WHERE character_id = ? ORDER BY id", RowMappers.UNIT, id);
+            List<Resource> resources = unit.query(
+                    "SELECT name, quantity FROM resources WHERE character_id = ? ORDER BY id", RowMappers.RESOURCE, id);
+            return new Character(id, header.getName(), header.getTitle(), header.getFaction(), units, resources);
+        });
+    }
+    @Override
+    public void insert(Character character) throws SQLException {
+        DatabaseUtil.executeUpdate(INSERT_CHARACTER_SQL,
+                character.getId(),
+                character.getName(),
+                character.getTitle(),
+                character.getFaction().name(),
+                character.getCreatedAt(),
+                character.getUpdatedAt()
+        );
+    }
+
+    @Override
+    public boolean delete(long id) throws SQLException {
+        // units、resources 通过外键级联删除
+        return DatabaseUtil.executeUpdate("DELETE FROM characters WHERE id = ?", id) > 0;
+    }
+
+    @Override
+    public void insertUnits(List<Object[]> rows) throws SQLException {
+        DatabaseUtil.executeBatch(INSERT_UNIT_SQL, rows);
+    }
+
+    @Override
+    public void insertResources(List<Object[]> rows) throws SQLException {
+        DatabaseUtil.executeBatch(INSERT_RESOURCE_SQL, rows);
+    }
+
+    @Override
+    public void updateCharacters(List<Object[]> rows) throws SQLException {
+        DatabaseUtil.executeBatch(UPDATE_CHARACTER_SQL, rows);
+    }
+
+    /**
+     * 三类写入共用一个连接和一个事务，写回队列每次刷新只借用一次连接
+     */
+    @Override
+    public void applyWrites(List<Object[]> unitRows, List<Object[]> resourceRows,
+                            List<Object[]> characterUpdates) throws SQLException {
+        DatabaseUtil.inTransaction(unit -> {
+            unit.batch(INSERT_UNIT_SQL, unitRows);
+            unit.batch(INSERT_RESOURCE_SQL, resourceRows);
+            unit.batch(UPDATE_CHARACTER_SQL, characterUpdates);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,58 @@
+package storage;
+
+import config.DatabaseConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+
+/**
+ * MySQL 存储后端，连接由 DatabaseConfig 的连接池提供
+ */
+public class MySqlStorageBackend implements StorageBackend {
+    private static final Logger logger = LoggerFactory.getLogger(MySqlStorageBackend.class);
+
+    private final MySqlCharacterStore characterStore = new MySqlCharacterStore();
+    private final MySqlUserStore userStore = new MySqlUserStore();
+    private final MySqlCampaignStore campaignStore = new MySqlCampaignStore();
+
+    @Override
+    public String getName() {
+        return "MySQL";
+    }
+
+    @Override
+    public boolean testConnection() {
+        try {
+            DatabaseConfig.initialize();
+            return DatabaseConfig.testConnection();
+        } catch (RuntimeException e) {
+            // 连不上数据库时创建数据库或连接池失败
+            logger.error("数据库初始化失败", e);
+            return false;
+        }
+    }
+
+    @Override
+    public void initializeSchema() throws SQLException {
+        try {
+            DatabaseConfig.initializeSchema();
+        } catch (RuntimeException e) {
+            throw new SQLException("数据库表结构初始化失败", e);
+        }
+    }
+
+    @Override
+    public CharacterStore characters() { return characterStore; }
+
+    @Override
+    public UserStore users() { return userStore; }
+
+    @Override
+    public CampaignStore campaigns() { return campaignStore; }
+
+    @Override
+    public void close() {
+        DatabaseConfig.closeDataSource();
+    }
+}
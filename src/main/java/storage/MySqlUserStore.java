@@ -0,0 +1,53 @@
+package storage;
+
+import model.User;
+import util.DatabaseUtil;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * 用户存储的 MySQL 实现
+ */
+public class MySqlUserStore implements UserStore {
+
+    @Override
+    public boolean existsByUsername(String username) throws SQLException {
+        Long count = DatabaseUtil.queryOne("SELECT COUNT(*) FROM users WHERE username = ?", RowMappers.LONG, username);
+        return count != null && count > 0;
+    }
+
+    @Override
+    public User findById(long id) throws SQLException {
+        return DatabaseUtil.queryOne("SELECT * FROM users WHERE id = ?", RowMappers.USER, id);
+    }
+
+    @Override
+    public User findByUsername(String username) throws SQLException {
+        return DatabaseUtil.queryOne("SELECT * FROM users WHERE username = ?", RowMappers.USER, username);
+    }
+
+    @Override
+    public List<User> findAll() throws SQLException {
+        return DatabaseUtil.query("SELECT * FROM users ORDER BY id", RowMappers.USER);
+    }
+
+    @Override
+    public void insert(User user) throws SQLException {
+        String sql = "INSERT INTO users (id, username, password_hash, salt, permission_level, character_id) VALUES (?, ?, ?, ?, ?, ?)";
+        DatabaseUtil.executeUpdate(sql, user.getId(), user.getUsername(), user.getPasswordHash(), user.getSalt(),
+                user.getPermissionLevel(), user.getCharacterId());
+    }
+
+    @Override
+    public boolean updatePermission(long userId, int permissionLevel) throws SQLException {
+        return DatabaseUtil.executeUpdate("UPDATE users SET permission_level = ? WHERE id = ?",
+                permissionLevel, userId) > 0;
+    }
+
+    @Override
+    public boolean updateCharacterId(long userId, long characterId) throws SQLException {
+        return DatabaseUtil.executeUpdate("UPDATE users SET character_id = ? WHERE id = ?",
+                characterId, userId) > 0;
+    }
+}
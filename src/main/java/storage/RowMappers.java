@@ -0,0 +1,72 @@
+package storage;
+
+import model.Character;
+import model.Faction;
+import model.Resource;
+import model.Unit;
+import model.User;
+import util.RowMapper;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 模型对象的行映射，按列名读取，查询语句只需包含对应的列
+ */
+public final class RowMappers {
+
+    /**
+     * users 表的一行
+     */
+    public static final RowMapper<User> USER = rs -> new User(
+            rs.getLong("id"),
+            rs.getString("username"),
+            rs.getString("password_hash"),
+            rs.getString("salt"),
+            rs.getInt("permission_level"),
+            rs.getLong("character_id")
+    );
+
+    /**
+     * 包含 name、type、count 列的单位行（units 或 enemy_units）
+     */
+    public static final RowMapper<Unit> UNIT = rs -> new Unit(
+            rs.getString("name"),
+            rs.getString("type"),
+            rs.getInt("count")
+    );
+
+    /**
+     * 包含 name、quantity 列的物资行
+     */
+    public static final RowMapper<Resource> RESOURCE = rs -> new Resource(
+            rs.getString("name"),
+            rs.getInt("quantity")
+    );
+
+    /**
+     * 第一列为单个 long 值（如 COUNT、MAX）
+     */
+    public static final RowMapper<Long> LONG = rs -> rs.getLong(1);
+
+    private RowMappers() {
+    }
+
+    /**
+     * characters 表的一行，单位和物资从已按角色ID分组的结果中取得
+     */
+    public static RowMapper<Character> character(Map<Long, List<Unit>> unitsByCharacter,
+                                                 Map<Long, List<Resource>> resourcesByCharacter) {
+        return rs -> {
+            long id = rs.getLong("id");
+            return new Character(
+                    id,
+                    rs.getString("name"),
+                    rs.getString("title"),
+                    Faction.valueOf(rs.getString("faction")),
+                    unitsByCharacter.get(id),
+                    resourcesByCharacter.get(id)
+            );
+        };
+    }
+}
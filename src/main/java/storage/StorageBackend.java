@@ -0,0 +1,37 @@
+package storage;
+
+import java.sql.SQLException;
+
+/**
+ * 存储后端
+ * 角色、用户、战役三类数据的持久化入口，由 storage.backend 配置选择实现：
+ * mysql 使用 MySQL 连接池，file 使用本地追加写文件，不依赖外部数据库。
+ */
+public interface StorageBackend {
+
+    /**
+     * 后端名称，用于启动信息和日志
+     */
+    String getName();
+
+    /**
+     * 检查后端是否可用
+     */
+    boolean testConnection();
+
+    /**
+     * 校验并补齐存储结构（如缺少的表），在 testConnection 成功之后调用
+     */
+    void initializeSchema() throws SQLException;
+
+    CharacterStore characters();
+
+    UserStore users();
+
+    CampaignStore campaigns();
+
+    /**
+     * 释放后端持有的连接或文件，需在各服务关闭之后调用
+     */
+    void close();
+}
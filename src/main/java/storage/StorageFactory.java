@@ -0,0 +1,47 @@
+package storage;
+
+import config.AppProperties;
+
+import java.nio.file.Paths;
+
+/**
+ * 存储后端工厂
+ * storage.backend=mysql（默认）使用 MySQL；storage.backend=file 使用 storage.file.path 指定的本地文件，
+ * storage.file.fsync=true 时每次写入都强制刷盘。
+ */
+public class StorageFactory {
+    private static StorageBackend backend;
+
+    private StorageFactory() {
+    }
+
+    /**
+     * 获取当前存储后端，第一次调用时按配置创建
+     */
+    public static synchronized StorageBackend getBackend() {
+        if (backend == null) {
+            backend = create(AppProperties.getString("storage.backend", "mysql"));
+        }
+        return backend;
+    }
+
+    /**
+     * 替换当前存储后端，需在各服务第一次使用之前调用（如基准测试中使用临时文件）
+     */
+    public static synchronized void setBackend(StorageBackend storageBackend) {
+        backend = storageBackend;
+    }
+
+    public static StorageBackend create(String type) {
+        switch (type.trim().toLowerCase()) {
+            case "mysql":
+                return new MySqlStorageBackend();
+            case "file":
+                return new FileStorageBackend(
+                        Paths.get(AppProperties.getString("storage.file.path", "data/wh40k.jsonl")),
+                        AppProperties.getBoolean("storage.file.fsync", false));
+            default:
+                throw new IllegalArgumentException("未知的存储后端: " + type);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package storage;
+
+import model.User;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * 用户存储
+ */
+public interface UserStore {
+
+    boolean existsByUsername(String username) throws SQLException;
+
+    /**
+     * 按ID查询用户，不存在时返回 null
+     */
+    User findById(long id) throws SQLException;
+
+    /**
+     * 按用户名查询用户，不存在时返回 null
+     */
+    User findByUsername(String username) throws SQLException;
+
+    /**
+     * 全部用户，按ID排序
+     */
+    List<User> findAll() throws SQLException;
+
+    void insert(User user) throws SQLException;
+
+    /**
+     * @return 用户是否存在
+     */
+    boolean updatePermission(long userId, int permissionLevel) throws SQLException;
+
+    /**
+     * @return 用户是否存在
+     */
+    boolean updateCharacterId(long userId, long characterId) throws SQLException;
+}
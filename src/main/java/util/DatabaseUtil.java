@@ -1,45 +1,92 @@
 package util;
 
+import config.DatabaseConfig;
+
 import java.sql.*;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  * 数据库工具类
+ * 项目唯一的 JDBC 访问入口。单条语句的方法在内部借用并归还连接；一个业务操作需要执行多条语句时
+ * 使用 {@link #inTransaction} 或 {@link #withConnection} 打开工作单元，所有语句共用一个连接，
+ * 相同的 SQL 只预编译一次。调用方通过 RowMapper / RowCallback 处理每一行，
+ * 不会拿到需要自己关闭的连接。每条语句的执行耗时记录到 DatabaseMetrics。
  */
 public class DatabaseUtil {
+    /**
+     * MySQL 驱动约定：只进只读结果集的 fetchSize 为 Integer.MIN_VALUE 时逐行流式读取，
+     * 不会把整个结果集读入内存
+     */
+    public static final int STREAM_ROW_BY_ROW = Integer.MIN_VALUE;
 
     /**
-     * 执行更新操作（INSERT, UPDATE, DELETE）
+     * 在一个事务内执行工作单元，正常返回时提交，抛出异常时回滚
      */
-    public static int executeUpdate(String sql, Object... params) throws SQLException {
-        try (Connection conn = config.DatabaseConfig.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    public static <T> T inTransaction(UnitOfWork.Work<T> work) throws SQLException {
+        try (UnitOfWork unit = new UnitOfWork(DatabaseConfig.getConnection(), true)) {
+            T result;
+            try {
+                result = work.run(unit);
+            } catch (SQLException | RuntimeException e) {
+                unit.rollback();
+                throw e;
+            }
+            unit.commit();
+            return result;
+        }
+    }
 
-            setParameters(pstmt, params);
-            return pstmt.executeUpdate();
+    /**
+     * 在一个自动提交的连接上执行工作单元，适合同一操作的多条只读查询
+     */
+    public static <T> T withConnection(UnitOfWork.Work<T> work) throws SQLException {
+        try (UnitOfWork unit = new UnitOfWork(DatabaseConfig.getConnection(), false)) {
+            return work.run(unit);
         }
     }
 
+    /**
+     * 执行更新操作（INSERT, UPDATE, DELETE）
+     */
+    public static int executeUpdate(String sql, Object... params) throws SQLException {
+        return withConnection(unit -> unit.update(sql, params));
+    }
+
     /**
      * 执行查询操作
+     * 返回已与连接断开的结果集副本，连接在返回前已归还连接池
+     *
+     * @deprecated 会把整个结果集复制到内存，请使用 {@link #query(String, RowMapper, Object...)}
+     * 或 {@link #stream(String, int, RowCallback, Object...)}
      */
+    @Deprecated
     public static ResultSet executeQuery(String sql, Object... params) throws SQLException {
-        Connection conn = config.DatabaseConfig.getConnection();
-        PreparedStatement pstmt = conn.prepareStatement(sql);
-        setParameters(pstmt, params);
-        return pstmt.executeQuery();
+        return withConnection(unit -> unit.copy(sql, params));
     }
 
     /**
-     * 设置 PreparedStatement 参数
+     * 查询并把每一行映射为对象
      */
-    private static void setParameters(PreparedStatement pstmt, Object... params) throws SQLException {
-        if (params != null) {
-            for (int i = 0; i < params.length; i++) {
-                pstmt.setObject(i + 1, params[i]);
-            }
-        }
+    public static <T> List<T> query(String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        return withConnection(unit -> unit.query(sql, mapper, params));
+    }
+
+    /**
+     * 查询第一行，没有结果时返回 null
+     */
+    public static <T> T queryOne(String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        return withConnection(unit -> unit.queryOne(sql, mapper, params));
+    }
+
+    /**
+     * 以只进只读结果集逐行处理查询结果，适合大表
+     *
+     * @param fetchSize 驱动每次读取的行数，{@link #STREAM_ROW_BY_ROW} 表示逐行流式读取，0 使用驱动默认值
+     * @return 处理的行数
+     */
+    public static long stream(String sql, int fetchSize, RowCallback callback, Object... params)
+            throws SQLException {
+        return withConnection(unit -> unit.stream(sql, fetchSize, callback, params));
     }
 
     /**
@@ -56,18 +103,9 @@ public class DatabaseUtil {
     }
 
     /**
-     * 批量插入
+     * 批量执行，在一个事务内提交
      */
     public static int[] executeBatch(String sql, List<Object[]> paramList) throws SQLException {
-        try (Connection conn = config.DatabaseConfig.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            for (Object[] params : paramList) {
-                setParameters(pstmt, params);
-                pstmt.addBatch();
-            }
-
-            return pstmt.executeBatch();
-        }
+        return inTransaction(unit -> unit.batch(sql, paramList));
     }
-}
\ No newline at end of file
+}
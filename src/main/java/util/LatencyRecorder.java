@@ -0,0 +1,99 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * 延迟记录器
+ * 保存最近 window 个样本用于计算分位数，同时累计全部样本的次数、总耗时和最大值。
+ * 所有操作线程安全。
+ */
+public class LatencyRecorder {
+    private final long[] samples;
+    private int next;
+    private int size;
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+
+    public LatencyRecorder(int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("样本窗口必须大于0");
+        }
+        this.samples = new long[window];
+    }
+
+    public synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        if (size < samples.length) {
+            size++;
+        }
+        count++;
+        totalNanos += nanos;
+        if (nanos > maxNanos) {
+            maxNanos = nanos;
+        }
+    }
+
+    public synchronized Snapshot snapshot() {
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        return new Snapshot(count, totalNanos, maxNanos,
+                percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99));
+    }
+
+    public synchronized void reset() {
+        next = 0;
+        size = 0;
+        count = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    /**
+     * 延迟统计快照，分位数基于最近的样本窗口，次数、平均值和最大值基于全部样本
+     */
+    public static class Snapshot {
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long p50Nanos;
+        private final long p95Nanos;
+        private final long p99Nanos;
+
+        private Snapshot(long count, long totalNanos, long maxNanos, long p50Nanos, long p95Nanos, long p99Nanos) {
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.p50Nanos = p50Nanos;
+            this.p95Nanos = p95Nanos;
+            this.p99Nanos = p99Nanos;
+        }
+
+        public long getCount() { return count; }
+        public long getTotalNanos() { return totalNanos; }
+        public long getMaxNanos() { return maxNanos; }
+        public long getP50Nanos() { return p50Nanos; }
+        public long getP95Nanos() { return p95Nanos; }
+        public long getP99Nanos() { return p99Nanos; }
+
+        public double getMeanNanos() {
+            return count == 0 ? 0.0 : (double) totalNanos / count;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("次数 %d, 平均 %.3f ms, p50 %.3f ms, p95 %.3f ms, p99 %.3f ms, 最大 %.3f ms",
+                    count, getMeanNanos() / 1_000_000, p50Nanos / 1_000_000.0, p95Nanos / 1_000_000.0,
+                    p99Nanos / 1_000_000.0, maxNanos / 1_000_000.0);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 有界 LRU 缓存
+ * 超过容量时淘汰最久未访问的条目，并统计命中、未命中和淘汰次数，便于调整容量。
+ * 所有操作线程安全；computeIfAbsent 的计算在锁外进行，并发时同一个键可能被计算多次，
+ * 因此只适合缓存纯函数的结果。
+ */
+public class LruCache<K, V> {
+    private final int capacity;
+    private final LinkedHashMap<K, V> entries;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    public LruCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("缓存容量必须大于0");
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > LruCache.this.capacity) {
+                    evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 获取缓存值，不存在时返回 null
+     */
+    public synchronized V get(K key) {
+        V value = entries.get(key);
+        if (value != null) {
+            hitCount++;
+        } else {
+            missCount++;
+        }
+        return value;
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    /**
+     * 获取缓存值，不存在时计算并放入缓存
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        value = loader.apply(key);
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * 键不存在时放入并返回新值，已存在时返回已有值（不计入命中统计）
+     */
+    public synchronized V putIfAbsent(K key, V value) {
+        V existing = entries.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        entries.put(key, value);
+        return value;
+    }
+
+    /**
+     * 当前所有缓存值的快照（不影响访问顺序）
+     */
+    public synchronized List<V> values() {
+        return new ArrayList<>(entries.values());
+    }
+
+    public synchronized V remove(K key) {
+        return entries.remove(key);
+    }
+
+    public synchronized boolean containsKey(K key) {
+        return entries.containsKey(key);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized void resetStats() {
+        hitCount = 0;
+        missCount = 0;
+        evictionCount = 0;
+    }
+
+    public synchronized int size() { return entries.size(); }
+    public int getCapacity() { return capacity; }
+    public synchronized long getHitCount() { return hitCount; }
+    public synchronized long getMissCount() { return missCount; }
+    public synchronized long getEvictionCount() { return evictionCount; }
+
+    /**
+     * 命中率，尚无访问时为0
+     */
+    public synchronized double getHitRate() {
+        long total = hitCount + missCount;
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("缓存 %d/%d, 命中 %d, 未命中 %d, 淘汰 %d, 命中率 %.1f%%",
+                entries.size(), capacity, hitCount, missCount, evictionCount, getHitRate() * 100);
+    }
+}
@@ -0,0 +1,12 @@
+package util;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 逐行处理结果集的当前行，不应调用 rs.next()
+ */
+@FunctionalInterface
+public interface RowCallback {
+    void handle(ResultSet rs) throws SQLException;
+}
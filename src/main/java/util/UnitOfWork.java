@@ -0,0 +1,282 @@
+package util;
+
+import config.DatabaseMetrics;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetProvider;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 工作单元
+ * 在一个连接上执行多条语句，同一工作单元内相同的 SQL 只预编译一次，之后复用同一个
+ * PreparedStatement。通过 DatabaseUtil.inTransaction 打开时所有语句在一个事务内提交或回滚，
+ * 通过 DatabaseUtil.withConnection 打开时使用自动提交。
+ *
+ * 工作单元不是线程安全的，只能在打开它的线程中使用；关闭时关闭所有语句并归还连接。
+ */
+public class UnitOfWork implements AutoCloseable {
+    private final Connection connection;
+    private final boolean transactional;
+    private final boolean originalAutoCommit;
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+    private final Map<String, PreparedStatement> keyStatements = new HashMap<>();
+    private boolean completed;
+
+    UnitOfWork(Connection connection, boolean transactional) throws SQLException {
+        this.connection = connection;
+        this.transactional = transactional;
+        this.originalAutoCommit = connection.getAutoCommit();
+        if (transactional && originalAutoCommit) {
+            connection.setAutoCommit(false);
+        }
+    }
+
+    /**
+     * 执行更新操作（INSERT, UPDATE, DELETE）
+     *
+     * @return 受影响的行数
+     */
+    public int update(String sql, Object... params) throws SQLException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            PreparedStatement pstmt = prepare(statements, sql, false);
+            setParameters(pstmt, params);
+            int affectedRows = pstmt.executeUpdate();
+            failed = false;
+            return affectedRows;
+        } finally {
+            DatabaseMetrics.getInstance().recordStatement(sql, System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * 以 JDBC 批处理执行同一条语句，每个元素为一行参数
+     */
+    public int[] batch(String sql, List<Object[]> paramList) throws SQLException {
+        if (paramList.isEmpty()) {
+            return new int[0];
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            PreparedStatement pstmt = prepare(statements, sql, false);
+            for (Object[] params : paramList) {
+                setParameters(pstmt, params);
+                pstmt.addBatch();
+            }
+            int[] results = pstmt.executeBatch();
+            failed = false;
+            return results;
+        } finally {
+            DatabaseMetrics.getInstance().recordStatement(sql, System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * 批量插入并按顺序返回自增主键
+     */
+    public List<Long> batchReturningKeys(String sql, List<Object[]> paramList) throws SQLException {
+        List<Long> keys = new ArrayList<>(paramList.size());
+        if (paramList.isEmpty()) {
+            return keys;
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            PreparedStatement pstmt = prepare(keyStatements, sql, true);
+            for (Object[] params : paramList) {
+                setParameters(pstmt, params);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                while (rs.next()) {
+                    keys.add(rs.getLong(1));
+                }
+            }
+            failed = false;
+            return keys;
+        } finally {
+            DatabaseMetrics.getInstance().recordStatement(sql, System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * 查询并把每一行映射为对象
+     */
+    public <T> List<T> query(String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        List<T> results = new ArrayList<>();
+        stream(sql, 0, rs -> results.add(mapper.map(rs)), params);
+        return results;
+    }
+
+    /**
+     * 查询第一行，没有结果时返回 null
+     */
+    public <T> T queryOne(String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        List<T> results = new ArrayList<>(1);
+        stream(sql, 0, rs -> {
+            if (results.isEmpty()) {
+                results.add(mapper.map(rs));
+            }
+        }, params);
+        return results.isEmpty() ? null : results.get(0);
+    }
+
+    /**
+     * 以只进只读结果集逐行处理查询结果
+     *
+     * @param fetchSize 驱动每次读取的行数，{@link DatabaseUtil#STREAM_ROW_BY_ROW} 表示逐行流式读取，0 使用驱动默认值
+     * @return 处理的行数
+     */
+    public long stream(String sql, int fetchSize, RowCallback callback, Object... params) throws SQLException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        long rows = 0;
+        try {
+            PreparedStatement pstmt = prepare(statements, sql, false);
+            pstmt.setFetchSize(fetchSize);
+            setParameters(pstmt, params);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    callback.handle(rs);
+                    rows++;
+                }
+            }
+            failed = false;
+            return rows;
+        } finally {
+            DatabaseMetrics.getInstance().recordStatement(sql, System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * 把查询结果复制为与连接断开的结果集
+     */
+    CachedRowSet copy(String sql, Object... params) throws SQLException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            PreparedStatement pstmt = prepare(statements, sql, false);
+            setParameters(pstmt, params);
+            CachedRowSet rowSet = RowSetProvider.newFactory().createCachedRowSet();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rowSet.populate(rs);
+            }
+            failed = false;
+            return rowSet;
+        } finally {
+            DatabaseMetrics.getInstance().recordStatement(sql, System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * 工作单元使用的连接，用于本类没有覆盖的 JDBC 操作
+     */
+    public Connection getConnection() {
+        return connection;
+    }
+
+    public boolean isTransactional() {
+        return transactional;
+    }
+
+    void commit() throws SQLException {
+        if (transactional) {
+            connection.commit();
+        }
+        completed = true;
+    }
+
+    void rollback() {
+        if (transactional && !completed) {
+            try {
+                connection.rollback();
+            } catch (SQLException e) {
+                System.err.println("回滚事务时出错: " + e.getMessage());
+            }
+        }
+        completed = true;
+    }
+
+    /**
+     * 关闭所有语句，恢复自动提交并归还连接；未提交的事务会回滚
+     */
+    @Override
+    public void close() throws SQLException {
+        rollback();
+        SQLException failure = null;
+        for (PreparedStatement pstmt : statements.values()) {
+            failure = closeQuietly(pstmt, failure);
+        }
+        for (PreparedStatement pstmt : keyStatements.values()) {
+            failure = closeQuietly(pstmt, failure);
+        }
+        statements.clear();
+        keyStatements.clear();
+        try {
+            if (transactional && originalAutoCommit) {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            failure = failure != null ? failure : e;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            failure = failure != null ? failure : e;
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private PreparedStatement prepare(Map<String, PreparedStatement> cache, String sql, boolean returnKeys)
+            throws SQLException {
+        PreparedStatement pstmt = cache.get(sql);
+        if (pstmt != null) {
+            DatabaseMetrics.getInstance().recordPrepare(true);
+            return pstmt;
+        }
+        pstmt = returnKeys
+                ? connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                : connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        cache.put(sql, pstmt);
+        DatabaseMetrics.getInstance().recordPrepare(false);
+        return pstmt;
+    }
+
+    private static SQLException closeQuietly(Statement stmt, SQLException failure) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            return failure != null ? failure : e;
+        }
+        return failure;
+    }
+
+    private static void setParameters(PreparedStatement pstmt, Object... params) throws SQLException {
+        if (params != null) {
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 1, params[i]);
+            }
+        }
+    }
+
+    /**
+     * 在工作单元内执行的操作
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+        T run(UnitOfWork work) throws SQLException;
+    }
+}
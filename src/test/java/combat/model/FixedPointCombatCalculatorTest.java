@@ -0,0 +1,138 @@
+package combat.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 定点数攻防计算器与 BigDecimal 实现的差分测试：同一输入下结果必须逐位一致
+ */
+class FixedPointCombatCalculatorTest {
+    private static final long SEED = 40_000L;
+    private static final int RANDOM_CASES = 200_000;
+
+    @Test
+    void randomInputsMatchBigDecimal() {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int i = 0; i < RANDOM_CASES; i++) {
+            assertMatches(
+                    random.nextLong(0, 10_000_000),            // 攻击力 0 ~ 100000.00
+                    random.nextLong(0, 100_000_000_000L),      // 防御力 0 ~ 100000.000000
+                    random.nextLong(0, 101),                   // 穿透 0 ~ 1.00
+                    random.nextLong(0, 101),                   // 抗性 0 ~ 1.00
+                    random.nextLong(1, 501),                   // 伤害倍率 0.01 ~ 5.00
+                    random.nextLong(0, 101),                   // 额外穿透 0 ~ 1.00
+                    random.nextLong(0, 101));                  // 额外防御 0 ~ 1.00
+        }
+    }
+
+    /**
+     * 低防御、高攻击时伤害系数超过 1 被截断，防御强度取最小值 50
+     */
+    @Test
+    void saturatedDamageFactorMatchesBigDecimal() {
+        SplittableRandom random = new SplittableRandom(SEED + 1);
+        for (int i = 0; i < RANDOM_CASES / 4; i++) {
+            assertMatches(
+                    random.nextLong(100_000, 100_000_000),     // 攻击力 1000.00 ~ 1000000.00
+                    random.nextLong(0, 1_000_000_000L),        // 防御力 0 ~ 1000.000000
+                    random.nextLong(0, 101),
+                    random.nextLong(0, 50),
+                    random.nextLong(100, 501),
+                    random.nextLong(50, 101),
+                    random.nextLong(0, 101));
+        }
+    }
+
+    @Test
+    void boundaryInputsMatchBigDecimal() {
+        long[] attacks = {0, 1, 99, 100, 5_000, 1_000_000_000L};
+        long[] defenses = {0, 1, 999_999, 50_000_000, 1_000_000_000, 1_000_000_000_000L};
+        long[] ratios = {0, 1, 50, 99, 100};
+        long[] multipliers = {1, 100, 1_000};
+        for (long attack : attacks) {
+            for (long defense : defenses) {
+                for (long penetration : ratios) {
+                    for (long resistance : ratios) {
+                        for (long multiplier : multipliers) {
+                            assertMatches(attack, defense, penetration, resistance, multiplier, 0, 0);
+                            assertMatches(attack, defense, penetration, resistance, multiplier, 100, 100);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 超出 long 表示范围时定点数接口抛出 ArithmeticException，BigDecimal 接口回退后结果仍一致
+     */
+    @Test
+    void overflowFallsBackToBigDecimal() {
+        BigDecimal hugeAttack = new BigDecimal("90000000000000.00");
+        assertThrows(ArithmeticException.class, () -> FixedPointCombatCalculator.calculateScaled(
+                9_000_000_000_000_000L, 0, 100, 0, 500, 0, 0, new FixedPointCombatCalculator.ScaledResult()));
+        assertFallbackMatches(hugeAttack, new BigDecimal("100.000000"), new BigDecimal("1.00"),
+                BigDecimal.ZERO, new BigDecimal("5.00"), BigDecimal.ZERO, BigDecimal.ZERO);
+        assertFallbackMatches(new BigDecimal("100.00"), new BigDecimal("90000000000000.000000"),
+                new BigDecimal("0.50"), new BigDecimal("0.10"), BigDecimal.ONE,
+                new BigDecimal("0.20"), new BigDecimal("1.00"));
+    }
+
+    /**
+     * 小数位超出定点数精度的输入无法精确转换，同样回退到 BigDecimal 实现
+     */
+    @Test
+    void excessPrecisionFallsBackToBigDecimal() {
+        assertFallbackMatches(new BigDecimal("123.456"), new BigDecimal("77.1234567"),
+                new BigDecimal("0.333"), new BigDecimal("0.125"), new BigDecimal("1.005"),
+                new BigDecimal("0.0001"), new BigDecimal("0.999"));
+    }
+
+    private static void assertMatches(long attack, long defense, long penetration, long resistance,
+                                      long multiplier, long extraPenetration, long extraDefense) {
+        BigDecimal attackValue = BigDecimal.valueOf(attack, 2);
+        BigDecimal defenseValue = BigDecimal.valueOf(defense, 6);
+        BigDecimal penetrationValue = BigDecimal.valueOf(penetration, 2);
+        BigDecimal resistanceValue = BigDecimal.valueOf(resistance, 2);
+        BigDecimal multiplierValue = BigDecimal.valueOf(multiplier, 2);
+        BigDecimal extraPenetrationValue = BigDecimal.valueOf(extraPenetration, 2);
+        BigDecimal extraDefenseValue = BigDecimal.valueOf(extraDefense, 2);
+        CombatResult expected = DefenseFirstCombatCalculator.calculateCombat(attackValue, defenseValue,
+                penetrationValue, resistanceValue, multiplierValue, extraPenetrationValue, extraDefenseValue);
+
+        FixedPointCombatCalculator.ScaledResult scaled = new FixedPointCombatCalculator.ScaledResult();
+        FixedPointCombatCalculator.calculateScaled(attack, defense, penetration, resistance, multiplier,
+                extraPenetration, extraDefense, scaled);
+        String input = String.format("attack=%s defense=%s penetration=%s resistance=%s multiplier=%s "
+                        + "extraPenetration=%s extraDefense=%s", attackValue, defenseValue, penetrationValue,
+                resistanceValue, multiplierValue, extraPenetrationValue, extraDefenseValue);
+        assertSameResult(expected, scaled.toCombatResult(), input);
+        assertSameResult(expected, FixedPointCombatCalculator.calculateCombat(attackValue, defenseValue,
+                penetrationValue, resistanceValue, multiplierValue, extraPenetrationValue, extraDefenseValue), input);
+    }
+
+    private static void assertFallbackMatches(BigDecimal attack, BigDecimal defense, BigDecimal penetration,
+                                              BigDecimal resistance, BigDecimal multiplier,
+                                              BigDecimal extraPenetration, BigDecimal extraDefense) {
+        CombatResult expected = DefenseFirstCombatCalculator.calculateCombat(attack, defense, penetration,
+                resistance, multiplier, extraPenetration, extraDefense);
+        CombatResult actual = FixedPointCombatCalculator.calculateCombat(attack, defense, penetration,
+                resistance, multiplier, extraPenetration, extraDefense);
+        assertSameResult(expected, actual, "attack=" + attack + " defense=" + defense);
+    }
+
+    /**
+     * BigDecimal 按 equals 比较，数值和小数位数都必须相同
+     */
+    private static void assertSameResult(CombatResult expected, CombatResult actual, String input) {
+        assertEquals(expected.getDefenseDamage(), actual.getDefenseDamage(), () -> "防御伤害不一致: " + input);
+        assertEquals(expected.getHealthDamage(), actual.getHealthDamage(), () -> "生命伤害不一致: " + input);
+        assertEquals(expected.getDamageFactor(), actual.getDamageFactor(), () -> "伤害系数不一致: " + input);
+        assertEquals(expected.isDefensePenetrated(), actual.isDefensePenetrated(), () -> "击穿标记不一致: " + input);
+    }
+}
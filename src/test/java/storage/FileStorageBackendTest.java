@@ -0,0 +1,202 @@
+package storage;
+
+import model.Campaign;
+import model.CampaignStatus;
+import model.Character;
+import model.EnemyBatch;
+import model.Faction;
+import model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 本地文件存储的持久化测试：重放、末尾损坏丢弃、事务分组和压缩
+ */
+class FileStorageBackendTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopenRestoresAllWrites() throws Exception {
+        Path log = directory.resolve("store.jsonl");
+        FileStorageBackend backend = new FileStorageBackend(log, true);
+        backend.characters().insert(character(1, "角色一"));
+        backend.characters().insert(character(2, "角色二"));
+        backend.characters().applyWrites(
+                Arrays.asList(unitRow(1, "战术小队", 10), unitRow(2, "终结者", 5)),
+                Collections.singletonList(resourceRow(1, "弹药", 3)),
+                Collections.singletonList(updateRow(2, "改名", "连长")));
+        backend.characters().delete(1);
+        backend.users().insert(user(7, "commander"));
+        backend.users().updatePermission(7, 3);
+        backend.close();
+
+        FileStorageBackend reopened = new FileStorageBackend(log, false);
+        assertNull(reopened.characters().findById(1));
+        Character second = reopened.characters().findById(2);
+        assertEquals("改名", second.getName());
+        assertEquals("连长", second.getTitle());
+        assertEquals(1, second.getUnits().size());
+        assertEquals("终结者", second.getUnits().get(0).getName());
+        assertEquals(3, reopened.users().findByUsername("commander").getPermissionLevel());
+        reopened.close();
+    }
+
+    @Test
+    void truncatedLastLineIsDroppedAndRewritten() throws Exception {
+        Path log = directory.resolve("store.jsonl");
+        FileStorageBackend backend = new FileStorageBackend(log, false);
+        backend.characters().insert(character(1, "角色一"));
+        backend.characters().insert(character(2, "角色二"));
+        backend.close();
+
+        // 模拟写入最后一行时进程退出
+        byte[] content = Files.readAllBytes(log);
+        Files.write(log, Arrays.copyOf(content, content.length - 10));
+
+        FileStorageBackend reopened = new FileStorageBackend(log, false);
+        assertEquals(1, reopened.characters().loadAll().size());
+        assertEquals(1, reopened.getLogRecordCount());
+        reopened.characters().insert(character(3, "角色三"));
+        reopened.close();
+
+        // 重写后的日志不再有损坏的行，追加的记录也能读回
+        FileStorageBackend again = new FileStorageBackend(log, false);
+        assertEquals(2, again.characters().loadAll().size());
+        again.close();
+    }
+
+    @Test
+    void incompleteTrailingTransactionIsDropped() throws Exception {
+        Path log = directory.resolve("store.jsonl");
+        FileStorageBackend backend = new FileStorageBackend(log, false);
+        backend.characters().insert(character(1, "角色一"));
+        backend.characters().insertUnits(Arrays.asList(
+                unitRow(1, "战术小队", 10), unitRow(1, "突击小队", 5), unitRow(1, "毁灭者小队", 5)));
+        backend.close();
+
+        // 三条记录只写出了两条：整个操作都不应生效
+        List<String> lines = Files.readAllLines(log, StandardCharsets.UTF_8);
+        assertEquals(5, lines.size());
+        Files.write(log, lines.subList(0, lines.size() - 1), StandardCharsets.UTF_8);
+
+        FileStorageBackend reopened = new FileStorageBackend(log, false);
+        assertTrue(reopened.characters().findById(1).getUnits().isEmpty());
+        reopened.close();
+        assertEquals(1, Files.readAllLines(log, StandardCharsets.UTF_8).size());
+    }
+
+    @Test
+    void corruptMiddleLineFailsToOpen() throws Exception {
+        Path log = directory.resolve("store.jsonl");
+        FileStorageBackend backend = new FileStorageBackend(log, false);
+        backend.characters().insert(character(1, "角色一"));
+        backend.characters().insert(character(2, "角色二"));
+        backend.characters().insert(character(3, "角色三"));
+        backend.close();
+
+        List<String> lines = new ArrayList<>(Files.readAllLines(log, StandardCharsets.UTF_8));
+        lines.set(1, lines.get(1).substring(0, 20));
+        Files.write(log, lines, StandardCharsets.UTF_8);
+
+        RuntimeException failure = assertThrows(RuntimeException.class, () -> new FileStorageBackend(log, false));
+        assertInstanceOf(IOException.class, failure.getCause());
+        // 损坏的日志保持原样，不会被压缩覆盖
+        assertEquals(lines, Files.readAllLines(log, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void compactionPreservesRowsAndIndexes() throws Exception {
+        Path log = directory.resolve("store.jsonl");
+        FileStorageBackend backend = new FileStorageBackend(log, false);
+        backend.characters().insert(character(1, "角色一"));
+        backend.characters().insert(character(2, "角色二"));
+        for (int i = 0; i < 20; i++) {
+            backend.characters().updateCharacters(Collections.singletonList(updateRow(1, "角色一" + i, "")));
+        }
+        backend.users().insert(user(7, "commander"));
+        backend.users().updateCharacterId(7, 2);
+        backend.campaigns().insert(campaign(100, 7));
+        backend.campaigns().insert(campaign(101, 7));
+        backend.campaigns().insert(campaign(102, 8));
+        backend.campaigns().updateStatus(101, CampaignStatus.STARTED, 1, Arrays.asList(1L, 2L));
+        backend.campaigns().addEnemyBatch(101, new EnemyBatch("虫群先锋", "", 2));
+        long before = backend.getLogRecordCount();
+
+        backend.compact();
+        assertTrue(backend.getLogRecordCount() < before);
+        assertFalse(Files.exists(directory.resolve("store.jsonl.tmp")));
+        assertStoreContents(backend);
+        backend.close();
+
+        FileStorageBackend reopened = new FileStorageBackend(log, false);
+        assertStoreContents(reopened);
+        reopened.close();
+    }
+
+    private static void assertStoreContents(FileStorageBackend backend) throws SQLException {
+        assertEquals(2, backend.characters().loadAll().size());
+        assertEquals("角色一19", backend.characters().findById(1).getName());
+        assertEquals(2, backend.users().findByUsername("commander").getCharacterId());
+
+        assertEquals(Arrays.asList(100L, 101L), ids(backend.campaigns().findByCreator(7)));
+        assertEquals(Collections.singletonList(102L), ids(backend.campaigns().findByCreator(8)));
+        assertEquals(Arrays.asList(100L, 102L), ids(backend.campaigns().findByStatus(CampaignStatus.CREATED)));
+        assertEquals(Collections.singletonList(101L), ids(backend.campaigns().findByStatus(CampaignStatus.STARTED)));
+
+        Campaign started = backend.campaigns().findById(101);
+        assertEquals(1, started.getCurrentBatchIndex());
+        assertEquals(Arrays.asList(1L, 2L), started.getParticipantIds());
+        assertEquals(1, started.getEnemyBatches().size());
+    }
+
+    private static List<Long> ids(List<Campaign> campaigns) {
+        List<Long> ids = new ArrayList<>(campaigns.size());
+        for (Campaign campaign : campaigns) {
+            ids.add(campaign.getId());
+        }
+        return ids;
+    }
+
+    private static Character character(long id, String name) {
+        return new Character(id, name, "", Faction.values()[0], new ArrayList<>(), new ArrayList<>());
+    }
+
+    private static User user(long id, String username) {
+        return new User(id, username, "hash", "salt", 1, 0);
+    }
+
+    private static Campaign campaign(long id, long creatorId) {
+        return new Campaign(id, "战役" + id, "", creatorId, CampaignStatus.CREATED,
+                new ArrayList<>(), new ArrayList<>(), 0);
+    }
+
+    private static Object[] unitRow(long characterId, String name, int count) {
+        return new Object[]{characterId, name, "步兵", count};
+    }
+
+    private static Object[] resourceRow(long characterId, String name, int quantity) {
+        return new Object[]{characterId, name, quantity};
+    }
+
+    private static Object[] updateRow(long characterId, String name, String title) {
+        return new Object[]{name, title, Faction.values()[0].name(), null, characterId};
+    }
+}